@@ -1,30 +1,41 @@
 package jp.co.sss.lms.controller;
 
+import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jp.co.sss.lms.dto.AttendanceManagementDto;
 import jp.co.sss.lms.dto.LoginUserDto;
 import jp.co.sss.lms.entity.AttendanceCheck;
 import jp.co.sss.lms.entity.MPlace;
+import jp.co.sss.lms.form.AttendanceBulkRegistForm;
 import jp.co.sss.lms.form.AttendanceCheckForm;
+import jp.co.sss.lms.form.AttendanceExportForm;
 import jp.co.sss.lms.form.AttendanceForm;
-import jp.co.sss.lms.mapper.MCompanyMapper;
-import jp.co.sss.lms.mapper.MCourseMapper;
-import jp.co.sss.lms.mapper.MPlaceMapper;
+import jp.co.sss.lms.service.AttendanceExportService;
 import jp.co.sss.lms.service.StudentAttendanceService;
+import jp.co.sss.lms.util.AttendanceAnalytics;
 import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.MasterDataCache;
 
 /**
  * 勤怠管理コントローラ
@@ -40,11 +51,15 @@ public class AttendanceController {
 	@Autowired
 	private LoginUserDto loginUserDto;
 	@Autowired
-	private MCourseMapper mCourseMapper;
+	private MasterDataCache masterDataCache;
 	@Autowired
-	private MPlaceMapper mPlaceMapper;
+	private DateUtil dateUtil;
 	@Autowired
-	private MCompanyMapper mCompanyMapper;
+	private LoginUserUtil loginUserUtil;
+	@Autowired
+	private AttendanceAnalytics attendanceAnalytics;
+	@Autowired
+	private AttendanceExportService attendanceExportService;
 
 	/**
 	 * 勤怠管理画面 初期表示
@@ -187,10 +202,11 @@ public class AttendanceController {
 	 * @return 勤怠情報確認リスト画面
 	 */
 	@GetMapping("/list")
-	public String getList(@ModelAttribute AttendanceCheckForm attendanceCheckForm, Model model) {		//それぞれのリストを取得
-		model.addAttribute("courses", mCourseMapper.findAll(Constants.DB_FLG_FALSE));
-		model.addAttribute("places", mPlaceMapper.findAll(Constants.DB_FLG_FALSE));
-		model.addAttribute("companies", mCompanyMapper.findAll(Constants.DB_FLG_FALSE));
+	public String getList(@ModelAttribute AttendanceCheckForm attendanceCheckForm, Model model) {
+		//それぞれのリストを取得
+		model.addAttribute("courses", masterDataCache.getCourseList());
+		model.addAttribute("places", masterDataCache.getPlaceList());
+		model.addAttribute("companies", masterDataCache.getCompanyList());
 		return "attendance/list";
 	}
 	/**
@@ -204,20 +220,123 @@ public class AttendanceController {
 		List<AttendanceCheck> checkList = studentAttendanceService.getAttendanceData(attendanceCheckForm);
 		//それぞれのリストを取得
 		model.addAttribute("checkList", checkList);
-		model.addAttribute("courses", mCourseMapper.findAll(Constants.DB_FLG_FALSE));
-		model.addAttribute("places", mPlaceMapper.findAll(Constants.DB_FLG_FALSE));
-		model.addAttribute("companies", mCompanyMapper.findAll(Constants.DB_FLG_FALSE));
+		model.addAttribute("courses", masterDataCache.getCourseList());
+		model.addAttribute("places", masterDataCache.getPlaceList());
+		model.addAttribute("companies", masterDataCache.getCompanyList());
+		model.addAttribute("attendanceCheckForm", attendanceCheckForm);
+		return "attendance/list";
+	}
+	
+	/**
+	 * 勤怠情報確認リスト画面 『遅刻早退を再判定』ボタン押下
+	 * @param attendanceCheckForm
+	 * @param model
+	 * @return 勤怠情報確認リスト画面
+	 */
+	@PostMapping("/recalcStatus")
+	public String recalcStatus(AttendanceCheckForm attendanceCheckForm, Model model) {
+		String message = studentAttendanceService.recalcStatus(attendanceCheckForm.getCourseId());
+		model.addAttribute("message", message);
+		model.addAttribute("courses", masterDataCache.getCourseList());
+		model.addAttribute("places", masterDataCache.getPlaceList());
+		model.addAttribute("companies", masterDataCache.getCompanyList());
 		model.addAttribute("attendanceCheckForm", attendanceCheckForm);
 		return "attendance/list";
 	}
 	
+	/**
+	 * 講師・企業担当者権限ヘッダー 『勤怠集計』リンク押下
+	 * @param courseId
+	 * @param model
+	 * @return 勤怠集計画面
+	 */
+	@GetMapping("/analytics")
+	public String analytics(@RequestParam(name = "courseId", required = false) Integer courseId,
+			Model model) {
+		model.addAttribute("courses", masterDataCache.getCourseList());
+		model.addAttribute("courseId", courseId);
+		if (courseId != null) {
+			if (loginUserUtil.isCompany()) {
+				// 企業担当者は自社の受講生のみ（日毎の集計は他社の受講生を含むため表示しない）
+				model.addAttribute("studentList",
+						attendanceAnalytics.getStudentList(courseId, loginUserDto.getCompanyId()));
+			} else {
+				model.addAttribute("studentList", attendanceAnalytics.getStudentList(courseId, null));
+				model.addAttribute("dailyList", attendanceAnalytics.getDailyList(courseId));
+			}
+		}
+		return "attendance/analytics";
+	}
+
+	/**
+	 * 勤怠集計画面 『CSV出力』ボタン押下
+	 * @param attendanceExportForm
+	 * @param response
+	 * @throws IOException
+	 */
+	@GetMapping("/export")
+	@ResponseBody
+	public void export(AttendanceExportForm attendanceExportForm, HttpServletResponse response)
+			throws IOException {
+		if (!attendanceExportService.exportCsv(attendanceExportForm, response)) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+		}
+	}
+
+	/**
+	 * 講師権限ヘッダー 『勤怠一括登録』リンク押下
+	 * @param model
+	 * @param session
+	 * @return 勤怠一括登録画面
+	 */
 	@GetMapping("/bulkRegist")
 	public String bulkRegist(Model model, HttpSession session) {
-		LoginUserDto dto = (LoginUserDto) session.getAttribute("loginUserDto");	
-		MPlace place = mPlaceMapper.findById(dto.getPlaceId(), Constants.DB_HIDDEN_FLG_FALSE,
-				Constants.DB_FLG_FALSE);
-		String placeName = studentAttendanceService.setPlaceName(place);
-		model.addAttribute("placeName", placeName);
+		AttendanceBulkRegistForm attendanceBulkRegistForm = new AttendanceBulkRegistForm();
+		attendanceBulkRegistForm.setTrainingDate(dateUtil.toString(new Date(), "yyyy-MM-dd"));
+		model.addAttribute("attendanceBulkRegistForm", attendanceBulkRegistForm);
+		model.addAttribute("placeName", getPlaceName(session));
+		return "attendance/bulkRegist";
+	}
+
+	/**
+	 * 勤怠一括登録画面 『登録』ボタン押下
+	 * @param attendanceBulkRegistForm
+	 * @param result
+	 * @param model
+	 * @param session
+	 * @return 勤怠一括登録画面
+	 * @throws ParseException
+	 */
+	@PostMapping("/bulkRegist")
+	public String bulkRegistComplete(AttendanceBulkRegistForm attendanceBulkRegistForm,
+			BindingResult result, Model model, HttpSession session) throws ParseException {
+		LoginUserDto dto = (LoginUserDto) session.getAttribute("loginUserDto");
+		result = studentAttendanceService.bulkRegistCheck(attendanceBulkRegistForm, result);
+		if (result.hasErrors()) {
+			List<String> errorList = new ArrayList<>();
+			for (FieldError fieldError : result.getFieldErrors()) {
+				errorList.add(fieldError.getDefaultMessage());
+			}
+			model.addAttribute("errorList", errorList);
+		} else {
+			String message = studentAttendanceService.bulkRegist(dto.getPlaceId(),
+					attendanceBulkRegistForm);
+			model.addAttribute("message", message);
+		}
+		model.addAttribute("attendanceBulkRegistForm", attendanceBulkRegistForm);
+		model.addAttribute("placeName", getPlaceName(session));
 		return "attendance/bulkRegist";
 	}
+
+	/**
+	 * ログインユーザーの会場名を取得
+	 * @param session
+	 * @return 会場名
+	 */
+	private String getPlaceName(HttpSession session) {
+		LoginUserDto dto = (LoginUserDto) session.getAttribute("loginUserDto");
+		MPlace place = masterDataCache.getPlace(dto.getPlaceId(), Constants.DB_HIDDEN_FLG_FALSE,
+				Constants.DB_FLG_FALSE);
+		return studentAttendanceService.setPlaceName(place);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package jp.co.sss.lms.controller;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.service.MetricsService;
+
+/**
+ * 計測値コントローラー
+ * 
+ * @author 東京ITスクール
+ */
+@Controller
+public class MetricsController {
+
+	@Autowired
+	private MetricsService metricsService;
+
+	/**
+	 * 計測値をPrometheusのテキスト形式で出力（トークンを指定した場合のみ）
+	 * 
+	 * @param request
+	 * @param response
+	 * @throws IOException
+	 */
+	@GetMapping("/metrics")
+	@ResponseBody
+	public void metrics(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (!metricsService.isAllowed(request.getHeader("Authorization"))) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+		metricsService.write(response.getWriter());
+	}
+
+}
@@ -12,9 +12,13 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.ReportExportJobDto;
 import jp.co.sss.lms.form.DailyReportDownloadForm;
+import jp.co.sss.lms.form.DailyReportExportForm;
 import jp.co.sss.lms.form.DailyReportSubmitForm;
+import jp.co.sss.lms.service.ReportExportService;
 import jp.co.sss.lms.service.ReportService;
+import net.arnx.jsonic.JSON;
 
 /**
  * レポートコントローラー
@@ -27,6 +31,8 @@ public class ReportController {
 
 	@Autowired
 	private ReportService reportService;
+	@Autowired
+	private ReportExportService reportExportService;
 
 	/**
 	 * レポート登録画面 初期表示
@@ -90,4 +96,56 @@ public class ReportController {
 				dailyReportDownloadForm.getDailyReportSubmitId(), response);
 	}
 
+	/**
+	 * レポート一括エクスポート 『エクスポート』ボタン押下
+	 * 
+	 * @param dailyReportExportForm
+	 * @return ジョブ情報（JSON形式）
+	 * @throws ParseException
+	 */
+	@RequestMapping(path = "/export/submit", method = RequestMethod.POST)
+	@ResponseBody
+	public String exportSubmit(DailyReportExportForm dailyReportExportForm) throws ParseException {
+
+		// エクスポートジョブ登録
+		ReportExportJobDto reportExportJobDto = reportExportService.submit(dailyReportExportForm);
+
+		return JSON.encode(reportExportJobDto);
+	}
+
+	/**
+	 * レポート一括エクスポート 進捗確認
+	 * 
+	 * @param dailyReportExportForm
+	 * @return ジョブ情報（JSON形式）
+	 */
+	@RequestMapping(path = "/export/progress", method = RequestMethod.GET)
+	@ResponseBody
+	public String exportProgress(DailyReportExportForm dailyReportExportForm) {
+
+		// エクスポートジョブの進捗取得
+		ReportExportJobDto reportExportJobDto = reportExportService
+				.getProgress(dailyReportExportForm.getJobId());
+
+		return JSON.encode(reportExportJobDto);
+	}
+
+	/**
+	 * レポート一括エクスポート ダウンロード
+	 * 
+	 * @param dailyReportExportForm
+	 * @param response
+	 * @throws IOException
+	 */
+	@RequestMapping(path = "/export/download", method = RequestMethod.GET)
+	@ResponseBody
+	public void exportDownload(DailyReportExportForm dailyReportExportForm,
+			HttpServletResponse response) throws IOException {
+
+		// 作成済ZIPファイルのダウンロード
+		if (!reportExportService.download(dailyReportExportForm.getJobId(), response)) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+		}
+	}
+
 }
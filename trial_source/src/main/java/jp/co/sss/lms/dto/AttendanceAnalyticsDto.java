@@ -0,0 +1,36 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * 勤怠集計DTO（受講生毎）
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceAnalyticsDto {
+
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 出席日数 */
+	private Integer attendanceCount;
+	/** 遅刻回数 */
+	private Integer tardyCount;
+	/** 早退回数 */
+	private Integer leavingEarlyCount;
+	/** 欠席日数 */
+	private Integer absentCount;
+	/** 過去日未入力件数 */
+	private Integer blankCount;
+	/** 受講時間数（時間） */
+	private String trainingTime;
+	/** 遅刻率（％） */
+	private Double tardyRate;
+	/** 早退率（％） */
+	private Double leavingEarlyRate;
+	/** 欠席率（％） */
+	private Double absentRate;
+
+}
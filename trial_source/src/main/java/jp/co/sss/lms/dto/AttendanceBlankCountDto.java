@@ -0,0 +1,18 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * 勤怠未入力件数DTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceBlankCountDto {
+
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** 過去日未入力件数 */
+	private Integer blankCount;
+
+}
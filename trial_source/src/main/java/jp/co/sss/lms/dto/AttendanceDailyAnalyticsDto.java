@@ -0,0 +1,28 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 勤怠集計DTO（日毎）
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceDailyAnalyticsDto {
+
+	/** 日付 */
+	private Date trainingDate;
+	/** 出席人数 */
+	private Integer attendanceCount;
+	/** 遅刻人数 */
+	private Integer tardyCount;
+	/** 早退人数 */
+	private Integer leavingEarlyCount;
+	/** 欠席人数 */
+	private Integer absentCount;
+	/** 未入力人数 */
+	private Integer blankCount;
+
+}
@@ -0,0 +1,38 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 勤怠エクスポートDTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceExportDto {
+
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 企業ID */
+	private Integer companyId;
+	/** 企業名 */
+	private String companyName;
+	/** コース名 */
+	private String courseName;
+	/** 日付 */
+	private Date trainingDate;
+	/** 出勤時刻 */
+	private String trainingStartTime;
+	/** 退勤時刻 */
+	private String trainingEndTime;
+	/** 中抜け時間 */
+	private Integer blankTime;
+	/** ステータス */
+	private Short status;
+	/** 備考 */
+	private String note;
+
+}
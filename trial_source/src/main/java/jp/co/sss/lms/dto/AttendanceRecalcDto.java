@@ -0,0 +1,34 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 勤怠ステータス再計算DTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceRecalcDto {
+
+	/** 受講生勤怠ID */
+	private Integer studentAttendanceId;
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** 企業ID */
+	private Integer companyId;
+	/** 日付 */
+	private Date trainingDate;
+	/** 出勤時刻 */
+	private String trainingStartTime;
+	/** 退勤時刻 */
+	private String trainingEndTime;
+	/** ステータス */
+	private Short status;
+	/** 最終更新者 */
+	private Integer lastModifiedUser;
+	/** 最終更新日時 */
+	private Date lastModifiedDate;
+
+}
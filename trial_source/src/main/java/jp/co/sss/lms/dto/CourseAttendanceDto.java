@@ -0,0 +1,32 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * コース勤怠DTO（受講生毎の勤怠情報、勤怠情報のない受講生は日付がnull）
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class CourseAttendanceDto {
+
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 企業ID */
+	private Integer companyId;
+	/** 日付 */
+	private Date trainingDate;
+	/** 出勤時刻 */
+	private String trainingStartTime;
+	/** 退勤時刻 */
+	private String trainingEndTime;
+	/** 中抜け時間 */
+	private Integer blankTime;
+	/** ステータス */
+	private Short status;
+
+}
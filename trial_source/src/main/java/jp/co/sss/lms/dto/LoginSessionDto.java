@@ -0,0 +1,22 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * ログインセッションDTO
+ *
+ * @author 東京ITスクール
+ */
+@Data
+public class LoginSessionDto {
+
+	/** セッションキー */
+	private String sessionKey;
+	/** ログイン情報（{@link jp.co.sss.lms.util.LoginUserDtoCodec}で変換したバイト列） */
+	private byte[] sessionData;
+	/** 有効期限 */
+	private Date expireDate;
+
+}
@@ -63,5 +63,7 @@ public class LoginUserDto implements Serializable {
 	private Date leaveDate;
 	/** ファイル共有フラグ */
 	private Short fileShareFlg;
+	/** 画面遷移判定（パスワード期限・契約同意）の有効期限 */
+	private Long gateCheckExpireTime;
 
 }
@@ -0,0 +1,26 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * レポート一括エクスポートジョブDTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ReportExportJobDto {
+
+	/** ジョブID */
+	private String jobId;
+	/** ステータス */
+	private Short status;
+	/** ステータス名 */
+	private String statusName;
+	/** 対象件数 */
+	private Integer totalCount;
+	/** 作成済件数 */
+	private Integer completeCount;
+	/** メッセージ */
+	private String message;
+
+}
@@ -0,0 +1,31 @@
+package jp.co.sss.lms.enums;
+
+/**
+ * エクスポートジョブのステータスクラス
+ * 
+ * @author 東京ITスクール
+ *
+ */
+public enum ExportJobStatusEnum {
+
+	WAITING((short) 0, "待機中"), RUNNING((short) 1, "作成中"), COMPLETE((short) 2, "完了"),
+	ERROR((short) 9, "エラー"),;
+
+	public Short code;
+	public String name;
+
+	private ExportJobStatusEnum(Short code, String name) {
+		this.code = code;
+		this.name = name;
+	}
+
+	public static ExportJobStatusEnum getEnum(Short code) {
+		for (ExportJobStatusEnum e : ExportJobStatusEnum.values()) {
+			if (e.code.equals(code)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+}
@@ -1,6 +1,8 @@
 package jp.co.sss.lms.filter;
 
 import java.io.IOException;
+import java.util.Enumeration;
+import java.util.concurrent.ThreadLocalRandom;
 
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
@@ -9,28 +11,43 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
-import jp.co.sss.lms.util.LoggingUtil;
+import jp.co.sss.lms.dto.LoginUserDto;
 
 /**
- * ロギングフィルター
- * 
+ * ロギングフィルター<br>
+ * リクエスト毎に1行のリクエストログを出力する。項目はスレッド毎に使い回すメッセージに格納し、
+ * 出力はlog4j2.xmlの非同期アペンダー（キューが満杯の場合は破棄）で行う。<br>
+ * ヘッダは設定で指定したもののみ出力し、設定した割合でサンプリングする（サーバーエラーは常に出力する）。
+ *
  * @author 東京ITスクール
  */
 @Component
 @Order(1)
 public class LoggingFilter implements Filter {
-	
+
+	/** リクエストログのロガー */
+	private static final Logger requestLogger = LogManager.getLogger("jp.co.sss.lms.request");
+
 	@Autowired
-	private LoggingUtil loggingUtil;
+	private LoginUserDto loginUserDto;
+
+	@Value("${setting.log.request.headers}")
+	private String[] headerNames;
+	@Value("${setting.log.request.sample}")
+	private double sampleRate;
 
-	private final Logger logger = LoggerFactory.getLogger(getClass());
+	/** スレッド毎のメッセージ */
+	private final ThreadLocal<RequestLogMessage> messagePool = ThreadLocal
+			.withInitial(() -> new RequestLogMessage(headerNames));
 
 	@Override
 	public void init(FilterConfig filterConfig) throws ServletException {
@@ -40,20 +57,58 @@ public class LoggingFilter implements Filter {
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
 			throws IOException, ServletException {
 		HttpServletRequest httpReq = ((HttpServletRequest) request);
-		String uri = httpReq.getRequestURI();
-		if (isStatic(uri)) {
+		HttpServletResponse httpRes = (HttpServletResponse) response;
+		if (isStatic(httpReq.getRequestURI()) || !requestLogger.isInfoEnabled()) {
 			chain.doFilter(request, response);
 			return;
 		}
-		StringBuffer sb = new StringBuffer("\n[before]");
-		loggingUtil.appendLog(sb);
-		logger.info(sb.toString());
-
-		chain.doFilter(request, response);
+		boolean sampled = sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+		RequestLogMessage message = messagePool.get();
+		message.reset(httpReq.getMethod(), httpReq.getRequestURI());
+		if (sampled) {
+			capture(httpReq, message);
+		}
+		long startTime = System.nanoTime();
+		String error = null;
+		try {
+			chain.doFilter(request, response);
+		} catch (IOException | ServletException | RuntimeException e) {
+			error = e.getClass().getName();
+			throw e;
+		} finally {
+			int status = error == null ? httpRes.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+			if (sampled || status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+				message.setResult(status, (System.nanoTime() - startTime) / 1_000_000L, error);
+				// レスポンス確定後にセッションを生成しないよう、セッションがある場合のみ参照
+				if (httpReq.getSession(false) != null && loginUserDto.getLmsUserId() != null) {
+					message.setLoginUser(loginUserDto.getLmsUserId(), loginUserDto.getRole());
+				}
+				requestLogger.info(message);
+			}
+		}
+	}
 
-		sb = new StringBuffer("\n[after]");
-		loggingUtil.appendLog(sb);
-		logger.info(sb.toString());
+	/**
+	 * ヘッダ・入力情報を格納
+	 *
+	 * @param httpReq
+	 * @param message
+	 */
+	private void capture(HttpServletRequest httpReq, RequestLogMessage message) {
+		String[] names = message.getHeaderNames();
+		for (int i = 0; i < names.length; i++) {
+			message.setHeader(i, httpReq.getHeader(names[i]));
+		}
+		Enumeration<String> paramNames = httpReq.getParameterNames();
+		while (paramNames.hasMoreElements()) {
+			String name = paramNames.nextElement();
+			if (name.equals("password") || name.equals("passwordConfirm")) {
+				// パスワードは表示させない
+				message.addParam(name, "*****************");
+			} else {
+				message.addParam(name, httpReq.getParameter(name));
+			}
+		}
 	}
 
 	private boolean isStatic(String uri) {
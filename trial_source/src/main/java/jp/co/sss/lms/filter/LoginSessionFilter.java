@@ -2,10 +2,9 @@
 package jp.co.sss.lms.filter;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +24,6 @@ import jakarta.servlet.http.HttpSession;
 import jp.co.sss.lms.dto.LoginUserDto;
 import jp.co.sss.lms.service.ContractService;
 import jp.co.sss.lms.util.Constants;
-import jp.co.sss.lms.util.DateUtil;
 import jp.co.sss.lms.util.LoggingUtil;
 import jp.co.sss.lms.util.LoginUserUtil;
 import jp.co.sss.lms.util.MessageUtil;
@@ -44,8 +42,6 @@ public class LoginSessionFilter implements Filter {
 	@Autowired
 	private LoginUserDto loginUserDto;
 	@Autowired
-	private DateUtil dateUtil;
-	@Autowired
 	private HttpSession session;
 	@Autowired
 	private LoggingUtil loggingUtil;
@@ -93,16 +89,20 @@ public class LoginSessionFilter implements Filter {
 				// セキュリティ同意フラグが立っていなければ利用規約画面へ遷移
 				httpRes.sendRedirect(httpReq.getContextPath() + "/user/agreeSecurity");
 				return;
-			} else if (loginUserDto.getPasswordChangeDate() == null
-					|| !(isCurrentPasswordExpired())) {
-				// 最終パスワード変更日時が1ヶ月を経過していればパスワード変更画面へ遷移
-				httpRes.sendRedirect(httpReq.getContextPath() + "/password/changePassword");
-				return;
-			} else if (loginUserUtil.isCompany()
-					&& !contractService.getDisagreementConsentDtoList().isEmpty()) {
-				// 企業担当者であり、かつ未同意の契約同意DTOが存在すれば契約書確認画面へ遷移
-				httpRes.sendRedirect(httpReq.getContextPath() + "/contract/agreement/regist");
-				return;
+			} else if (isGateCheckExpired()) {
+				if (loginUserDto.getPasswordChangeDate() == null
+						|| !(isCurrentPasswordExpired())) {
+					// 最終パスワード変更日時が1ヶ月を経過していればパスワード変更画面へ遷移
+					httpRes.sendRedirect(httpReq.getContextPath() + "/password/changePassword");
+					return;
+				} else if (loginUserUtil.isCompany()
+						&& !contractService.getDisagreementConsentDtoList().isEmpty()) {
+					// 企業担当者であり、かつ未同意の契約同意DTOが存在すれば契約書確認画面へ遷移
+					httpRes.sendRedirect(httpReq.getContextPath() + "/contract/agreement/regist");
+					return;
+				}
+				// 判定を通過した結果を有効期限付きでセッションに保持
+				loginUserDto.setGateCheckExpireTime(getGateCheckExpireTime());
 			}
 		}
 		chain.doFilter(request, response);
@@ -124,210 +124,303 @@ public class LoginSessionFilter implements Filter {
 	 * @return boolean
 	 */
 	private boolean isCheckDisp(String uri, String contextPath) {
-		return uri.equals(contextPath) || uri.equals(contextPath + "/")
-				|| uri.startsWith(contextPath + "/login") || uri.startsWith(contextPath + "/logout")
-				|| uri.startsWith(contextPath + "/password/resetPassword")
-				|| uri.equals(contextPath + "/faq")
-				|| uri.startsWith(contextPath + "/user/agreeSecurity")
-				|| uri.startsWith(contextPath + "/password/changePassword")
-				|| uri.startsWith(contextPath + "/password/resetPassword/complete")
-				|| uri.startsWith(contextPath + "/contract/agreement/regist");
+		if (!uri.startsWith(contextPath)) {
+			return false;
+		}
+		// コンテキストパス以降を比較（部分文字列を生成しない）
+		int offset = contextPath.length();
+		int length = uri.length() - offset;
+		for (String path : NO_LOGIN_PATHS) {
+			if (length == path.length() && uri.startsWith(path, offset)) {
+				return true;
+			}
+		}
+		for (String prefix : NO_LOGIN_PATH_PREFIXES) {
+			if (uri.startsWith(prefix, offset)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
+	// ログインしていなくても遷移できるパス（完全一致）
+	private static final String[] NO_LOGIN_PATHS = { "", "/", "/faq", "/metrics" };
+
+	// ログインしていなくても遷移できるパス（前方一致）
+	private static final String[] NO_LOGIN_PATH_PREFIXES = { "/login", "/logout",
+			"/password/resetPassword", "/user/agreeSecurity", "/password/changePassword",
+			"/contract/agreement/regist" };
+
 	/**
 	 * パスワード変更日が1ヶ月未満か確認
 	 * 
 	 * @return boolean
 	 */
 	public boolean isCurrentPasswordExpired() {
-		// 現在日時取得
-		Calendar now = dateUtil.toCalendar(dateUtil.getCurrentDateString());
 		// 現在日時から1ヶ月マイナスする
+		Calendar now = Calendar.getInstance();
 		now.add(Calendar.MONTH, -1);
 		// 最終パスワード変更日時が1ヶ月未満か確認
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
-		Date t = loginUserDto.getPasswordChangeDate();
-		String pCD = sdf.format(t);
-		if (now.compareTo(dateUtil.toCalendar(pCD)) > 0) {
-			return false;
-		} else {
-			return true;
-		}
+		return now.getTime().compareTo(loginUserDto.getPasswordChangeDate()) <= 0;
+	}
+
+	/**
+	 * 保持している画面遷移判定の有効期限が切れているか確認
+	 * 
+	 * @return 判定が必要な場合true
+	 */
+	private boolean isGateCheckExpired() {
+		Long expireTime = loginUserDto.getGateCheckExpireTime();
+		return expireTime == null || expireTime <= System.currentTimeMillis();
+	}
+
+	/**
+	 * 画面遷移判定の有効期限を取得<br>
+	 * 翌日0時（契約同意の判定日の切替）と、パスワードの有効期限のうち早い方
+	 * 
+	 * @return 有効期限
+	 */
+	private long getGateCheckExpireTime() {
+		Calendar midnight = Calendar.getInstance();
+		midnight.add(Calendar.DATE, 1);
+		midnight.set(Calendar.HOUR_OF_DAY, 0);
+		midnight.set(Calendar.MINUTE, 0);
+		midnight.set(Calendar.SECOND, 0);
+		midnight.set(Calendar.MILLISECOND, 0);
+		Calendar passwordLimit = Calendar.getInstance();
+		passwordLimit.setTime(loginUserDto.getPasswordChangeDate());
+		passwordLimit.add(Calendar.MONTH, 1);
+		return Math.min(midnight.getTimeInMillis(), passwordLimit.getTimeInMillis());
 	}
 
 	@Override
 	public void destroy() {
 	}
 
-	// 権限毎のアクセス制限チェック
+	/**
+	 * 権限毎のアクセス制限チェック
+	 * 
+	 * @param role
+	 * @param url
+	 * @return アクセス可能な場合true
+	 */
 	private boolean isAccess(String role, String url) {
-
-		boolean flg = false;
-
-		if (Constants.CODE_VAL_ROLL_STUDENT.equals(role) && studentAcessList.contains(url)) {
-			flg = true;
-		} else if (Constants.CODE_VAL_ROLL_TEACHER.equals(role) && teacherAcessList.contains(url)) {
-			flg = true;
-		} else if (Constants.CODE_VAL_ROLL_COMPANY.equals(role) && companyAcessList.contains(url)) {
-			flg = true;
-		} else if (Constants.CODE_VAL_ROLL_ADMIN.equals(role) && adminAcessList.contains(url)) {
-			flg = true;
-		} else if (Constants.CODE_VAL_ROLL_TRAINING.equals(role)
-				&& trainingAcessList.contains(url)) {
-			flg = true;
+		int roleBit = getRoleBit(role);
+		if (roleBit == 0) {
+			return false;
 		}
+		Integer accessRoles = ACCESS_ROLE_MAP.get(url);
+		return accessRoles != null && (accessRoles & roleBit) != 0;
+	}
 
-		return flg;
+	/**
+	 * ロールに対応するビットを取得
+	 * 
+	 * @param role
+	 * @return ロールのビット（該当なしの場合0）
+	 */
+	private static int getRoleBit(String role) {
+		if (role == null) {
+			return 0;
+		}
+		switch (role) {
+		case Constants.CODE_VAL_ROLL_STUDENT:
+			return ROLE_BIT_STUDENT;
+		case Constants.CODE_VAL_ROLL_TEACHER:
+			return ROLE_BIT_TEACHER;
+		case Constants.CODE_VAL_ROLL_COMPANY:
+			return ROLE_BIT_COMPANY;
+		case Constants.CODE_VAL_ROLL_ADMIN:
+			return ROLE_BIT_ADMIN;
+		case Constants.CODE_VAL_ROLL_TRAINING:
+			return ROLE_BIT_TRAINING;
+		default:
+			return 0;
+		}
 	}
 
+	/** ロールビット：受講生 */
+	private static final int ROLE_BIT_STUDENT = 1;
+	/** ロールビット：講師 */
+	private static final int ROLE_BIT_TEACHER = 1 << 1;
+	/** ロールビット：企業担当者 */
+	private static final int ROLE_BIT_COMPANY = 1 << 2;
+	/** ロールビット：管理者 */
+	private static final int ROLE_BIT_ADMIN = 1 << 3;
+	/** ロールビット：育成担当者 */
+	private static final int ROLE_BIT_TRAINING = 1 << 4;
+
 	// 受講生権限のアクセス可能URL
-	private final static ArrayList<String> studentAcessList = new ArrayList<String>();
-	static {
-		studentAcessList.add("/lms/user/agreeSecurity");
-		studentAcessList.add("/lms/error");
-		studentAcessList.add("/lms/illegal");
-		studentAcessList.add("/lms/course/detail");
-		studentAcessList.add("/lms/section/detail");
-		studentAcessList.add("/lms/exam/start");
-		studentAcessList.add("/lms/exam/question");
-		studentAcessList.add("/lms/exam/detail");
-		studentAcessList.add("/lms/exam/result");
-		studentAcessList.add("/lms/exam/resultDetail");
-		studentAcessList.add("/lms/exam/answerCheck");
-		studentAcessList.add("/lms/report/detail");
-		studentAcessList.add("/lms/report/regist");
-		studentAcessList.add("/lms/report/complete");
-		studentAcessList.add("/lms/report/download");
-		studentAcessList.add("/lms/report/feedback/regist");
-		studentAcessList.add("/lms/report/feedback/delete");
-		studentAcessList.add("/lms/report/feedback/update");
-		studentAcessList.add("/lms/download/teachingMaterialList");
-		studentAcessList.add("/lms/attendance/detail");
-		studentAcessList.add("/lms/attendance/update");
-		studentAcessList.add("/lms/fileshare/list");
-		studentAcessList.add("/lms/movie");
-		studentAcessList.add("/lms/support");
-		studentAcessList.add("/lms/help");
-		studentAcessList.add("/lms/faq");
-		studentAcessList.add("/lms/info");
-		studentAcessList.add("/lms/info/json");
-		studentAcessList.add("/lms/user/detail");
-		studentAcessList.add("/lms/password/changePassword");
-	}
+	private static final String[] STUDENT_ACCESS_URLS = {
+			"/lms/user/agreeSecurity",
+			"/lms/error",
+			"/lms/illegal",
+			"/lms/course/detail",
+			"/lms/section/detail",
+			"/lms/exam/start",
+			"/lms/exam/question",
+			"/lms/exam/detail",
+			"/lms/exam/result",
+			"/lms/exam/resultDetail",
+			"/lms/exam/answerCheck",
+			"/lms/report/detail",
+			"/lms/report/regist",
+			"/lms/report/complete",
+			"/lms/report/download",
+			"/lms/report/feedback/regist",
+			"/lms/report/feedback/delete",
+			"/lms/report/feedback/update",
+			"/lms/download/teachingMaterialList",
+			"/lms/attendance/detail",
+			"/lms/attendance/update",
+			"/lms/fileshare/list",
+			"/lms/movie",
+			"/lms/support",
+			"/lms/help",
+			"/lms/faq",
+			"/lms/info",
+			"/lms/info/json",
+			"/lms/user/detail",
+			"/lms/password/changePassword" };
 
 	// 講師権限のアクセス可能URL
-	private final static ArrayList<String> teacherAcessList = new ArrayList<String>();
-	static {
-		teacherAcessList.add("/lms/user/agreeSecurity");
-		teacherAcessList.add("/lms/error");
-		teacherAcessList.add("/lms/illegal");
-		teacherAcessList.add("/lms/course/list");
-		teacherAcessList.add("/lms/course/detail");
-		teacherAcessList.add("/lms/download/teachingMaterialList");
-		teacherAcessList.add("/lms/section/detail");
-		teacherAcessList.add("/lms/meeting/regist");
-		teacherAcessList.add("/lms/meeting/delete");
-		teacherAcessList.add("/lms/meeting/download");
-		teacherAcessList.add("/lms/user/list");
-		teacherAcessList.add("/lms/user/detail");
-		teacherAcessList.add("/lms/password/reissuePassword");
-		teacherAcessList.add("/lms/report/list");
-		teacherAcessList.add("/lms/report/detail");
-		teacherAcessList.add("/lms/report/downloadList");
-		teacherAcessList.add("/lms/report/regist");
-		teacherAcessList.add("/lms/report/feedback/delete");
-		teacherAcessList.add("/lms/report/feedback/regist");
-		teacherAcessList.add("/lms/report/feedback/update");
-		teacherAcessList.add("/lms/exam/list");
-		teacherAcessList.add("/lms/exam/detail");
-		teacherAcessList.add("/lms/exam/preview");
-		teacherAcessList.add("/lms/exam/result");
-		teacherAcessList.add("/lms/exam/resultDetail");
-		teacherAcessList.add("/lms/exam/resultList");
-		teacherAcessList.add("/lms/exam/deleteResultList");
-		teacherAcessList.add("/lms/attendance/list");
-		teacherAcessList.add("/lms/attendance/detail");
-		teacherAcessList.add("/lms/attendance/bulkRegist");
-		teacherAcessList.add("/lms/attendance/update");
-		teacherAcessList.add("/lms/attendance/updateAdmin");
-		teacherAcessList.add("/lms/evReport/score");
-		teacherAcessList.add("/lms/evReport/result/regist");
-		teacherAcessList.add("/lms/takeOver/list");
-		teacherAcessList.add("/lms/takeOver/detail");
-		teacherAcessList.add("/lms/presentation/list");
-		teacherAcessList.add("/lms/presentation/reserveStatusDetail");
-		teacherAcessList.add("/lms/presentation/teamList");
-		teacherAcessList.add("/lms/presentation/teamDetail");
-		teacherAcessList.add("/lms/fileshare/list");
-		teacherAcessList.add("/lms/movie");
-		teacherAcessList.add("/lms/help");
-		teacherAcessList.add("/lms/faq");
-		teacherAcessList.add("/lms/info");
-		teacherAcessList.add("/lms/info/json");
-		teacherAcessList.add("/lms/user/myAccount");
-		teacherAcessList.add("/lms/password/changePassword");
-	}
+	private static final String[] TEACHER_ACCESS_URLS = {
+			"/lms/user/agreeSecurity",
+			"/lms/error",
+			"/lms/illegal",
+			"/lms/course/list",
+			"/lms/course/detail",
+			"/lms/download/teachingMaterialList",
+			"/lms/section/detail",
+			"/lms/meeting/regist",
+			"/lms/meeting/delete",
+			"/lms/meeting/download",
+			"/lms/user/list",
+			"/lms/user/detail",
+			"/lms/password/reissuePassword",
+			"/lms/report/list",
+			"/lms/report/detail",
+			"/lms/report/downloadList",
+			"/lms/report/export/submit",
+			"/lms/report/export/progress",
+			"/lms/report/export/download",
+			"/lms/report/regist",
+			"/lms/report/feedback/delete",
+			"/lms/report/feedback/regist",
+			"/lms/report/feedback/update",
+			"/lms/exam/list",
+			"/lms/exam/detail",
+			"/lms/exam/preview",
+			"/lms/exam/result",
+			"/lms/exam/resultDetail",
+			"/lms/exam/resultList",
+			"/lms/exam/deleteResultList",
+			"/lms/attendance/list",
+			"/lms/attendance/detail",
+			"/lms/attendance/bulkRegist",
+			"/lms/attendance/recalcStatus",
+			"/lms/attendance/analytics",
+			"/lms/attendance/export",
+			"/lms/attendance/update",
+			"/lms/attendance/updateAdmin",
+			"/lms/evReport/score",
+			"/lms/evReport/result/regist",
+			"/lms/takeOver/list",
+			"/lms/takeOver/detail",
+			"/lms/presentation/list",
+			"/lms/presentation/reserveStatusDetail",
+			"/lms/presentation/teamList",
+			"/lms/presentation/teamDetail",
+			"/lms/fileshare/list",
+			"/lms/movie",
+			"/lms/help",
+			"/lms/faq",
+			"/lms/info",
+			"/lms/info/json",
+			"/lms/user/myAccount",
+			"/lms/password/changePassword" };
 
 	// 企業担当者権限のアクセス可能URL
-	private final static ArrayList<String> companyAcessList = new ArrayList<String>();
-	static {
-		companyAcessList.add("/lms/user/agreeSecurity");
-		companyAcessList.add("/lms/error");
-		companyAcessList.add("/lms/illegal");
-		companyAcessList.add("/lms/user/list/student");
-		companyAcessList.add("/lms/student/update");
-		companyAcessList.add("/lms/user/detail");
-		companyAcessList.add("/lms/report/list");
-		companyAcessList.add("/lms/report/detail");
-		companyAcessList.add("/lms/report/feedback/delete");
-		companyAcessList.add("/lms/report/feedback/regist");
-		companyAcessList.add("/lms/report/feedback/update");
-		companyAcessList.add("/lms/attendance/list");
-		companyAcessList.add("/lms/attendance/detail");
-		companyAcessList.add("/lms/exam/list");
-		companyAcessList.add("/lms/exam/resultList");
-		companyAcessList.add("/lms/exam/detail");
-		companyAcessList.add("/lms/exam/resultDetail");
-		companyAcessList.add("/lms/takeOver/list");
-		companyAcessList.add("/lms/takeOver/detail");
-		companyAcessList.add("/lms/takeOver/regist");
-		companyAcessList.add("/lms/presentation/list");
-		companyAcessList.add("/lms/presentation/reserveRegist");
-		companyAcessList.add("/lms/presentation/reserveComplete");
-		companyAcessList.add("/lms/presentation/reserveUpdate");
-		companyAcessList.add("/lms/presentation/reserveStatusDetail");
-		companyAcessList.add("/lms/presentation/teamDetail");
-		companyAcessList.add("/lms/contract/history/list");
-		companyAcessList.add("/lms/contract/history/detail");
-		companyAcessList.add("/lms/contract/agreement/regist");
-		companyAcessList.add("/lms/subsidy/company/update");
-		companyAcessList.add("/lms/student/regist");
-		companyAcessList.add("/lms/user/list/company");
-		companyAcessList.add("/lms/fileshare/list");
-		companyAcessList.add("/lms/help");
-		companyAcessList.add("/lms/info");
-		companyAcessList.add("/lms/info/json");
-		companyAcessList.add("/lms/user/myAccount");
-		companyAcessList.add("/lms/password/changePassword");
-	}
+	private static final String[] COMPANY_ACCESS_URLS = {
+			"/lms/user/agreeSecurity",
+			"/lms/error",
+			"/lms/illegal",
+			"/lms/user/list/student",
+			"/lms/student/update",
+			"/lms/user/detail",
+			"/lms/report/list",
+			"/lms/report/detail",
+			"/lms/report/feedback/delete",
+			"/lms/report/feedback/regist",
+			"/lms/report/feedback/update",
+			"/lms/attendance/list",
+			"/lms/attendance/detail",
+			"/lms/attendance/analytics",
+			"/lms/attendance/export",
+			"/lms/exam/list",
+			"/lms/exam/resultList",
+			"/lms/exam/detail",
+			"/lms/exam/resultDetail",
+			"/lms/takeOver/list",
+			"/lms/takeOver/detail",
+			"/lms/takeOver/regist",
+			"/lms/presentation/list",
+			"/lms/presentation/reserveRegist",
+			"/lms/presentation/reserveComplete",
+			"/lms/presentation/reserveUpdate",
+			"/lms/presentation/reserveStatusDetail",
+			"/lms/presentation/teamDetail",
+			"/lms/contract/history/list",
+			"/lms/contract/history/detail",
+			"/lms/contract/agreement/regist",
+			"/lms/subsidy/company/update",
+			"/lms/student/regist",
+			"/lms/user/list/company",
+			"/lms/fileshare/list",
+			"/lms/help",
+			"/lms/info",
+			"/lms/info/json",
+			"/lms/user/myAccount",
+			"/lms/password/changePassword" };
 
 	// 管理者権限のアクセス可能URL
-	private final static ArrayList<String> adminAcessList = new ArrayList<String>();
-	static {
-		adminAcessList.add("/lms/user/agreeSecurity");
-		adminAcessList.add("/lms/error");
-		adminAcessList.add("/lms/illegal");
-		adminAcessList.add("/lms/password/changePassword");
-		adminAcessList.add("/lms/contract/history/list");
-	}
+	private static final String[] ADMIN_ACCESS_URLS = {
+			"/lms/user/agreeSecurity",
+			"/lms/error",
+			"/lms/illegal",
+			"/lms/password/changePassword",
+			"/lms/contract/history/list" };
 
 	// 育成担当者権限のアクセス可能URL
-	private final static ArrayList<String> trainingAcessList = new ArrayList<String>();
+	private static final String[] TRAINING_ACCESS_URLS = {
+			"/lms/user/agreeSecurity",
+			"/lms/error",
+			"/lms/illegal",
+			"/lms/password/changePassword" };
+
+	// URI毎のアクセス可能なロール（ビットの論理和）
+	private static final Map<String, Integer> ACCESS_ROLE_MAP;
 	static {
-		trainingAcessList.add("/lms/user/agreeSecurity");
-		trainingAcessList.add("/lms/error");
-		trainingAcessList.add("/lms/illegal");
-		trainingAcessList.add("/lms/password/changePassword");
+		Map<String, Integer> map = new HashMap<>();
+		putAccessRole(map, STUDENT_ACCESS_URLS, ROLE_BIT_STUDENT);
+		putAccessRole(map, TEACHER_ACCESS_URLS, ROLE_BIT_TEACHER);
+		putAccessRole(map, COMPANY_ACCESS_URLS, ROLE_BIT_COMPANY);
+		putAccessRole(map, ADMIN_ACCESS_URLS, ROLE_BIT_ADMIN);
+		putAccessRole(map, TRAINING_ACCESS_URLS, ROLE_BIT_TRAINING);
+		ACCESS_ROLE_MAP = Map.copyOf(map);
+	}
+
+	/**
+	 * URIにアクセス可能なロールを追加
+	 * 
+	 * @param map
+	 * @param urls
+	 * @param roleBit
+	 */
+	private static void putAccessRole(Map<String, Integer> map, String[] urls, int roleBit) {
+		for (String url : urls) {
+			map.merge(url, roleBit, (a, b) -> a | b);
+		}
 	}
 
 }
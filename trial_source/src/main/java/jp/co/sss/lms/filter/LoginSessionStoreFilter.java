@@ -0,0 +1,178 @@
+package jp.co.sss.lms.filter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.LoginSessionDto;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.util.LoginSessionStore;
+import jp.co.sss.lms.util.LoginUserDtoCodec;
+import jp.co.sss.lms.util.LoginUserUtil;
+
+/**
+ * ログインセッション保存フィルター<br>
+ * ログイン情報をセッションキー（Cookie）毎にセッションの保存先へ保持し、スティッキーセッションなしの複数台構成でも
+ * ログイン状態を引き継げるようにする。<br>
+ * リクエストの開始時に保存先の内容をHttpSessionのログイン情報に反映し、終了時にログイン情報をバイト列に変換して
+ * 開始時と異なる場合のみ保存先を更新する。各サービスはこれまで通りHttpSessionのログイン情報を更新すればよい。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+@Order(0)
+public class LoginSessionStoreFilter implements Filter {
+
+	/** セッションキーのCookie名 */
+	private static final String COOKIE_NAME = "LMSSESSION";
+	/** セッションキーのバイト数 */
+	private static final int KEY_BYTES = 32;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	@Autowired
+	private LoginSessionStore loginSessionStore;
+	@Autowired
+	private LoginUserDtoCodec loginUserDtoCodec;
+	@Autowired
+	private LoginUserUtil loginUserUtil;
+	@Autowired
+	private LoginUserDto loginUserDto;
+
+	@Value("${server.servlet.session.timeout}")
+	private Duration sessionTimeout;
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		HttpServletRequest httpReq = ((HttpServletRequest) request);
+		HttpServletResponse httpRes = (HttpServletResponse) response;
+		String uri = httpReq.getRequestURI();
+		if (isStatic(uri) || uri.equals(httpReq.getContextPath() + "/metrics")) {
+			// 計測値の収集ではセッションキーを発行しない
+			chain.doFilter(request, response);
+			return;
+		}
+		String sessionKey = getSessionKey(httpReq);
+		LoginSessionDto loginSessionDto = sessionKey == null ? null : loginSessionStore.find(sessionKey);
+		byte[] before = null;
+		if (loginSessionDto != null) {
+			// 保存先の内容がHttpSessionと異なる（他のサーバーで更新された）場合のみ反映
+			before = loginSessionDto.getSessionData();
+			byte[] current = loginUserUtil.isLogin() ? loginUserDtoCodec.encode(loginUserDto) : null;
+			if (!Arrays.equals(before, current)) {
+				LoginUserDto stored = loginUserDtoCodec.decode(before);
+				if (stored == null) {
+					before = null;
+				} else {
+					BeanUtils.copyProperties(stored, loginUserDto);
+					httpReq.getSession().setAttribute("loginUserDto", loginUserDto);
+				}
+			}
+		} else {
+			if (sessionKey != null && loginUserUtil.isLogin()) {
+				// 他のサーバーでログアウトした・有効期限切れの場合はログイン情報を破棄
+				BeanUtils.copyProperties(new LoginUserDto(), loginUserDto);
+				httpReq.getSession().removeAttribute("loginUserDto");
+			}
+			// 保存先に存在しないキーは使用せず、新しいキーを発行（セッション固定化対策）
+			sessionKey = newSessionKey();
+			addCookie(httpReq, httpRes, sessionKey);
+		}
+
+		chain.doFilter(request, response);
+
+		byte[] after = loginUserUtil.isLogin() ? loginUserDtoCodec.encode(loginUserDto) : null;
+		long now = System.currentTimeMillis();
+		long timeoutMillis = sessionTimeout.toMillis();
+		if (after == null) {
+			if (before != null) {
+				loginSessionStore.delete(sessionKey);
+			}
+		} else if (!Arrays.equals(before, after)) {
+			loginSessionStore.save(sessionKey, after, now + timeoutMillis);
+		} else if (loginSessionDto.getExpireDate().getTime() - now < timeoutMillis / 2) {
+			// 変更がない場合も有効期限の半分を過ぎたら延長する
+			loginSessionStore.touch(sessionKey, now + timeoutMillis);
+		}
+	}
+
+	/**
+	 * Cookieからセッションキーを取得
+	 *
+	 * @param httpReq
+	 * @return セッションキー（存在しない場合null）
+	 */
+	private String getSessionKey(HttpServletRequest httpReq) {
+		Cookie[] cookies = httpReq.getCookies();
+		if (cookies == null) {
+			return null;
+		}
+		for (Cookie cookie : cookies) {
+			if (COOKIE_NAME.equals(cookie.getName())) {
+				return cookie.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * セッションキーを発行
+	 *
+	 * @return セッションキー
+	 */
+	private String newSessionKey() {
+		byte[] bytes = new byte[KEY_BYTES];
+		secureRandom.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	/**
+	 * セッションキーをCookieに設定<br>
+	 * リダイレクト等でレスポンスが確定する前に設定する必要があるため、後続の処理の前に呼び出す。
+	 *
+	 * @param httpReq
+	 * @param httpRes
+	 * @param sessionKey
+	 */
+	private void addCookie(HttpServletRequest httpReq, HttpServletResponse httpRes, String sessionKey) {
+		Cookie cookie = new Cookie(COOKIE_NAME, sessionKey);
+		String contextPath = httpReq.getContextPath();
+		cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+		cookie.setHttpOnly(true);
+		cookie.setSecure(httpReq.isSecure());
+		httpRes.addCookie(cookie);
+	}
+
+	/**
+	 * 静的なURIか確認
+	 *
+	 * @return boolean
+	 */
+	private boolean isStatic(String uri) {
+		return uri.contains("/js/") || uri.contains("/css/") || uri.contains("/fonts/")
+				|| uri.contains("/img/") || uri.contains("/pdf/") || uri.contains("/mailTemplate/");
+	}
+
+}
@@ -0,0 +1,79 @@
+package jp.co.sss.lms.filter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.util.RequestMetrics;
+
+/**
+ * 計測インターセプター<br>
+ * コントローラーのメソッド毎に、ハンドラー呼び出しから画面描画完了までの処理時間を記録する。
+ * 開始時刻はスレッド毎に使い回す領域に保持し、リクエスト毎にオブジェクトを生成しない。
+ * フォワード先の処理は呼び出し元の処理時間に含める。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class MetricsInterceptor implements HandlerInterceptor {
+
+	@Autowired
+	private RequestMetrics requestMetrics;
+
+	/** スレッド毎の計測中の情報 */
+	private final ThreadLocal<Timing> timingPool = ThreadLocal.withInitial(Timing::new);
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!(handler instanceof HandlerMethod)) {
+			return true;
+		}
+		Timing timing = timingPool.get();
+		if (request.getDispatcherType() == DispatcherType.REQUEST) {
+			// 前のリクエストで終了処理が行われなかった場合に備えて初期化
+			if (timing.endpoint != null) {
+				timing.endpoint.cancel();
+				timing.endpoint = null;
+			}
+			timing.depth = 0;
+		}
+		if (timing.depth++ == 0) {
+			timing.endpoint = requestMetrics.getEndpoint((HandlerMethod) handler, request);
+			timing.endpoint.begin();
+			timing.startTime = System.nanoTime();
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (!(handler instanceof HandlerMethod)) {
+			return;
+		}
+		Timing timing = timingPool.get();
+		if (timing.depth > 0 && --timing.depth == 0 && timing.endpoint != null) {
+			timing.endpoint.end(System.nanoTime() - timing.startTime,
+					ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			timing.endpoint = null;
+		}
+	}
+
+	/**
+	 * 計測中の情報
+	 */
+	private static class Timing {
+
+		/** 入れ子の深さ */
+		private int depth;
+		/** 開始時刻（ナノ秒） */
+		private long startTime;
+		/** 計測値 */
+		private RequestMetrics.Endpoint endpoint;
+	}
+
+}
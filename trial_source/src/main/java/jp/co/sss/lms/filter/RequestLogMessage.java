@@ -0,0 +1,258 @@
+package jp.co.sss.lms.filter;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+
+/**
+ * リクエストログ<br>
+ * 1リクエスト分の項目を保持し、1行のJSONとして出力する。スレッド毎に使い回すため、インスタンスを他のスレッドに渡さないこと。
+ * 非同期アペンダーへは{@link #memento()}で文字列化した複製が渡される。
+ *
+ * @author 東京ITスクール
+ */
+final class RequestLogMessage implements ReusableMessage {
+
+	private static final long serialVersionUID = 1L;
+
+	/** パラメータ数の初期値 */
+	private static final int INITIAL_PARAM_SIZE = 16;
+
+	/** 出力するヘッダ名 */
+	private final String[] headerNames;
+	/** ヘッダの値 */
+	private final String[] headerValues;
+	/** パラメータ名 */
+	private String[] paramNames = new String[INITIAL_PARAM_SIZE];
+	/** パラメータの値 */
+	private String[] paramValues = new String[INITIAL_PARAM_SIZE];
+	/** パラメータ数 */
+	private int paramCount;
+	/** 出力用バッファ */
+	private final StringBuilder buffer = new StringBuilder(512);
+
+	/** HTTPメソッド */
+	private String method;
+	/** URI */
+	private String uri;
+	/** ステータスコード */
+	private int status;
+	/** 処理時間（ミリ秒） */
+	private long elapsedMillis;
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ロール */
+	private String role;
+	/** 例外クラス名 */
+	private String error;
+
+	RequestLogMessage(String[] headerNames) {
+		this.headerNames = headerNames;
+		this.headerValues = new String[headerNames.length];
+	}
+
+	/**
+	 * 項目を初期化
+	 *
+	 * @param method
+	 * @param uri
+	 */
+	void reset(String method, String uri) {
+		this.method = method;
+		this.uri = uri;
+		this.status = 0;
+		this.elapsedMillis = 0;
+		this.lmsUserId = null;
+		this.role = null;
+		this.error = null;
+		Arrays.fill(headerValues, null);
+		Arrays.fill(paramNames, 0, paramCount, null);
+		Arrays.fill(paramValues, 0, paramCount, null);
+		paramCount = 0;
+	}
+
+	/**
+	 * 出力するヘッダ名を取得
+	 *
+	 * @return ヘッダ名
+	 */
+	String[] getHeaderNames() {
+		return headerNames;
+	}
+
+	/**
+	 * ヘッダの値を設定
+	 *
+	 * @param index {@link #getHeaderNames()}の位置
+	 * @param value
+	 */
+	void setHeader(int index, String value) {
+		headerValues[index] = value;
+	}
+
+	/**
+	 * パラメータを追加
+	 *
+	 * @param name
+	 * @param value
+	 */
+	void addParam(String name, String value) {
+		if (paramCount == paramNames.length) {
+			paramNames = Arrays.copyOf(paramNames, paramCount * 2);
+			paramValues = Arrays.copyOf(paramValues, paramCount * 2);
+		}
+		paramNames[paramCount] = name;
+		paramValues[paramCount] = value;
+		paramCount++;
+	}
+
+	/**
+	 * 処理結果を設定
+	 *
+	 * @param status
+	 * @param elapsedMillis
+	 * @param error         例外クラス名（正常終了の場合null）
+	 */
+	void setResult(int status, long elapsedMillis, String error) {
+		this.status = status;
+		this.elapsedMillis = elapsedMillis;
+		this.error = error;
+	}
+
+	/**
+	 * ログインユーザーを設定
+	 *
+	 * @param lmsUserId
+	 * @param role
+	 */
+	void setLoginUser(Integer lmsUserId, String role) {
+		this.lmsUserId = lmsUserId;
+		this.role = role;
+	}
+
+	@Override
+	public void formatTo(StringBuilder sb) {
+		sb.append("{\"method\":");
+		appendString(sb, method);
+		sb.append(",\"uri\":");
+		appendString(sb, uri);
+		sb.append(",\"status\":").append(status);
+		sb.append(",\"elapsedMillis\":").append(elapsedMillis);
+		if (lmsUserId != null) {
+			sb.append(",\"lmsUserId\":").append(lmsUserId.intValue());
+			sb.append(",\"role\":");
+			appendString(sb, role);
+		}
+		if (error != null) {
+			sb.append(",\"error\":");
+			appendString(sb, error);
+		}
+		sb.append(",\"headers\":{");
+		boolean first = true;
+		for (int i = 0; i < headerNames.length; i++) {
+			if (headerValues[i] == null) {
+				continue;
+			}
+			if (!first) {
+				sb.append(',');
+			}
+			first = false;
+			appendString(sb, headerNames[i]);
+			sb.append(':');
+			appendString(sb, headerValues[i]);
+		}
+		sb.append("},\"params\":{");
+		for (int i = 0; i < paramCount; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			appendString(sb, paramNames[i]);
+			sb.append(':');
+			appendString(sb, paramValues[i]);
+		}
+		sb.append("}}");
+	}
+
+	@Override
+	public String getFormattedMessage() {
+		buffer.setLength(0);
+		formatTo(buffer);
+		return buffer.toString();
+	}
+
+	@Override
+	public String getFormat() {
+		return null;
+	}
+
+	@Override
+	public Object[] getParameters() {
+		return null;
+	}
+
+	@Override
+	public Throwable getThrowable() {
+		return null;
+	}
+
+	@Override
+	public Object[] swapParameters(Object[] emptyReplacement) {
+		return emptyReplacement;
+	}
+
+	@Override
+	public short getParameterCount() {
+		return 0;
+	}
+
+	@Override
+	public Message memento() {
+		return new SimpleMessage(getFormattedMessage());
+	}
+
+	/**
+	 * JSONの文字列として追加
+	 *
+	 * @param sb
+	 * @param value
+	 */
+	private static void appendString(StringBuilder sb, String value) {
+		if (value == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append("\\u00");
+					sb.append(Character.forDigit(c >> 4, 16));
+					sb.append(Character.forDigit(c & 0xF, 16));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+
+}
@@ -1,14 +1,19 @@
 package jp.co.sss.lms.filter;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.validation.Validator;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+	@Autowired
+	private MetricsInterceptor metricsInterceptor;
+
 	@Override
 	public Validator getValidator() {
 		LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
@@ -22,4 +27,10 @@ public class WebConfig implements WebMvcConfigurer {
 		return validator;
 	}
 
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// コントローラーのメソッド毎の処理時間を計測
+		registry.addInterceptor(metricsInterceptor);
+	}
+
 }
@@ -0,0 +1,30 @@
+package jp.co.sss.lms.form;
+
+import lombok.Data;
+
+/**
+ * 勤怠一括登録フォーム
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceBulkRegistForm {
+
+	/** 研修日（yyyy-MM-dd） */
+	private String trainingDate;
+	/** 出勤時間（時） */
+	private String trainingStartTimeHour;
+	/** 出勤時間（分） */
+	private String trainingStartTimeMinute;
+	/** 退勤時間（時） */
+	private String trainingEndTimeHour;
+	/** 退勤時間（分） */
+	private String trainingEndTimeMinute;
+	/** 中抜け時間 */
+	private Integer blankTime;
+	/** 欠席フラグ */
+	private Boolean absentFlg;
+	/** 備考（空欄の場合は既存の備考を維持） */
+	private String note;
+
+}
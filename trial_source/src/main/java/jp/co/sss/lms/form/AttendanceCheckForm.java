@@ -21,4 +21,8 @@ public class AttendanceCheckForm {
 	private Integer companyId;
 	/** 会場ID */
 	private Integer placeId;
+	/** 前ページ最後のユーザーID（先頭ページの場合null） */
+	private Integer lastUserId;
+	/** 次ページ開始位置のユーザーID（次ページがない場合null） */
+	private Integer nextUserId;
 }
@@ -0,0 +1,20 @@
+package jp.co.sss.lms.form;
+
+import lombok.Data;
+
+/**
+ * 勤怠エクスポートフォーム
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class AttendanceExportForm {
+
+	/** コースID */
+	private Integer courseId;
+	/** 企業ID（企業担当者の場合は自社に固定） */
+	private Integer companyId;
+	/** 対象月（yyyy-MM） */
+	private String month;
+
+}
@@ -1,7 +1,7 @@
 package jp.co.sss.lms.form;
 
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import lombok.Data;
 
@@ -28,11 +28,11 @@ public class AttendanceForm {
 	/** 退校日（表示用） */
 	private String dispLeaveDate;
 	/** 中抜け時間(プルダウン) */
-	private LinkedHashMap<Integer, String> blankTimes;
+	private Map<Integer, String> blankTimes;
 	/** 時間(プルダウン) */
-	private LinkedHashMap<Integer, String> hours;
+	private Map<Integer, String> hours;
 	/** 分(プルダウン) */
-	private LinkedHashMap<Integer, String> minutes;
+	private Map<Integer, String> minutes;
 	/** 日次の勤怠フォームリスト */
 	private List<DailyAttendanceForm> attendanceList;
 	/** エラーリスト */
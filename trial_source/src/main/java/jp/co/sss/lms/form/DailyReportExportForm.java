@@ -0,0 +1,26 @@
+package jp.co.sss.lms.form;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * レポート一括エクスポートフォーム
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class DailyReportExportForm {
+
+	/** コースID */
+	private Integer courseId;
+	/** 日付（From） yyyy/M/d */
+	private String dateFrom;
+	/** 日付（To） yyyy/M/d */
+	private String dateTo;
+	/** LMSユーザIDリスト（未指定の場合はコースの全受講生） */
+	private List<Integer> lmsUserIdList;
+	/** ジョブID */
+	private String jobId;
+
+}
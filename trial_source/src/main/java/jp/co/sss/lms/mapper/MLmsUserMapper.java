@@ -1,9 +1,12 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import jp.co.sss.lms.dto.UserDetailDto;
+import jp.co.sss.lms.entity.TUserCompany;
 
 /**
  * LMSユーザーマスタマッパー
@@ -23,4 +26,14 @@ public interface MLmsUserMapper {
 	UserDetailDto getUserDetail(@Param("lmsUserId") Integer lmsUserId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * ユーザー所属企業一括取得
+	 * 
+	 * @param lmsUserIdList
+	 * @param deleteFlg
+	 * @return ユーザー企業リスト
+	 */
+	List<TUserCompany> getUserCompanyList(@Param("lmsUserIdList") List<Integer> lmsUserIdList,
+			@Param("deleteFlg") Short deleteFlg);
+
 }
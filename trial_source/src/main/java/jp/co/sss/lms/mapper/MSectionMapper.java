@@ -1,6 +1,7 @@
 package jp.co.sss.lms.mapper;
 
 import java.util.Date;
+import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -46,4 +47,12 @@ public interface MSectionMapper {
 	Integer getSectionCountByCourseId(@Param("courseId") Integer courseId,
 			@Param("date") Date date);
 
+	/**
+	 * セクション日付リスト取得（コースID）
+	 * 
+	 * @param courseId
+	 * @return セクション日付リスト
+	 */
+	List<Date> getSectionDateListByCourseId(@Param("courseId") Integer courseId);
+
 }
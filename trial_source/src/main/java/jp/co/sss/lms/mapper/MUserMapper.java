@@ -1,5 +1,7 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -42,6 +44,15 @@ public interface MUserMapper {
 	 */
 	String getLoginId(@Param("userId") Integer userId, @Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * ユーザー名リスト取得（ユーザーIDの昇順）
+	 * 
+	 * @param role
+	 * @param deleteFlg
+	 * @return ユーザーエンティティリスト（ユーザーID・ユーザー名のみ）
+	 */
+	List<MUser> getUserNameList(@Param("role") String role, @Param("deleteFlg") Short deleteFlg);
+
 	/**
 	 * パスワード更新
 	 * 
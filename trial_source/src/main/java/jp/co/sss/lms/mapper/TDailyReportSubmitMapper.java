@@ -1,5 +1,6 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.Date;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
@@ -65,4 +66,18 @@ public interface TDailyReportSubmitMapper {
 	DailyReportDto getDailyReportDto(@Param("dailyReportSubmitId") Integer dailyReportSubmitId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * エクスポート対象の日報提出リスト取得
+	 * 
+	 * @param courseId
+	 * @param dateFrom
+	 * @param dateTo
+	 * @param lmsUserIdList
+	 * @param deleteFlg
+	 * @return 日報提出リスト
+	 */
+	List<TDailyReportSubmit> getExportTargetList(@Param("courseId") Integer courseId,
+			@Param("dateFrom") Date dateFrom, @Param("dateTo") Date dateTo,
+			@Param("lmsUserIdList") List<Integer> lmsUserIdList, @Param("deleteFlg") Short deleteFlg);
+
 }
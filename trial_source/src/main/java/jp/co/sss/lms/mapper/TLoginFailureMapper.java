@@ -0,0 +1,50 @@
+package jp.co.sss.lms.mapper;
+
+import java.util.Date;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * ログイン失敗履歴マッパー
+ * 
+ * @author 東京ITスクール
+ */
+@Mapper
+public interface TLoginFailureMapper {
+
+	/**
+	 * ログイン失敗履歴登録
+	 * 
+	 * @param throttleKey
+	 * @param failureDate
+	 * @return 登録件数
+	 */
+	Integer insert(@Param("throttleKey") String throttleKey, @Param("failureDate") Date failureDate);
+
+	/**
+	 * 指定日時以降のログイン失敗回数取得
+	 * 
+	 * @param throttleKey
+	 * @param fromDate
+	 * @return 失敗回数
+	 */
+	Integer count(@Param("throttleKey") String throttleKey, @Param("fromDate") Date fromDate);
+
+	/**
+	 * ログイン失敗履歴削除
+	 * 
+	 * @param throttleKey
+	 * @return 削除件数
+	 */
+	Integer delete(@Param("throttleKey") String throttleKey);
+
+	/**
+	 * 指定日時より前のログイン失敗履歴削除
+	 * 
+	 * @param toDate
+	 * @return 削除件数
+	 */
+	Integer deleteBefore(@Param("toDate") Date toDate);
+
+}
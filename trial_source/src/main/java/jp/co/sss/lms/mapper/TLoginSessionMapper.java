@@ -0,0 +1,63 @@
+package jp.co.sss.lms.mapper;
+
+import java.util.Date;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import jp.co.sss.lms.dto.LoginSessionDto;
+
+/**
+ * ログインセッションマッパー
+ * 
+ * @author 東京ITスクール
+ */
+@Mapper
+public interface TLoginSessionMapper {
+
+	/**
+	 * 有効なログインセッション取得
+	 * 
+	 * @param sessionKey
+	 * @param now
+	 * @return ログインセッション
+	 */
+	LoginSessionDto findBySessionKey(@Param("sessionKey") String sessionKey, @Param("now") Date now);
+
+	/**
+	 * ログインセッション登録・更新
+	 * 
+	 * @param sessionKey
+	 * @param sessionData
+	 * @param expireDate
+	 * @return 登録・更新件数
+	 */
+	Integer upsert(@Param("sessionKey") String sessionKey, @Param("sessionData") byte[] sessionData,
+			@Param("expireDate") Date expireDate);
+
+	/**
+	 * ログインセッションの有効期限更新
+	 * 
+	 * @param sessionKey
+	 * @param expireDate
+	 * @return 更新件数
+	 */
+	Integer updateExpireDate(@Param("sessionKey") String sessionKey, @Param("expireDate") Date expireDate);
+
+	/**
+	 * ログインセッション削除
+	 * 
+	 * @param sessionKey
+	 * @return 削除件数
+	 */
+	Integer delete(@Param("sessionKey") String sessionKey);
+
+	/**
+	 * 指定日時より前に有効期限切れとなったログインセッション削除
+	 * 
+	 * @param toDate
+	 * @return 削除件数
+	 */
+	Integer deleteBefore(@Param("toDate") Date toDate);
+
+}
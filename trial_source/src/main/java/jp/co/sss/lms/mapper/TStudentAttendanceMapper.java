@@ -5,8 +5,13 @@ import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import jp.co.sss.lms.dto.AttendanceBlankCountDto;
+import jp.co.sss.lms.dto.AttendanceExportDto;
 import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.dto.AttendanceRecalcDto;
+import jp.co.sss.lms.dto.CourseAttendanceDto;
 import jp.co.sss.lms.entity.AttendanceCheck;
 import jp.co.sss.lms.entity.TStudentAttendance;
 
@@ -39,6 +44,32 @@ public interface TStudentAttendanceMapper {
 	TStudentAttendance findByLmsUserIdAndTrainingDate(@Param("lmsUserId") Integer lmsUserId,
 			@Param("trainingDate") Date trainingDate, @Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * 勤怠情報（受講生入力）リスト取得（LMSユーザーIDリスト＆日付）
+	 * 
+	 * @param lmsUserIdList
+	 * @param trainingDate
+	 * @param deleteFlg
+	 * @return 勤怠情報（受講生入力）エンティティリスト
+	 */
+	List<TStudentAttendance> findByLmsUserIdListAndTrainingDate(
+			@Param("lmsUserIdList") List<Integer> lmsUserIdList,
+			@Param("trainingDate") Date trainingDate, @Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 勤怠一括登録対象の勤怠情報リスト取得（会場の受講生毎、未登録の場合はLMSユーザーIDのみ）
+	 * 研修日がコースの研修日でない受講生・研修日より前に途中退校した受講生は対象外とする。
+	 * 
+	 * @param placeId
+	 * @param trainingDate
+	 * @param role
+	 * @param deleteFlg
+	 * @return 勤怠情報（受講生入力）エンティティリスト
+	 */
+	List<TStudentAttendance> findForBulkRegist(@Param("placeId") Integer placeId,
+			@Param("trainingDate") Date trainingDate, @Param("role") String role,
+			@Param("deleteFlg") Short deleteFlg);
+
 	/**
 	 * 勤怠管理画面用DTOリスト取得
 	 * 
@@ -65,6 +96,67 @@ public interface TStudentAttendanceMapper {
 	 * @return 更新結果
 	 */
 	Boolean update(TStudentAttendance tStudentAttendance);
+
+	/**
+	 * 勤怠情報（受講生入力）一括登録
+	 * 
+	 * @param tStudentAttendanceList
+	 * @return 登録件数
+	 */
+	Integer insertBatch(@Param("list") List<TStudentAttendance> tStudentAttendanceList);
+
+	/**
+	 * 勤怠情報（受講生入力）一括更新
+	 * 
+	 * @param tStudentAttendanceList
+	 * @return 更新件数
+	 */
+	Integer updateBatch(@Param("list") List<TStudentAttendance> tStudentAttendanceList);
+
+	/**
+	 * 勤怠ステータス再計算対象取得（欠席を除く）
+	 * 
+	 * @param courseId
+	 * @param deleteFlg
+	 * @return 勤怠ステータス再計算DTOリスト
+	 */
+	List<AttendanceRecalcDto> findForRecalc(@Param("courseId") Integer courseId,
+			@Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * コース勤怠情報取得（LMSユーザーID・日付順）
+	 * 
+	 * @param courseId
+	 * @param role
+	 * @param deleteFlg
+	 * @return コース勤怠DTOリスト
+	 */
+	List<CourseAttendanceDto> findForAnalytics(@Param("courseId") Integer courseId,
+			@Param("role") String role, @Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 勤怠エクスポート対象取得（LMSユーザーID・日付順）<br>
+	 * 全件をリストに保持しないよう、1件ずつハンドラへ渡す。
+	 * 
+	 * @param courseId
+	 * @param companyId 企業ID（nullの場合は全企業）
+	 * @param fromDate  開始日
+	 * @param toDate    終了日（この日を含まない）
+	 * @param role
+	 * @param deleteFlg
+	 * @param handler
+	 */
+	void exportAttendance(@Param("courseId") Integer courseId, @Param("companyId") Integer companyId,
+			@Param("fromDate") Date fromDate, @Param("toDate") Date toDate, @Param("role") String role,
+			@Param("deleteFlg") Short deleteFlg, ResultHandler<AttendanceExportDto> handler);
+
+	/**
+	 * 勤怠ステータス一括更新
+	 * 
+	 * @param attendanceRecalcDtoList
+	 * @return 更新件数
+	 */
+	Integer updateStatusBatch(@Param("list") List<AttendanceRecalcDto> attendanceRecalcDtoList);
 	
 	/**
 	 * 過去日未入力件数を検索
@@ -77,16 +169,27 @@ public interface TStudentAttendanceMapper {
 			@Param("deleteFlg") Short deleteFlg, @Param("trainingDate") Date trainingDate);
 	
 	/**
-	 * 勤怠情報確認画面の検索結果
-	 * @param userName
+	 * 過去日未入力件数をユーザー毎に検索（未入力のあるユーザーのみ）
+	 * @param deleteFlg
+	 * @param trainingDate
+	 * @return 未入力件数リスト
+	 */
+	List<AttendanceBlankCountDto> notEnterCountList(@Param("deleteFlg") Short deleteFlg, @Param("trainingDate") Date trainingDate);
+	
+	/**
+	 * 勤怠情報確認画面の検索結果（ユーザーIDの昇順）
+	 * @param userIdArray ユーザー名で絞り込む場合の対象ユーザーID（nullの場合は絞り込まない）
 	 * @param courseId
 	 * @param companyId
 	 * @param placeId
+	 * @param lastUserId 前ページ最後のユーザーID（nullの場合は先頭から）
+	 * @param limit 取得件数
 	 * @param role
 	 * @param deleteFlg
 	 * @return List<AttendanceCheck>
 	 */
-	List<AttendanceCheck> findForAttendanceCheck(@Param("userName") String userName, 
+	List<AttendanceCheck> findForAttendanceCheck(@Param("userIdArray") Integer[] userIdArray,
 			@Param("courseId") Integer courseId, @Param("companyId") Integer companyId, 
-			@Param("placeId") Integer placeId, @Param("role") String role, @Param("deleteFlg") Short deleteFlg);
+			@Param("placeId") Integer placeId, @Param("lastUserId") Integer lastUserId,
+			@Param("limit") Integer limit, @Param("role") String role, @Param("deleteFlg") Short deleteFlg);
 }
@@ -0,0 +1,184 @@
+package jp.co.sss.lms.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.AttendanceExportDto;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.form.AttendanceExportForm;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.TrainingTime;
+import jp.co.sss.lms.util.WorkScheduleEngine;
+
+/**
+ * 勤怠エクスポートサービス<br>
+ * コース・企業・月で絞り込んだ勤怠情報を1件ずつ読み込みながらCSVに書き出す。全件をメモリに保持しない。
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class AttendanceExportService {
+
+	/** CSVの文字コード（Excelで開くため） */
+	private static final Charset CSV_CHARSET = Charset.forName("Windows-31J");
+	/** CSVのヘッダ */
+	private static final String[] CSV_HEADER = { "企業名", "コース名", "ユーザー名", "日付", "出勤時刻", "退勤時刻",
+			"中抜け時間", "受講時間", "ステータス", "備考" };
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private WorkScheduleEngine workScheduleEngine;
+	@Autowired
+	private DateUtil dateUtil;
+	@Autowired
+	private LoginUserUtil loginUserUtil;
+	@Autowired
+	private LoginUserDto loginUserDto;
+
+	/**
+	 * 勤怠情報をCSVでダウンロード<br>
+	 * PostgreSQLはトランザクション内でのみフェッチサイズ単位の読み込みとなるため、読み取り専用トランザクションで実行する。
+	 *
+	 * @param attendanceExportForm
+	 * @param response
+	 * @return 条件が不正な場合false
+	 * @throws IOException
+	 */
+	@Transactional(readOnly = true)
+	public boolean exportCsv(AttendanceExportForm attendanceExportForm, HttpServletResponse response)
+			throws IOException {
+		if (attendanceExportForm.getCourseId() == null || attendanceExportForm.getMonth() == null) {
+			return false;
+		}
+		Date fromDate;
+		try {
+			fromDate = dateUtil.parse(attendanceExportForm.getMonth() + "-01", "yyyy-MM-dd");
+		} catch (ParseException e) {
+			return false;
+		}
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(fromDate);
+		calendar.add(Calendar.MONTH, 1);
+		Date toDate = calendar.getTime();
+		// 企業担当者は自社の受講生のみ
+		Integer companyId = loginUserUtil.isCompany() ? loginUserDto.getCompanyId()
+				: attendanceExportForm.getCompanyId();
+
+		String fileName = URLEncoder
+				.encode("勤怠_" + attendanceExportForm.getMonth() + ".csv", StandardCharsets.UTF_8)
+				.replace("+", "%20");
+		response.setContentType("text/csv; charset=Windows-31J");
+		response.setHeader("Content-Disposition", "attachment;filename*=utf-8''" + fileName);
+
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(response.getOutputStream(), CSV_CHARSET))) {
+			writeLine(writer, CSV_HEADER);
+			try {
+				tStudentAttendanceMapper.exportAttendance(attendanceExportForm.getCourseId(),
+						companyId, fromDate, toDate, Constants.CODE_VAL_ROLL_STUDENT,
+						Constants.DB_FLG_FALSE, context -> {
+							try {
+								writeLine(writer, toColumns(context.getResultObject()));
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+						});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 勤怠情報をCSVの列に変換
+	 *
+	 * @param dto
+	 * @return 列
+	 */
+	private String[] toColumns(AttendanceExportDto dto) {
+		AttendanceStatusEnum statusEnum = AttendanceStatusEnum.getEnum(dto.getStatus());
+		String trainingTime = "";
+		if (statusEnum != AttendanceStatusEnum.ABSENT) {
+			int netMinutes = workScheduleEngine.resolve(dto.getCompanyId()).getNetMinutes(
+					TrainingTime.parseMinutesOrBlank(dto.getTrainingStartTime()),
+					TrainingTime.parseMinutesOrBlank(dto.getTrainingEndTime()), dto.getBlankTime());
+			trainingTime = TrainingTime.formatMinutes(netMinutes);
+		}
+		return new String[] {
+				dto.getCompanyName(),
+				dto.getCourseName(),
+				dto.getUserName(),
+				dateUtil.toString(dto.getTrainingDate(), "yyyy/MM/dd"),
+				dto.getTrainingStartTime(),
+				dto.getTrainingEndTime(),
+				dto.getBlankTime() == null ? "" : String.valueOf(dto.getBlankTime()),
+				trainingTime,
+				statusEnum == null ? "" : statusEnum.name,
+				dto.getNote() };
+	}
+
+	/**
+	 * CSVの1行を書き出す<br>
+	 * 表計算ソフトで数式として解釈される文字で始まる値は、先頭に'を付けて文字列として出力する。
+	 *
+	 * @param writer
+	 * @param columns
+	 * @throws IOException
+	 */
+	private void writeLine(Writer writer, String[] columns) throws IOException {
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			String value = columns[i] == null ? "" : columns[i];
+			if (isFormulaLike(value)) {
+				value = "'" + value;
+			}
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+					|| value.indexOf('\r') >= 0) {
+				writer.write('"');
+				writer.write(value.replace("\"", "\"\""));
+				writer.write('"');
+			} else {
+				writer.write(value);
+			}
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * 数式として解釈される値か判定
+	 *
+	 * @param value
+	 * @return 先頭が=・+・-・@・タブ・復帰の場合true
+	 */
+	private boolean isFormulaLike(String value) {
+		if (value.isEmpty()) {
+			return false;
+		}
+		char first = value.charAt(0);
+		return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t'
+				|| first == '\r';
+	}
+
+}
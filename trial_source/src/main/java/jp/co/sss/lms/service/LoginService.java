@@ -15,6 +15,7 @@ import jp.co.sss.lms.mapper.LoginMapper;
 import jp.co.sss.lms.mapper.MUserMapper;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginThrottle;
 import jp.co.sss.lms.util.MessageUtil;
 import jp.co.sss.lms.util.PasswordUtil;
 
@@ -40,6 +41,8 @@ public class LoginService {
 	private MUserMapper mUserMapper;
 	@Autowired
 	private PasswordUtil passwordUtil;
+	@Autowired
+	private LoginThrottle loginThrottle;
 
 	@Value("${setting.lock.minute}")
 	private Integer lockMinute;
@@ -53,13 +56,14 @@ public class LoginService {
 	 */
 	public String getLoginInfo(String loginId, String password) {
 
+		// アカウントロックチェック（ハッシュ化・DBアクセスの前に拒否する）
+		if (!checkLockTime() || loginThrottle.isLocked(loginId)) {
+			return messageUtil.getMessage(Constants.VALID_KEY_LOGIN_LOCK);
+		}
+
 		// salt + ストレッチングしたパスワードを取得
 		String saltPassword = passwordUtil.getSaltedAndStrechedPassword(password, loginId);
 
-		// アカウントロックチェック
-		if (!checkLockTime()) {
-			return messageUtil.getMessage(Constants.VALID_KEY_LOGIN_LOCK);
-		}
 		// ログイン情報を取得
 		LoginUser loginUser = loginMapper.getLoginDetailByLoginIdAndPassword(loginId, saltPassword,
 				Constants.DB_FLG_FALSE);
@@ -68,7 +72,8 @@ public class LoginService {
 		if (loginUser == null) {
 			loginUserDto.setPasswordNgCount(loginUserDto.getPasswordNgCount() == null ? 1
 					: loginUserDto.getPasswordNgCount() + 1);
-			if (!checkLockCount()) {
+			boolean locked = loginThrottle.recordFailure(loginId);
+			if (!checkLockCount() || locked) {
 				return messageUtil.getMessage(Constants.VALID_KEY_LOGIN_LOCK);
 			} else {
 				return messageUtil.getMessage(Constants.VALID_KEY_LOGIN);
@@ -78,9 +83,11 @@ public class LoginService {
 			return messageUtil.getMessage(Constants.VALID_KEY_LOGIN_PLACENODISPLAY);
 		} else {
 			// ログイン情報をセッションに格納
+			loginThrottle.reset(loginId);
 			BeanUtils.copyProperties(loginUser, loginUserDto);
 			loginUserDto.setPasswordNgCount(0);
 			loginUserDto.setPasswordNgDate("");
+			loginUserDto.setGateCheckExpireTime(null);
 			session.setAttribute("loginUserDto", loginUserDto);
 			return "";
 		}
@@ -102,6 +109,7 @@ public class LoginService {
 		BeanUtils.copyProperties(loginUser, loginUserDto);
 		loginUserDto.setPasswordNgCount(0);
 		loginUserDto.setPasswordNgDate("");
+		loginUserDto.setGateCheckExpireTime(null);
 		session.setAttribute("loginUserDto", loginUserDto);
 		// ログインIDを返す
 		String loginId = mUserMapper.getLoginId(userId, Constants.DB_FLG_FALSE);
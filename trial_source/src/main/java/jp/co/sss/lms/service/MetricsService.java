@@ -0,0 +1,215 @@
+package jp.co.sss.lms.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jp.co.sss.lms.util.AttendanceBlankCounter;
+import jp.co.sss.lms.util.CourseCalendarCache;
+import jp.co.sss.lms.util.LatencyHistogram;
+import jp.co.sss.lms.util.MasterDataCache;
+import jp.co.sss.lms.util.RequestMetrics;
+
+/**
+ * 計測値サービス<br>
+ * リクエスト・キャッシュの計測値をPrometheusのテキスト形式で出力する。
+ * 処理時間は起動時からの累積値による分位点（summary）として出力する。<br>
+ * 参照には設定したトークン（setting.metrics.token）をAuthorizationヘッダーにBearerとして指定する必要がある。
+ * 未設定の場合は参照できない。
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class MetricsService {
+
+	/** Authorizationヘッダーの接頭辞 */
+	private static final String BEARER = "Bearer ";
+	/** 出力する分位点 */
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	@Autowired
+	private RequestMetrics requestMetrics;
+	@Autowired
+	private MasterDataCache masterDataCache;
+	@Autowired
+	private CourseCalendarCache courseCalendarCache;
+	@Autowired
+	private AttendanceBlankCounter attendanceBlankCounter;
+
+	@Value("${setting.metrics.token}")
+	private String token;
+
+	/**
+	 * 計測値の参照を許可するか判定（設定したトークンと一致する場合のみ許可）
+	 *
+	 * @param authorization Authorizationヘッダー
+	 * @return 許可する場合true
+	 */
+	public boolean isAllowed(String authorization) {
+		if (token == null || token.isEmpty() || authorization == null
+				|| !authorization.startsWith(BEARER)) {
+			return false;
+		}
+		// 一致するまでの時間からトークンを推測させない
+		return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+				authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 計測値を出力
+	 *
+	 * @param writer
+	 * @throws IOException
+	 */
+	public void write(Writer writer) throws IOException {
+		writeRequestMetrics(writer);
+		writeCacheMetrics(writer);
+	}
+
+	/**
+	 * リクエストの計測値を出力
+	 *
+	 * @param writer
+	 * @throws IOException
+	 */
+	private void writeRequestMetrics(Writer writer) throws IOException {
+		writeHeader(writer, "lms_http_request_duration_seconds", "summary",
+				"Handler latency from dispatch to view rendering.");
+		for (RequestMetrics.Endpoint endpoint : requestMetrics.getEndpoints()) {
+			LatencyHistogram histogram = endpoint.getHistogram();
+			long sum = histogram.getSum();
+			long[] snapshot = histogram.snapshot();
+			long count = LatencyHistogram.getCount(snapshot);
+			String labels = labels(endpoint);
+			for (double quantile : QUANTILES) {
+				writeSample(writer, "lms_http_request_duration_seconds",
+						labels + ",quantile=\"" + quantile + "\"",
+						toSeconds(LatencyHistogram.valueAtQuantile(snapshot, count, quantile)));
+			}
+			writeSample(writer, "lms_http_request_duration_seconds_sum", labels, toSeconds(sum));
+			writeSample(writer, "lms_http_request_duration_seconds_count", labels, String.valueOf(count));
+		}
+		writeHeader(writer, "lms_http_request_duration_seconds_max", "gauge",
+				"Maximum handler latency since startup.");
+		for (RequestMetrics.Endpoint endpoint : requestMetrics.getEndpoints()) {
+			writeSample(writer, "lms_http_request_duration_seconds_max", labels(endpoint),
+					toSeconds(endpoint.getHistogram().getMax()));
+		}
+		writeHeader(writer, "lms_http_requests_in_flight", "gauge", "Requests being handled.");
+		for (RequestMetrics.Endpoint endpoint : requestMetrics.getEndpoints()) {
+			writeSample(writer, "lms_http_requests_in_flight", labels(endpoint),
+					String.valueOf(endpoint.getInFlight()));
+		}
+		writeHeader(writer, "lms_http_request_errors_total", "counter",
+				"Requests ending with an exception or a 5xx status.");
+		for (RequestMetrics.Endpoint endpoint : requestMetrics.getEndpoints()) {
+			writeSample(writer, "lms_http_request_errors_total", labels(endpoint),
+					String.valueOf(endpoint.getErrorCount()));
+		}
+	}
+
+	/**
+	 * キャッシュの計測値を出力
+	 *
+	 * @param writer
+	 * @throws IOException
+	 */
+	private void writeCacheMetrics(Writer writer) throws IOException {
+		writeHeader(writer, "lms_cache_hits_total", "counter", "Cache hits.");
+		writeSample(writer, "lms_cache_hits_total", "cache=\"calendar\"",
+				String.valueOf(courseCalendarCache.getHitCount()));
+		writeSample(writer, "lms_cache_hits_total", "cache=\"attendance_blank\"",
+				String.valueOf(attendanceBlankCounter.getHitCount()));
+		writeHeader(writer, "lms_cache_misses_total", "counter", "Cache misses.");
+		writeSample(writer, "lms_cache_misses_total", "cache=\"calendar\"",
+				String.valueOf(courseCalendarCache.getMissCount()));
+		writeSample(writer, "lms_cache_misses_total", "cache=\"attendance_blank\"",
+				String.valueOf(attendanceBlankCounter.getMissCount()));
+
+		// マスタ名.項目名をマスタ毎のラベルに展開
+		Map<String, Long> masterMetrics = masterDataCache.getMetrics();
+		String[][] items = {
+				{ "size", "lms_master_data_size", "gauge", "Cached master rows (-1 if not loaded)." },
+				{ "ageMillis", "lms_master_data_age_seconds", "gauge",
+						"Seconds since the master was loaded (-1 if not loaded)." },
+				{ "loadCount", "lms_master_data_loads_total", "counter", "Master loads." } };
+		for (String[] item : items) {
+			writeHeader(writer, item[1], item[2], item[3]);
+			for (Map.Entry<String, Long> entry : masterMetrics.entrySet()) {
+				int dot = entry.getKey().indexOf('.');
+				if (!entry.getKey().substring(dot + 1).equals(item[0])) {
+					continue;
+				}
+				long value = entry.getValue();
+				writeSample(writer, item[1], "master=\"" + escape(entry.getKey().substring(0, dot)) + "\"",
+						item[0].equals("ageMillis") && value >= 0 ? String.valueOf(value / 1000.0)
+								: String.valueOf(value));
+			}
+		}
+	}
+
+	/**
+	 * ハンドラーのラベルを作成
+	 *
+	 * @param endpoint
+	 * @return ラベル
+	 */
+	private String labels(RequestMetrics.Endpoint endpoint) {
+		return "handler=\"" + escape(endpoint.getHandler()) + "\",pattern=\"" + escape(endpoint.getPattern())
+				+ "\"";
+	}
+
+	/**
+	 * HELP・TYPE行を出力
+	 *
+	 * @param writer
+	 * @param name
+	 * @param type
+	 * @param help
+	 * @throws IOException
+	 */
+	private void writeHeader(Writer writer, String name, String type, String help) throws IOException {
+		writer.write("# HELP " + name + " " + help + "\n");
+		writer.write("# TYPE " + name + " " + type + "\n");
+	}
+
+	/**
+	 * 値の行を出力
+	 *
+	 * @param writer
+	 * @param name
+	 * @param labels
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeSample(Writer writer, String name, String labels, String value) throws IOException {
+		writer.write(name + "{" + labels + "} " + value + "\n");
+	}
+
+	/**
+	 * マイクロ秒を秒の文字列に変換
+	 *
+	 * @param micros
+	 * @return 秒
+	 */
+	private String toSeconds(long micros) {
+		return String.valueOf(micros / 1_000_000.0);
+	}
+
+	/**
+	 * ラベル値をエスケープ
+	 *
+	 * @param value
+	 * @return エスケープした値
+	 */
+	private String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+}
@@ -6,19 +6,16 @@ import java.util.Date;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
 import jp.co.sss.lms.dto.LoginUserDto;
-import jp.co.sss.lms.entity.LoginUser;
 import jp.co.sss.lms.entity.MUser;
 import jp.co.sss.lms.entity.TTemporaryPassStorage;
 import jp.co.sss.lms.form.LoginForm;
 import jp.co.sss.lms.form.MailAddressForm;
-import jp.co.sss.lms.mapper.LoginMapper;
 import jp.co.sss.lms.mapper.MUserMapper;
 import jp.co.sss.lms.mapper.TTemporaryPassStorageMapper;
 import jp.co.sss.lms.util.Constants;
@@ -46,8 +43,6 @@ public class PasswordService {
 	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
-	private LoginMapper loginMapper;
-	@Autowired
 	private TTemporaryPassStorageMapper tTemporaryPassStorageMapper;
 	@Autowired
 	private PasswordUtil passwordUtil;
@@ -91,7 +86,8 @@ public class PasswordService {
 	}
 
 	/**
-	 * パスワード変更
+	 * パスワード変更<br>
+	 * セッションのログイン情報は、ログイン詳細を再取得せずに変更した項目のみ更新する。
 	 * 
 	 * @param loginForm
 	 * @param result
@@ -108,26 +104,20 @@ public class PasswordService {
 		mUser.setLastModifiedDate(now);
 		boolean updateFlg = mUserMapper.updatePassword(mUser);
 		if (updateFlg) {
-			// 最新のログイン詳細が取得できればセッションに登録
-			LoginUser loginUser = loginMapper.getLoginDetailByLmsUserId(loginUserDto.getLmsUserId(),
-					Constants.DB_FLG_FALSE);
-			if (loginUser != null) {
-				BeanUtils.copyProperties(loginUser, loginUserDto);
-				loginUserDto.setPasswordNgCount(0);
-				loginUserDto.setPasswordNgDate("");
-				session.setAttribute("loginUserDto", loginUserDto);
-				// パスワード変更テーブルの情報があれば削除
-				TTemporaryPassStorage tTemporaryPassStorage = tTemporaryPassStorageMapper
-						.findByUserId(loginUserDto.getUserId(), Constants.DB_FLG_FALSE);
-				if (tTemporaryPassStorage != null) {
-					tTemporaryPassStorage.setDeleteFlg(Constants.DB_FLG_TRUE);
-					tTemporaryPassStorage.setLastModifiedDate(now);
-					tTemporaryPassStorage.setLastModifiedUser(loginUserDto.getLmsUserId());
-					tTemporaryPassStorageMapper.deleteUpdate(tTemporaryPassStorage);
-				}
-			} else {
-				// ログイン詳細が取得できなかった場合
-				return messageUtil.getMessage(Constants.VALID_KEY_LOGINDATA_GET_FAILED);
+			// セッションのログイン情報を更新
+			loginUserDto.setPasswordChangeDate(mUser.getPasswordChangeDate());
+			loginUserDto.setPasswordNgCount(0);
+			loginUserDto.setPasswordNgDate("");
+			loginUserDto.setGateCheckExpireTime(null);
+			session.setAttribute("loginUserDto", loginUserDto);
+			// パスワード変更テーブルの情報があれば削除
+			TTemporaryPassStorage tTemporaryPassStorage = tTemporaryPassStorageMapper
+					.findByUserId(loginUserDto.getUserId(), Constants.DB_FLG_FALSE);
+			if (tTemporaryPassStorage != null) {
+				tTemporaryPassStorage.setDeleteFlg(Constants.DB_FLG_TRUE);
+				tTemporaryPassStorage.setLastModifiedDate(now);
+				tTemporaryPassStorage.setLastModifiedUser(loginUserDto.getLmsUserId());
+				tTemporaryPassStorageMapper.deleteUpdate(tTemporaryPassStorage);
 			}
 		} else {
 			// 更新失敗
@@ -0,0 +1,727 @@
+package jp.co.sss.lms.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceAnalytics;
+import jp.co.sss.lms.util.AttendanceBlankCounter;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 出退勤打刻バッファサービス<br>
+ * 出退勤ボタンの打刻をジャーナルファイルに記録した上でメモリに保持し、一定間隔でまとめて勤怠情報へ反映する。<br>
+ * 未反映の打刻は本サービス経由の取得に反映されるため、打刻した本人には即時に反映済みとして見える。
+ * 起動時に残っているジャーナルは再適用する。<br>
+ * 反映は呼び出し元のトランザクションとは別のトランザクションで確定し、確定後にジャーナルを削除する。<br>
+ * ジャーナルへの追記は排他して行い、ディスクへの同期は排他の外でまとめて行う（グループコミット）。
+ * 同期中に追記された打刻は次の1回の同期でまとめてディスクへ書き出される。<br>
+ * 未反映の打刻は受け付けたサーバーにしか見えず、他のサーバーで直接登録すると二重登録になるため、
+ * ログインセッションの保存先がデータベース（複数台構成）の場合は設定によらず無効とする。
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class PunchBufferService {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** ジャーナルファイル名の接頭辞 */
+	private static final String JOURNAL_PREFIX = "punch-";
+	/** ジャーナルファイル名の接尾辞 */
+	private static final String JOURNAL_SUFFIX = ".log";
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private AttendanceBlankCounter attendanceBlankCounter;
+	@Autowired
+	private AttendanceAnalytics attendanceAnalytics;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${setting.punch.buffer.enabled}")
+	private boolean enabled;
+	@Value("${setting.punch.buffer.flush.millis}")
+	private Long flushMillis;
+	@Value("${setting.punch.buffer.size}")
+	private Integer maxSize;
+	@Value("${setting.punch.buffer.dir}")
+	private String journalDir;
+	@Value("${setting.session.store}")
+	private String sessionStore;
+
+	/** 未反映の打刻（thisで同期） */
+	private final Map<Key, Pending> pendingMap = new LinkedHashMap<>();
+	/** 反映中の打刻（thisで同期） */
+	private Map<Key, Pending> flushingMap = new HashMap<>();
+	/** 反映後に削除するジャーナル（thisで同期） */
+	private final List<Path> sealedJournalList = new ArrayList<>();
+	/** 書込中のジャーナル */
+	private FileChannel journal;
+	/** 書込中のジャーナルのパス */
+	private Path journalPath;
+	/** ジャーナルの連番 */
+	private long journalSeq;
+	/** ジャーナルへ追記した記録の通番（thisで同期） */
+	private long writtenSeq;
+	/** ディスクへ同期済の記録の通番（syncLockで同期） */
+	private long syncedSeq;
+	/** 同期中の判定（syncLockで同期） */
+	private boolean syncing;
+	/** ジャーナル同期の排他 */
+	private final Object syncLock = new Object();
+	/** 反映処理の排他 */
+	private final Object flushLock = new Object();
+	/** 反映スレッド */
+	private ScheduledExecutorService flushExecutor;
+	/** 反映用トランザクション（呼び出し元のトランザクションから独立させる） */
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * 初期処理（残っているジャーナルの再適用と反映スレッドの開始）
+	 */
+	@PostConstruct
+	public void init() {
+		if (enabled && "database".equals(sessionStore)) {
+			logger.warn("複数台構成では打刻バッファを使用できないため、打刻を直接反映します。");
+			enabled = false;
+		}
+		if (!enabled) {
+			return;
+		}
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		List<Path> journalList;
+		try {
+			Path dir = Paths.get(journalDir);
+			Files.createDirectories(dir);
+			journalList = listJournals(dir);
+			if (!journalList.isEmpty()) {
+				journalSeq = parseSeq(journalList.get(journalList.size() - 1));
+			}
+			openJournal();
+		} catch (IOException e) {
+			logger.warn("打刻ジャーナルを作成できないため、打刻を直接反映します。", e);
+			enabled = false;
+			return;
+		}
+		recover(journalList);
+		flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "punch-buffer-flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 終了処理（未反映の打刻を反映）
+	 */
+	@PreDestroy
+	public void destroy() {
+		if (!enabled) {
+			return;
+		}
+		flushExecutor.shutdown();
+		try {
+			flushExecutor.awaitTermination(flushMillis * 10, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flushQuietly();
+		synchronized (this) {
+			try {
+				journal.close();
+				if (pendingMap.isEmpty() && Files.size(journalPath) == 0) {
+					Files.deleteIfExists(journalPath);
+				}
+			} catch (IOException e) {
+				logger.warn("打刻ジャーナルを閉じられませんでした。", e);
+			}
+		}
+	}
+
+	/**
+	 * 打刻バッファの有効判定
+	 *
+	 * @return 有効な場合true
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 勤怠情報取得（未反映の打刻を含む）
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @return 勤怠情報（呼び出し元専用の複製）
+	 */
+	public TStudentAttendance findByLmsUserIdAndTrainingDate(Integer lmsUserId, Date trainingDate) {
+		if (enabled) {
+			synchronized (this) {
+				Pending pending = getPending(new Key(lmsUserId, trainingDate));
+				if (pending != null) {
+					return copy(pending.after);
+				}
+			}
+		}
+		return tStudentAttendanceMapper.findByLmsUserIdAndTrainingDate(lmsUserId, trainingDate,
+				Constants.DB_FLG_FALSE);
+	}
+
+	/**
+	 * 勤怠管理画面用DTOリストへ未反映の打刻を反映
+	 *
+	 * @param lmsUserId
+	 * @param attendanceManagementDtoList
+	 */
+	public void overlay(Integer lmsUserId,
+			List<AttendanceManagementDto> attendanceManagementDtoList) {
+		if (!enabled) {
+			return;
+		}
+		synchronized (this) {
+			if (pendingMap.isEmpty() && flushingMap.isEmpty()) {
+				return;
+			}
+			for (AttendanceManagementDto dto : attendanceManagementDtoList) {
+				if (dto.getTrainingDate() == null) {
+					continue;
+				}
+				Pending pending = getPending(new Key(lmsUserId, dto.getTrainingDate()));
+				if (pending == null) {
+					continue;
+				}
+				TStudentAttendance after = pending.after;
+				if (after.getStudentAttendanceId() != null) {
+					dto.setStudentAttendanceId(after.getStudentAttendanceId());
+				}
+				dto.setTrainingStartTime(after.getTrainingStartTime());
+				dto.setTrainingEndTime(after.getTrainingEndTime());
+				dto.setStatus(after.getStatus());
+				dto.setNote(after.getNote());
+				dto.setBlankTime(after.getBlankTime());
+			}
+		}
+	}
+
+	/**
+	 * 打刻を受け付ける<br>
+	 * ジャーナルへの追記後にメモリへ保持し、ディスクへの同期を待って戻る。無効時・上限到達時は受け付けないため、呼び出し元で直接反映すること。<br>
+	 * 未反映・反映中の打刻があるキーは、直接反映すると古い打刻で上書き・二重登録されるため常に受け付ける。
+	 * ジャーナルへ書き込めない・同期できない場合はその場で反映する。
+	 *
+	 * @param before 打刻前の勤怠情報（未登録の場合null）
+	 * @param after  打刻後の勤怠情報
+	 * @return 受け付けた場合true
+	 */
+	public boolean offer(TStudentAttendance before, TStudentAttendance after) {
+		if (!enabled) {
+			return false;
+		}
+		Key key = new Key(after.getLmsUserId(), after.getTrainingDate());
+		byte[] record = toRecord(after);
+		boolean journaled = true;
+		long seq = 0;
+		synchronized (this) {
+			Pending pending = pendingMap.get(key);
+			boolean buffered = pending != null || flushingMap.containsKey(key);
+			if (!buffered && pendingMap.size() >= maxSize) {
+				return false;
+			}
+			try {
+				seq = appendJournal(record);
+			} catch (IOException e) {
+				if (!buffered) {
+					logger.warn("打刻ジャーナルへ書き込めないため、打刻を直接反映します。", e);
+					return false;
+				}
+				logger.warn("打刻ジャーナルへ書き込めないため、未反映の打刻と合わせて反映します。", e);
+				journaled = false;
+			}
+			if (pending == null) {
+				pending = new Pending(copy(before));
+				pendingMap.put(key, pending);
+			}
+			pending.after = copy(after);
+		}
+		if (journaled) {
+			try {
+				syncJournal(seq);
+			} catch (IOException e) {
+				logger.warn("打刻ジャーナルを同期できないため、未反映の打刻と合わせて反映します。", e);
+				journaled = false;
+			}
+		}
+		if (!journaled) {
+			// 反映に失敗した場合も打刻は保持され、反映スレッドで再実行される
+			flushQuietly();
+		}
+		return true;
+	}
+
+	/**
+	 * 未反映の打刻を勤怠情報へ反映<br>
+	 * 勤怠情報を直接更新する前に呼び出す。反映は独立したトランザクションで確定するため、呼び出し元がロールバックしても打刻は失われない。
+	 * 反映に失敗した場合、打刻は次回の反映対象に戻す。
+	 */
+	public void flush() {
+		if (!enabled) {
+			return;
+		}
+		synchronized (flushLock) {
+			Map<Key, Pending> flushing;
+			synchronized (this) {
+				if (pendingMap.isEmpty()) {
+					return;
+				}
+				flushing = new HashMap<>(pendingMap);
+				flushingMap = flushing;
+				pendingMap.clear();
+				try {
+					rotateJournal();
+				} catch (IOException e) {
+					// 次の打刻でも書込に失敗し、直接反映に切り替わる
+					logger.warn("打刻ジャーナルを切り替えられませんでした。", e);
+				}
+			}
+			List<Pending> pendingList = new ArrayList<>(flushing.values());
+			try {
+				transactionTemplate.executeWithoutResult(status -> write(pendingList));
+			} catch (RuntimeException e) {
+				synchronized (this) {
+					// 反映中に受け付けた打刻の方が新しいため、存在しない場合のみ戻す
+					for (Map.Entry<Key, Pending> entry : flushing.entrySet()) {
+						pendingMap.putIfAbsent(entry.getKey(), entry.getValue());
+					}
+					flushingMap = new HashMap<>();
+				}
+				throw e;
+			}
+			// 確定後に集計へ反映し、ジャーナルを削除する
+			updateCounters(pendingList);
+			List<Path> sealed;
+			synchronized (this) {
+				flushingMap = new HashMap<>();
+				sealed = new ArrayList<>(sealedJournalList);
+				sealedJournalList.clear();
+			}
+			deleteJournals(sealed);
+		}
+	}
+
+	/**
+	 * 未反映の打刻を反映（例外はログ出力のみ）
+	 */
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			logger.warn("打刻の反映に失敗しました。次回再実行します。", e);
+		}
+	}
+
+	/**
+	 * 勤怠情報へ一括反映<br>
+	 * IDが不明な打刻は研修日毎に既存の勤怠情報を一括取得し、登録・更新を振り分ける。
+	 *
+	 * @param pendingList
+	 */
+	private void write(List<Pending> pendingList) {
+		Map<Date, Map<Integer, TStudentAttendance>> unknownMap = new HashMap<>();
+		for (Pending pending : pendingList) {
+			if (pending.after.getStudentAttendanceId() == null) {
+				unknownMap.computeIfAbsent(pending.after.getTrainingDate(), date -> new HashMap<>())
+						.put(pending.after.getLmsUserId(), pending.after);
+			}
+		}
+		for (Map.Entry<Date, Map<Integer, TStudentAttendance>> entry : unknownMap.entrySet()) {
+			List<TStudentAttendance> existingList = tStudentAttendanceMapper
+					.findByLmsUserIdListAndTrainingDate(new ArrayList<>(entry.getValue().keySet()),
+							entry.getKey(), Constants.DB_FLG_FALSE);
+			for (TStudentAttendance existing : existingList) {
+				TStudentAttendance after = entry.getValue().get(existing.getLmsUserId());
+				after.setStudentAttendanceId(existing.getStudentAttendanceId());
+			}
+		}
+		List<TStudentAttendance> insertList = new ArrayList<>();
+		List<TStudentAttendance> updateList = new ArrayList<>();
+		for (Pending pending : pendingList) {
+			if (pending.after.getStudentAttendanceId() == null) {
+				insertList.add(pending.after);
+			} else {
+				updateList.add(pending.after);
+			}
+		}
+		if (!insertList.isEmpty()) {
+			tStudentAttendanceMapper.insertBatch(insertList);
+		}
+		if (!updateList.isEmpty()) {
+			tStudentAttendanceMapper.updateBatch(updateList);
+		}
+		logger.debug("打刻を反映しました。登録：" + insertList.size() + "件、更新：" + updateList.size() + "件");
+	}
+
+	/**
+	 * 反映した打刻を未入力件数・集計へ反映
+	 *
+	 * @param pendingList
+	 */
+	private void updateCounters(List<Pending> pendingList) {
+		for (Pending pending : pendingList) {
+			attendanceBlankCounter.update(pending.before, pending.after);
+			attendanceAnalytics.update(pending.before, pending.after);
+		}
+	}
+
+	/**
+	 * 残っているジャーナルを再適用
+	 *
+	 * @param journalList
+	 */
+	private void recover(List<Path> journalList) {
+		if (journalList.isEmpty()) {
+			return;
+		}
+		try {
+			Map<Key, Pending> recoverMap = new LinkedHashMap<>();
+			for (Path path : journalList) {
+				for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+					String[] fields = line.split("\t", -1);
+					if (fields.length != 8) {
+						// 書込途中で停止した行は読み飛ばす
+						logger.warn("打刻ジャーナルの不正な行を読み飛ばしました。" + path + "：" + line);
+						continue;
+					}
+					Integer lmsUserId = Integer.valueOf(fields[0]);
+					Date trainingDate = new Date(Long.parseLong(fields[1]));
+					Key key = new Key(lmsUserId, trainingDate);
+					Pending pending = recoverMap.get(key);
+					if (pending == null) {
+						TStudentAttendance current = tStudentAttendanceMapper
+								.findByLmsUserIdAndTrainingDate(lmsUserId, trainingDate,
+										Constants.DB_FLG_FALSE);
+						pending = new Pending(current);
+						pending.after = copy(current);
+						recoverMap.put(key, pending);
+					}
+					pending.after = apply(pending.after, lmsUserId, trainingDate, fields);
+				}
+			}
+			if (!recoverMap.isEmpty()) {
+				List<Pending> pendingList = new ArrayList<>(recoverMap.values());
+				transactionTemplate.executeWithoutResult(status -> write(pendingList));
+				updateCounters(pendingList);
+			}
+			deleteJournals(journalList);
+			logger.info("打刻ジャーナルを再適用しました。件数：" + recoverMap.size());
+		} catch (IOException | RuntimeException e) {
+			// ジャーナルは残し、次回起動時に再適用する
+			logger.error("打刻ジャーナルの再適用に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * ジャーナルの記録を勤怠情報へ適用
+	 *
+	 * @param base         適用前の勤怠情報（未登録の場合null）
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @param fields       ジャーナルの記録
+	 * @return 適用後の勤怠情報
+	 */
+	private TStudentAttendance apply(TStudentAttendance base, Integer lmsUserId, Date trainingDate,
+			String[] fields) {
+		Integer lastModifiedUser = Integer.valueOf(fields[6]);
+		Date lastModifiedDate = new Date(Long.parseLong(fields[7]));
+		TStudentAttendance tStudentAttendance = base;
+		if (tStudentAttendance == null) {
+			tStudentAttendance = new TStudentAttendance();
+			tStudentAttendance.setLmsUserId(lmsUserId);
+			tStudentAttendance.setTrainingDate(trainingDate);
+			tStudentAttendance.setNote("");
+			tStudentAttendance.setAccountId(Integer.valueOf(fields[5]));
+			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+			tStudentAttendance.setFirstCreateUser(lastModifiedUser);
+			tStudentAttendance.setFirstCreateDate(lastModifiedDate);
+			tStudentAttendance.setBlankTime(null);
+		}
+		tStudentAttendance.setTrainingStartTime(fields[2]);
+		tStudentAttendance.setTrainingEndTime(fields[3]);
+		tStudentAttendance.setStatus(Short.valueOf(fields[4]));
+		tStudentAttendance.setLastModifiedUser(lastModifiedUser);
+		tStudentAttendance.setLastModifiedDate(lastModifiedDate);
+		return tStudentAttendance;
+	}
+
+	/**
+	 * ジャーナルの記録を作成（LMSユーザーID、研修日、出勤時刻、退勤時刻、ステータス、アカウントID、更新者、更新日時）
+	 *
+	 * @param tStudentAttendance
+	 * @return 記録
+	 */
+	private byte[] toRecord(TStudentAttendance tStudentAttendance) {
+		String record = tStudentAttendance.getLmsUserId() + "\t"
+				+ tStudentAttendance.getTrainingDate().getTime() + "\t"
+				+ tStudentAttendance.getTrainingStartTime() + "\t"
+				+ tStudentAttendance.getTrainingEndTime() + "\t"
+				+ tStudentAttendance.getStatus() + "\t"
+				+ tStudentAttendance.getAccountId() + "\t"
+				+ tStudentAttendance.getLastModifiedUser() + "\t"
+				+ tStudentAttendance.getLastModifiedDate().getTime() + "\n";
+		return record.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * ジャーナルへ追記（thisで同期して呼び出す）
+	 *
+	 * @param record
+	 * @return 記録の通番
+	 * @throws IOException
+	 */
+	private long appendJournal(byte[] record) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		while (buffer.hasRemaining()) {
+			journal.write(buffer);
+		}
+		return ++writtenSeq;
+	}
+
+	/**
+	 * 指定した通番までの記録をディスクへ同期<br>
+	 * 他のスレッドが同期中の場合は完了を待ち、まだ同期されていなければその時点までの記録をまとめて同期する。
+	 *
+	 * @param seq 記録の通番
+	 * @throws IOException
+	 */
+	private void syncJournal(long seq) throws IOException {
+		synchronized (syncLock) {
+			while (syncedSeq < seq && syncing) {
+				try {
+					syncLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("打刻ジャーナルの同期待ちが中断されました。");
+				}
+			}
+			if (syncedSeq >= seq) {
+				return;
+			}
+			syncing = true;
+		}
+		long target;
+		FileChannel channel;
+		synchronized (this) {
+			target = writtenSeq;
+			channel = journal;
+		}
+		boolean synced = false;
+		try {
+			channel.force(false);
+			synced = true;
+		} catch (ClosedChannelException e) {
+			// 切り替え時に同期済（rotateJournalで同期してから閉じる）
+			synced = true;
+		} finally {
+			synchronized (syncLock) {
+				if (synced) {
+					syncedSeq = Math.max(syncedSeq, target);
+				}
+				syncing = false;
+				syncLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * 追記済の記録をすべて同期済とする
+	 *
+	 * @param seq 記録の通番
+	 */
+	private void markSynced(long seq) {
+		synchronized (syncLock) {
+			syncedSeq = Math.max(syncedSeq, seq);
+			syncLock.notifyAll();
+		}
+	}
+
+	/**
+	 * 新しいジャーナルを開く
+	 *
+	 * @throws IOException
+	 */
+	private void openJournal() throws IOException {
+		journalSeq++;
+		journalPath = Paths.get(journalDir,
+				JOURNAL_PREFIX + String.format("%019d", journalSeq) + JOURNAL_SUFFIX);
+		journal = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * ジャーナルを切り替え、書込済のジャーナルを削除待ちにする（thisで同期して呼び出す）<br>
+	 * 同期待ちの打刻のため、閉じる前にディスクへ同期する。
+	 *
+	 * @throws IOException
+	 */
+	private void rotateJournal() throws IOException {
+		journal.force(false);
+		markSynced(writtenSeq);
+		journal.close();
+		sealedJournalList.add(journalPath);
+		openJournal();
+	}
+
+	/**
+	 * ジャーナルを削除
+	 *
+	 * @param journalList
+	 */
+	private void deleteJournals(List<Path> journalList) {
+		for (Path path : journalList) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				logger.warn("打刻ジャーナルを削除できませんでした。" + path, e);
+			}
+		}
+	}
+
+	/**
+	 * ジャーナルの一覧を連番順に取得
+	 *
+	 * @param dir
+	 * @return ジャーナルのパスリスト
+	 * @throws IOException
+	 */
+	private List<Path> listJournals(Path dir) throws IOException {
+		try (Stream<Path> stream = Files.list(dir)) {
+			return stream.filter(path -> {
+				String name = path.getFileName().toString();
+				return name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX);
+			}).sorted().toList();
+		}
+	}
+
+	/**
+	 * ジャーナルの連番を取得
+	 *
+	 * @param path
+	 * @return 連番
+	 */
+	private long parseSeq(Path path) {
+		String name = path.getFileName().toString();
+		return Long.parseLong(
+				name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()));
+	}
+
+	/**
+	 * 未反映・反映中の打刻を取得（thisで同期して呼び出す）
+	 *
+	 * @param key
+	 * @return 打刻（存在しない場合null）
+	 */
+	private Pending getPending(Key key) {
+		Pending pending = pendingMap.get(key);
+		return pending != null ? pending : flushingMap.get(key);
+	}
+
+	/**
+	 * 勤怠情報の複製
+	 *
+	 * @param tStudentAttendance
+	 * @return 複製（nullの場合null）
+	 */
+	private TStudentAttendance copy(TStudentAttendance tStudentAttendance) {
+		if (tStudentAttendance == null) {
+			return null;
+		}
+		TStudentAttendance copy = new TStudentAttendance();
+		BeanUtils.copyProperties(tStudentAttendance, copy);
+		return copy;
+	}
+
+	/**
+	 * 打刻のキー（LMSユーザーID＆研修日）
+	 */
+	private static class Key {
+
+		/** LMSユーザーID */
+		private final Integer lmsUserId;
+		/** 研修日（エポック日） */
+		private final long epochDay;
+
+		private Key(Integer lmsUserId, Date trainingDate) {
+			this.lmsUserId = lmsUserId;
+			this.epochDay = Instant.ofEpochMilli(trainingDate.getTime())
+					.atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return epochDay == other.epochDay && lmsUserId.equals(other.lmsUserId);
+		}
+
+		@Override
+		public int hashCode() {
+			return lmsUserId.hashCode() * 31 + Long.hashCode(epochDay);
+		}
+	}
+
+	/**
+	 * 打刻
+	 */
+	private static class Pending {
+
+		/** 最初の打刻前の勤怠情報（未登録の場合null） */
+		private final TStudentAttendance before;
+		/** 最新の打刻後の勤怠情報 */
+		private TStudentAttendance after;
+
+		private Pending(TStudentAttendance before) {
+			this.before = before;
+		}
+	}
+
+}
@@ -0,0 +1,457 @@
+package jp.co.sss.lms.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.ReportExportJobDto;
+import jp.co.sss.lms.dto.WorkbookDto;
+import jp.co.sss.lms.entity.TDailyReportSubmit;
+import jp.co.sss.lms.enums.ExportJobStatusEnum;
+import jp.co.sss.lms.form.DailyReportExportForm;
+import jp.co.sss.lms.mapper.TDailyReportSubmitMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelUtil;
+import jp.co.sss.lms.util.MessageUtil;
+
+/**
+ * レポート一括エクスポートサービス<br>
+ * ワークブックの作成はリクエストスレッドから切り離し、作成したZIPはスプールディレクトリに出力する。<br>
+ * ジョブは登録したユーザーのみ進捗確認・ダウンロードできる。<br>
+ * ジョブと作成したZIPは登録を受け付けたサーバーにしか存在せず、進捗確認・ダウンロードが他のサーバーに振り分けられると見つからないため、
+ * ログインセッションの保存先がデータベース（複数台構成）の場合は使用できない。
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class ReportExportService {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private ReportService reportService;
+	@Autowired
+	private TDailyReportSubmitMapper tDailyReportSubmitMapper;
+	@Autowired
+	private MessageUtil messageUtil;
+	@Autowired
+	private DateUtil dateUtil;
+	@Autowired
+	private LoginUserDto loginUserDto;
+
+	@Value("${setting.report.export.thread}")
+	private Integer threadCount;
+	@Value("${setting.report.export.queue}")
+	private Integer queueSize;
+	@Value("${setting.report.export.dir}")
+	private String spoolDir;
+	@Value("${setting.report.export.expire.minute}")
+	private Integer expireMinute;
+	@Value("${setting.session.store}")
+	private String sessionStore;
+
+	/** 一括エクスポートの有効判定 */
+	private boolean enabled;
+
+	/** ジョブID毎のジョブ */
+	private final Map<String, ExportJob> jobMap = new ConcurrentHashMap<>();
+	/** 抽出条件毎のジョブ（重複実行防止） */
+	private final Map<String, ExportJob> jobKeyMap = new ConcurrentHashMap<>();
+	/** ジョブ実行スレッド（ZIP出力） */
+	private ThreadPoolExecutor jobExecutor;
+	/** ワークブック作成スレッド */
+	private ExecutorService renderExecutor;
+
+	/**
+	 * 初期処理
+	 */
+	@PostConstruct
+	public void init() {
+		enabled = !"database".equals(sessionStore);
+		if (!enabled) {
+			logger.info("複数台構成のため、レポートの一括エクスポートは使用できません。");
+			return;
+		}
+		jobExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueSize), createThreadFactory("report-export-job"));
+		renderExecutor = Executors.newFixedThreadPool(threadCount,
+				createThreadFactory("report-export-render"));
+	}
+
+	/**
+	 * 終了処理
+	 */
+	@PreDestroy
+	public void destroy() {
+		if (!enabled) {
+			return;
+		}
+		jobExecutor.shutdownNow();
+		renderExecutor.shutdownNow();
+	}
+
+	/**
+	 * エクスポートジョブ登録<br>
+	 * 同一条件のジョブが実行中または作成済の場合は、そのジョブを返却する。
+	 * 複数台構成の場合はエラー終了したジョブを返却する。
+	 *
+	 * @param dailyReportExportForm
+	 * @return ジョブDTO
+	 * @throws ParseException
+	 */
+	public ReportExportJobDto submit(DailyReportExportForm dailyReportExportForm)
+			throws ParseException {
+
+		if (!enabled) {
+			ExportJob job = new ExportJob(UUID.randomUUID().toString(), null,
+					loginUserDto.getLmsUserId(), dailyReportExportForm.getCourseId(), null, null,
+					new ArrayList<>());
+			job.fail(messageUtil.getMessage("reportDownload.exportUnavailable"));
+			return job.toDto();
+		}
+
+		Date dateFrom = parseDate(dailyReportExportForm.getDateFrom());
+		Date dateTo = parseDate(dailyReportExportForm.getDateTo());
+		List<Integer> lmsUserIdList = dailyReportExportForm.getLmsUserIdList() == null
+				? new ArrayList<>()
+				: new ArrayList<>(new TreeSet<>(dailyReportExportForm.getLmsUserIdList()));
+		Integer ownerLmsUserId = loginUserDto.getLmsUserId();
+		String jobKey = ownerLmsUserId + "|" + dailyReportExportForm.getCourseId() + "|" + dateFrom
+				+ "|" + dateTo + "|" + lmsUserIdList;
+
+		synchronized (this) {
+			ExportJob job = jobKeyMap.get(jobKey);
+			if (job != null && job.status != ExportJobStatusEnum.ERROR) {
+				return job.toDto();
+			}
+			job = new ExportJob(UUID.randomUUID().toString(), jobKey, ownerLmsUserId,
+					dailyReportExportForm.getCourseId(), dateFrom, dateTo, lmsUserIdList);
+			ExportJob registeredJob = job;
+			try {
+				jobExecutor.execute(() -> run(registeredJob));
+			} catch (RejectedExecutionException e) {
+				// 待機中のジョブが上限に達している場合
+				job.fail(messageUtil.getMessage("reportDownload.exportBusy"));
+				return job.toDto();
+			}
+			jobMap.put(job.jobId, job);
+			jobKeyMap.put(jobKey, job);
+			return job.toDto();
+		}
+	}
+
+	/**
+	 * エクスポートジョブの進捗取得
+	 *
+	 * @param jobId
+	 * @return ジョブDTO（存在しない・登録者以外の場合null）
+	 */
+	public ReportExportJobDto getProgress(String jobId) {
+		ExportJob job = getOwnJob(jobId);
+		if (job == null) {
+			return null;
+		}
+		return job.toDto();
+	}
+
+	/**
+	 * エクスポートしたZIPファイルのダウンロード
+	 *
+	 * @param jobId
+	 * @param response
+	 * @return ダウンロードした場合true、未完了・存在しない・登録者以外の場合false
+	 * @throws IOException
+	 */
+	public boolean download(String jobId, HttpServletResponse response) throws IOException {
+		ExportJob job = getOwnJob(jobId);
+		if (job == null || job.status != ExportJobStatusEnum.COMPLETE) {
+			return false;
+		}
+		String fileName = new String((messageUtil.getMessage("dailyReportId") + job.finishTime)
+				.getBytes("Windows-31J"), "ISO-8859-1");
+		fileName += ".zip";
+		response.setContentType("application/octet-stream");
+		response.setHeader("Content-Disposition", "filename=\"" + fileName + "\"");
+		response.setContentLengthLong(Files.size(job.file));
+		try (OutputStream out = response.getOutputStream()) {
+			Files.copy(job.file, out);
+		}
+		return true;
+	}
+
+	/**
+	 * ログインユーザーが登録したジョブを取得
+	 *
+	 * @param jobId
+	 * @return ジョブ（存在しない・登録者以外の場合null）
+	 */
+	private ExportJob getOwnJob(String jobId) {
+		if (jobId == null) {
+			return null;
+		}
+		ExportJob job = jobMap.get(jobId);
+		Integer lmsUserId = loginUserDto.getLmsUserId();
+		if (job == null || lmsUserId == null || !lmsUserId.equals(job.ownerLmsUserId)) {
+			return null;
+		}
+		return job;
+	}
+
+	/**
+	 * エクスポートジョブ実行
+	 *
+	 * @param job
+	 */
+	private void run(ExportJob job) {
+		job.status = ExportJobStatusEnum.RUNNING;
+		Path part = Paths.get(spoolDir, job.jobId + ".zip.part");
+		Path file = Paths.get(spoolDir, job.jobId + ".zip");
+		RenderIterator renderIterator = null;
+		try {
+			Files.createDirectories(part.getParent());
+			List<TDailyReportSubmit> targetList = tDailyReportSubmitMapper.getExportTargetList(
+					job.courseId, job.dateFrom, job.dateTo, job.lmsUserIdList,
+					Constants.DB_FLG_FALSE);
+			job.totalCount = targetList.size();
+			renderIterator = new RenderIterator(targetList, job);
+			try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(part),
+					Charset.forName("MS932"))) {
+				ExcelUtil.writeBookInZip(renderIterator, zos);
+			}
+			Files.move(part, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			job.file = file;
+			job.finishTime = System.currentTimeMillis();
+			job.status = ExportJobStatusEnum.COMPLETE;
+		} catch (Exception e) {
+			logger.error("レポート一括エクスポートに失敗しました。jobId=" + job.jobId, e);
+			if (renderIterator != null) {
+				renderIterator.cancel();
+			}
+			deleteQuietly(part);
+			job.fail(messageUtil.getMessage("reportDownload.exportError"));
+		}
+	}
+
+	/**
+	 * 有効期限切れのジョブとZIPファイルを削除（1分毎に実行）
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void removeExpiredJob() {
+		if (!enabled) {
+			return;
+		}
+		long expireTime = System.currentTimeMillis() - expireMinute * 60L * 1000L;
+		for (ExportJob job : jobMap.values()) {
+			if (job.finishTime != null && job.finishTime < expireTime) {
+				jobMap.remove(job.jobId);
+				jobKeyMap.remove(job.jobKey, job);
+				if (job.file != null) {
+					deleteQuietly(job.file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 日付文字列を変換
+	 *
+	 * @param date yyyy/M/d形式の日付
+	 * @return 日付（未入力の場合null）
+	 * @throws ParseException
+	 */
+	private Date parseDate(String date) throws ParseException {
+		if (date == null || date.isEmpty()) {
+			return null;
+		}
+		return dateUtil.parse(date);
+	}
+
+	/**
+	 * ファイルを削除（失敗時はログ出力のみ）
+	 *
+	 * @param path
+	 */
+	private void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			logger.warn("ファイルの削除に失敗しました。" + path, e);
+		}
+	}
+
+	/**
+	 * スレッドファクトリ作成
+	 *
+	 * @param name スレッド名
+	 * @return スレッドファクトリ
+	 */
+	private ThreadFactory createThreadFactory(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * ワークブックを並列に作成し、対象の順序で返却するイテレータ<br>
+	 * 先行して作成するワークブックは作成スレッド数の2倍までとし、メモリ使用量を抑える。
+	 */
+	private class RenderIterator implements Iterator<WorkbookDto> {
+
+		private final Iterator<TDailyReportSubmit> targetIterator;
+		private final ExportJob job;
+		private final Deque<Future<WorkbookDto>> futureQueue = new ArrayDeque<>();
+
+		private RenderIterator(List<TDailyReportSubmit> targetList, ExportJob job) {
+			this.targetIterator = targetList.iterator();
+			this.job = job;
+			fill();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !futureQueue.isEmpty();
+		}
+
+		@Override
+		public WorkbookDto next() {
+			Future<WorkbookDto> future = futureQueue.poll();
+			if (future == null) {
+				throw new NoSuchElementException();
+			}
+			try {
+				WorkbookDto workbookDto = future.get();
+				job.completeCount.incrementAndGet();
+				fill();
+				return workbookDto;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/**
+		 * 未着手のワークブック作成を依頼
+		 */
+		private void fill() {
+			while (futureQueue.size() < threadCount * 2 && targetIterator.hasNext()) {
+				TDailyReportSubmit target = targetIterator.next();
+				futureQueue.add(renderExecutor.submit(() -> reportService
+						.getWorkbookDto(target.getDailyReportId(), target.getDailyReportSubmitId())));
+			}
+		}
+
+		/**
+		 * 未完了のワークブック作成を中止
+		 */
+		private void cancel() {
+			for (Future<WorkbookDto> future : futureQueue) {
+				future.cancel(true);
+			}
+			futureQueue.clear();
+		}
+	}
+
+	/**
+	 * エクスポートジョブ
+	 */
+	private class ExportJob {
+
+		private final String jobId;
+		private final String jobKey;
+		private final Integer ownerLmsUserId;
+		private final Integer courseId;
+		private final Date dateFrom;
+		private final Date dateTo;
+		private final List<Integer> lmsUserIdList;
+		private final AtomicInteger completeCount = new AtomicInteger();
+		private volatile ExportJobStatusEnum status = ExportJobStatusEnum.WAITING;
+		private volatile Integer totalCount;
+		private volatile Path file;
+		private volatile Long finishTime;
+		private volatile String message;
+
+		private ExportJob(String jobId, String jobKey, Integer ownerLmsUserId, Integer courseId,
+				Date dateFrom, Date dateTo, List<Integer> lmsUserIdList) {
+			this.jobId = jobId;
+			this.jobKey = jobKey;
+			this.ownerLmsUserId = ownerLmsUserId;
+			this.courseId = courseId;
+			this.dateFrom = dateFrom;
+			this.dateTo = dateTo;
+			this.lmsUserIdList = lmsUserIdList;
+		}
+
+		/**
+		 * エラー終了
+		 *
+		 * @param message
+		 */
+		private void fail(String message) {
+			this.message = message;
+			this.finishTime = System.currentTimeMillis();
+			this.status = ExportJobStatusEnum.ERROR;
+		}
+
+		/**
+		 * ジョブDTOに変換
+		 *
+		 * @return ジョブDTO
+		 */
+		private ReportExportJobDto toDto() {
+			ReportExportJobDto reportExportJobDto = new ReportExportJobDto();
+			reportExportJobDto.setJobId(jobId);
+			reportExportJobDto.setStatus(status.code);
+			reportExportJobDto.setStatusName(status.name);
+			reportExportJobDto.setTotalCount(totalCount);
+			reportExportJobDto.setCompleteCount(completeCount.get());
+			reportExportJobDto.setMessage(message);
+			return reportExportJobDto;
+		}
+	}
+
+}
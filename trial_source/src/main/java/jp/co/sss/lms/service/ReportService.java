@@ -28,6 +28,7 @@ import jp.co.sss.lms.mapper.TIntelligibilityMapper;
 import jp.co.sss.lms.mapper.TSectionDailyReportMapper;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelTemplateCache;
 import jp.co.sss.lms.util.ExcelUtil;
 import jp.co.sss.lms.util.LoginUserUtil;
 import jp.co.sss.lms.util.MessageUtil;
@@ -47,6 +48,8 @@ public class ReportService {
 	@Autowired
 	private MessageUtil messageUtil;
 	@Autowired
+	private ExcelTemplateCache excelTemplateCache;
+	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
 	private TCourseDailyReportMapper tCourseDailyReportMapper;
@@ -233,7 +236,7 @@ public class ReportService {
 	 * @return ワークブックDTO
 	 * @throws IOException
 	 */
-	private WorkbookDto getWorkbookDto(Integer dailyReportId, Integer dailyReportSubmitId)
+	public WorkbookDto getWorkbookDto(Integer dailyReportId, Integer dailyReportSubmitId)
 			throws IOException {
 
 		// レポートダウンロード情報取得
@@ -245,7 +248,7 @@ public class ReportService {
 		String commonFileDir = messageUtil.getMessage("setting.file.common.dir");
 		String excelFilePath = commonFileDir + "/" + dailyReportDownloadDto.getFileName();
 
-		ExcelUtil excelUtil = new ExcelUtil(excelFilePath);
+		ExcelUtil excelUtil = new ExcelUtil(excelTemplateCache.getWorkbook(excelFilePath));
 
 		// 企業名
 		excelUtil.setVal(dailyReportDownloadDto.getSheetName(),
@@ -1,36 +1,52 @@
 package jp.co.sss.lms.service;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
 import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.dto.AttendanceRecalcDto;
 import jp.co.sss.lms.dto.LoginUserDto;
 import jp.co.sss.lms.entity.AttendanceCheck;
 import jp.co.sss.lms.entity.MPlace;
 import jp.co.sss.lms.entity.TStudentAttendance;
 import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.form.AttendanceBulkRegistForm;
 import jp.co.sss.lms.form.AttendanceCheckForm;
 import jp.co.sss.lms.form.AttendanceForm;
 import jp.co.sss.lms.form.DailyAttendanceForm;
 import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceAnalytics;
+import jp.co.sss.lms.util.AttendanceBlankCounter;
 import jp.co.sss.lms.util.AttendanceUtil;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
 import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.MasterDataCache;
 import jp.co.sss.lms.util.MessageUtil;
 import jp.co.sss.lms.util.TrainingTime;
+import jp.co.sss.lms.util.UserNameIndex;
+import jp.co.sss.lms.util.WorkSchedule;
+import jp.co.sss.lms.util.WorkScheduleEngine;
 
 /**
  * 勤怠情報（受講生入力）サービス
@@ -55,6 +71,24 @@ public class StudentAttendanceService {
 	private TStudentAttendanceMapper tStudentAttendanceMapper;
 	@Autowired
 	private MessageSource messageSource;
+	@Autowired
+	private AttendanceBlankCounter attendanceBlankCounter;
+	@Autowired
+	private AttendanceAnalytics attendanceAnalytics;
+	@Autowired
+	private UserNameIndex userNameIndex;
+	@Autowired
+	private PunchBufferService punchBufferService;
+	@Autowired
+	private WorkScheduleEngine workScheduleEngine;
+	@Autowired
+	private MasterDataCache masterDataCache;
+
+	@Value("${setting.search.user.page}")
+	private Integer pageSize;
+
+	/** 勤怠ステータス一括更新の1文あたりの件数 */
+	private static final int RECALC_BATCH_SIZE = 1000;
 
 	/**
 	 * 勤怠一覧情報取得
@@ -69,11 +103,12 @@ public class StudentAttendanceService {
 		// 勤怠管理リストの取得
 		List<AttendanceManagementDto> attendanceManagementDtoList = tStudentAttendanceMapper
 				.getAttendanceManagement(courseId, lmsUserId, Constants.DB_FLG_FALSE);
+		// 未反映の打刻を反映
+		punchBufferService.overlay(lmsUserId, attendanceManagementDtoList);
 		for (AttendanceManagementDto dto : attendanceManagementDtoList) {
 			// 中抜け時間を設定
 			if (dto.getBlankTime() != null) {
-				TrainingTime blankTime = attendanceUtil.calcBlankTime(dto.getBlankTime());
-				dto.setBlankTimeValue(String.valueOf(blankTime));
+				dto.setBlankTimeValue(TrainingTime.formatMinutes(dto.getBlankTime()));
 			}
 			// 遅刻早退区分判定
 			AttendanceStatusEnum statusEnum = AttendanceStatusEnum.getEnum(dto.getStatus());
@@ -88,24 +123,12 @@ public class StudentAttendanceService {
 	/**
 	 * 未入力があるかどうかを確認
 	 * 
-	 * @param courseId
 	 * @param lmsUserId
 	 * @return 未入力チェック
 	 */
 	public boolean checkAttendanceBlank(Integer lmsUserId) {
 		//未入力数の確認
-		try {
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
-			Date trainingDate = sdf.parse(sdf.format(new Date()));
-			int checked = tStudentAttendanceMapper.notEnterCount(lmsUserId, Constants.DB_FLG_FALSE, trainingDate);
-			
-			if (checked > 0) {
-				return true;
-			}
-		} catch(ParseException e) {
-			e.getStackTrace();
-		}
-		return false;
+		return attendanceBlankCounter.getCount(lmsUserId) > 0;
 	}
 
 	/**
@@ -125,9 +148,8 @@ public class StudentAttendanceService {
 			return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_NOTWORKDAY);
 		}
 		// 登録情報チェック
-		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
-				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
-						Constants.DB_FLG_FALSE);
+		TStudentAttendance tStudentAttendance = punchBufferService
+				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate);
 		switch (attendanceType) {
 		case Constants.CODE_VAL_ATWORK:
 			if (tStudentAttendance != null
@@ -146,10 +168,9 @@ public class StudentAttendanceService {
 				// 本日の勤怠情報は既に入力されています。直接編集してください。
 				return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_PUNCHALREADYEXISTS);
 			}
-			TrainingTime trainingStartTime = new TrainingTime(
-					tStudentAttendance.getTrainingStartTime());
-			TrainingTime trainingEndTime = new TrainingTime();
-			if (trainingStartTime.compareTo(trainingEndTime) > 0) {
+			int trainingStartTime = TrainingTime.parseMinutes(tStudentAttendance.getTrainingStartTime());
+			int trainingEndTime = TrainingTime.nowMinutes();
+			if (trainingStartTime > trainingEndTime) {
 				// 退勤時刻は出勤時刻より後でなければいけません。
 				return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_TRAININGTIMERANGE);
 			}
@@ -169,20 +190,20 @@ public class StudentAttendanceService {
 		// 本日の研修日
 		Date trainingDate = attendanceUtil.getTrainingDate();
 		// 現在の研修時刻
-		TrainingTime trainingStartTime = new TrainingTime();
+		int trainingStartTime = TrainingTime.nowMinutes();
 		// 遅刻早退ステータス
-		AttendanceStatusEnum attendanceStatusEnum = attendanceUtil.getStatus(trainingStartTime,
-				null);
+		AttendanceStatusEnum attendanceStatusEnum = workScheduleEngine
+				.resolve(loginUserDto.getCompanyId())
+				.getStatus(trainingStartTime, TrainingTime.BLANK_MINUTES);
 		// 研修日の勤怠情報取得
-		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
-				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
-						Constants.DB_FLG_FALSE);
+		TStudentAttendance tStudentAttendance = punchBufferService
+				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate);
 		if (tStudentAttendance == null) {
 			// 登録処理
 			tStudentAttendance = new TStudentAttendance();
 			tStudentAttendance.setLmsUserId(loginUserDto.getLmsUserId());
 			tStudentAttendance.setTrainingDate(trainingDate);
-			tStudentAttendance.setTrainingStartTime(trainingStartTime.toString());
+			tStudentAttendance.setTrainingStartTime(TrainingTime.formatMinutes(trainingStartTime));
 			tStudentAttendance.setTrainingEndTime("");
 			tStudentAttendance.setStatus(attendanceStatusEnum.code);
 			tStudentAttendance.setNote("");
@@ -193,15 +214,23 @@ public class StudentAttendanceService {
 			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
 			tStudentAttendance.setLastModifiedDate(date);
 			tStudentAttendance.setBlankTime(null);
-			tStudentAttendanceMapper.insert(tStudentAttendance);
+			if (!punchBufferService.offer(null, tStudentAttendance)) {
+				tStudentAttendanceMapper.insert(tStudentAttendance);
+				attendanceBlankCounter.update(null, tStudentAttendance);
+				attendanceAnalytics.update(null, tStudentAttendance);
+			}
 		} else {
 			// 更新処理
-			tStudentAttendance.setTrainingStartTime(trainingStartTime.toString());
+			TStudentAttendance before = new TStudentAttendance();
+			BeanUtils.copyProperties(tStudentAttendance, before);
+			tStudentAttendance.setTrainingStartTime(TrainingTime.formatMinutes(trainingStartTime));
 			tStudentAttendance.setStatus(attendanceStatusEnum.code);
 			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
 			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
 			tStudentAttendance.setLastModifiedDate(date);
-			tStudentAttendanceMapper.update(tStudentAttendance);
+			if (!punchBufferService.offer(before, tStudentAttendance)) {
+				updateAttendance(before, tStudentAttendance);
+			}
 		}
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
@@ -218,27 +247,46 @@ public class StudentAttendanceService {
 		// 本日の研修日
 		Date trainingDate = attendanceUtil.getTrainingDate();
 		// 研修日の勤怠情報取得
-		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
-				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
-						Constants.DB_FLG_FALSE);
+		TStudentAttendance tStudentAttendance = punchBufferService
+				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate);
 		// 出退勤時刻
-		TrainingTime trainingStartTime = new TrainingTime(
-				tStudentAttendance.getTrainingStartTime());
-		TrainingTime trainingEndTime = new TrainingTime();
+		int trainingStartTime = TrainingTime.parseMinutes(tStudentAttendance.getTrainingStartTime());
+		int trainingEndTime = TrainingTime.nowMinutes();
 		// 遅刻早退ステータス
-		AttendanceStatusEnum attendanceStatusEnum = attendanceUtil.getStatus(trainingStartTime,
-				trainingEndTime);
+		AttendanceStatusEnum attendanceStatusEnum = workScheduleEngine
+				.resolve(loginUserDto.getCompanyId()).getStatus(trainingStartTime, trainingEndTime);
 		// 更新処理
-		tStudentAttendance.setTrainingEndTime(trainingEndTime.toString());
+		TStudentAttendance before = new TStudentAttendance();
+		BeanUtils.copyProperties(tStudentAttendance, before);
+		tStudentAttendance.setTrainingEndTime(TrainingTime.formatMinutes(trainingEndTime));
 		tStudentAttendance.setStatus(attendanceStatusEnum.code);
 		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
 		tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
 		tStudentAttendance.setLastModifiedDate(date);
-		tStudentAttendanceMapper.update(tStudentAttendance);
+		if (!punchBufferService.offer(before, tStudentAttendance)) {
+			updateAttendance(before, tStudentAttendance);
+		}
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
 	}
 
+	/**
+	 * 打刻の直接反映（更新）<br>
+	 * 未反映の打刻から取得した勤怠情報はIDが未確定のため、その場合は登録する。
+	 * 
+	 * @param before
+	 * @param tStudentAttendance
+	 */
+	private void updateAttendance(TStudentAttendance before, TStudentAttendance tStudentAttendance) {
+		if (tStudentAttendance.getStudentAttendanceId() == null) {
+			tStudentAttendanceMapper.insert(tStudentAttendance);
+		} else {
+			tStudentAttendanceMapper.update(tStudentAttendance);
+		}
+		attendanceBlankCounter.update(before, tStudentAttendance);
+		attendanceAnalytics.update(before, tStudentAttendance);
+	}
+
 	/**
 	 * 勤怠フォームへ設定
 	 * 
@@ -295,81 +343,131 @@ public class StudentAttendanceService {
 	}
 	
 	/**
-	 * 勤怠登録・更新処理
+	 * 勤怠登録・更新処理<br>
+	 * 一括登録・一括更新は1トランザクションで確定する。
 	 * 
 	 * @param attendanceForm
 	 * @return 完了メッセージ
 	 * @throws ParseException
 	 */
+	@Transactional
 	public String update(AttendanceForm attendanceForm) throws ParseException {
 
 		Integer lmsUserId = loginUserUtil.isStudent() ? loginUserDto.getLmsUserId()
 				: attendanceForm.getLmsUserId();
+		// 受講生の所属企業の勤務スケジュール
+		WorkSchedule workSchedule = loginUserUtil.isStudent()
+				? workScheduleEngine.resolve(loginUserDto.getCompanyId())
+				: workScheduleEngine.resolveByLmsUserId(List.of(lmsUserId)).getOrDefault(lmsUserId,
+						WorkSchedule.DEFAULT);
 
-		// 現在の勤怠情報（受講生入力）リストを取得
+		// 未反映の打刻を先に反映（二重登録防止）
+		punchBufferService.flush();
+
+		// 現在の勤怠情報（受講生入力）リストを取得し、研修日をキーにしたマップへ格納
 		List<TStudentAttendance> tStudentAttendanceList = tStudentAttendanceMapper
 				.findByLmsUserId(lmsUserId, Constants.DB_FLG_FALSE);
+		Map<Date, TStudentAttendance> tStudentAttendanceMap = new HashMap<>();
+		for (TStudentAttendance entity : tStudentAttendanceList) {
+			tStudentAttendanceMap.put(entity.getTrainingDate(), entity);
+		}
 
 		// 入力された情報を更新用のエンティティに移し替え
 		Date date = new Date();
+		List<TStudentAttendance> insertList = new ArrayList<>();
+		List<TStudentAttendance> updateList = new ArrayList<>();
+		Map<TStudentAttendance, TStudentAttendance> beforeMap = new IdentityHashMap<>();
 		for (DailyAttendanceForm dailyAttendanceForm : attendanceForm.getAttendanceList()) {
 
-			// 更新用エンティティ作成
-			TStudentAttendance tStudentAttendance = new TStudentAttendance();
-			// 日次勤怠フォームから更新用のエンティティにコピー
-			BeanUtils.copyProperties(dailyAttendanceForm, tStudentAttendance);
 			// 研修日付
-			tStudentAttendance
-					.setTrainingDate(dateUtil.parse(dailyAttendanceForm.getTrainingDate()));
-			// 現在の勤怠情報リストのうち、研修日が同じものを更新用エンティティで上書き
-			for (TStudentAttendance entity : tStudentAttendanceList) {
-				if (entity.getTrainingDate().equals(tStudentAttendance.getTrainingDate())) {
-					tStudentAttendance = entity;
-					break;
-				}
+			Date trainingDate = dateUtil.parse(dailyAttendanceForm.getTrainingDate());
+			// 現在の勤怠情報リストのうち、研修日が同じものを更新用エンティティとする
+			TStudentAttendance tStudentAttendance = tStudentAttendanceMap.get(trainingDate);
+			TStudentAttendance before = null;
+			if (tStudentAttendance == null) {
+				// 更新用エンティティ作成
+				tStudentAttendance = new TStudentAttendance();
+				// 日次勤怠フォームから更新用のエンティティにコピー
+				BeanUtils.copyProperties(dailyAttendanceForm, tStudentAttendance);
+				tStudentAttendance.setTrainingDate(trainingDate);
+			} else {
+				// 変更有無の判定用に更新前の状態を退避
+				before = new TStudentAttendance();
+				BeanUtils.copyProperties(tStudentAttendance, before);
 			}
 			tStudentAttendance.setLmsUserId(lmsUserId);
 			tStudentAttendance.setAccountId(loginUserDto.getAccountId());
 			// 出勤時刻整形
-			TrainingTime trainingStartTime = null;
-			trainingStartTime = new TrainingTime(dailyAttendanceForm.getTrainingStartTime());
-			tStudentAttendance.setTrainingStartTime(trainingStartTime.getFormattedString());
+			int trainingStartTime = TrainingTime.parseMinutes(dailyAttendanceForm.getTrainingStartTime());
+			tStudentAttendance.setTrainingStartTime(TrainingTime.formatMinutes(trainingStartTime));
 			// 退勤時刻整形
-			TrainingTime trainingEndTime = null;
-			trainingEndTime = new TrainingTime(dailyAttendanceForm.getTrainingEndTime());
-			tStudentAttendance.setTrainingEndTime(trainingEndTime.getFormattedString());
+			int trainingEndTime = TrainingTime.parseMinutes(dailyAttendanceForm.getTrainingEndTime());
+			tStudentAttendance.setTrainingEndTime(TrainingTime.formatMinutes(trainingEndTime));
 			// 中抜け時間
 			tStudentAttendance.setBlankTime(dailyAttendanceForm.getBlankTime());
 			// 遅刻早退ステータス
-			if ((trainingStartTime != null || trainingEndTime != null)
-					&& !dailyAttendanceForm.getStatusDispName().equals("欠席")) {
-				AttendanceStatusEnum attendanceStatusEnum = attendanceUtil
+			if (!dailyAttendanceForm.getStatusDispName().equals("欠席")) {
+				AttendanceStatusEnum attendanceStatusEnum = workSchedule
 						.getStatus(trainingStartTime, trainingEndTime);
 				tStudentAttendance.setStatus(attendanceStatusEnum.code);
 			}
 			// 備考
 			tStudentAttendance.setNote(dailyAttendanceForm.getNote());
+			// 変更のない既存の勤怠情報は更新対象外
+			if (before != null && !isModified(before, tStudentAttendance)) {
+				continue;
+			}
 			// 更新者と更新日時
 			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
 			tStudentAttendance.setLastModifiedDate(date);
 			// 削除フラグ
 			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
-			// 登録用Listへ追加
-			tStudentAttendanceList.add(tStudentAttendance);
-		}
-		// 登録・更新処理
-		for (TStudentAttendance tStudentAttendance : tStudentAttendanceList) {
+			// 登録用・更新用Listへ追加
 			if (tStudentAttendance.getStudentAttendanceId() == null) {
 				tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
 				tStudentAttendance.setFirstCreateDate(date);
-				tStudentAttendanceMapper.insert(tStudentAttendance);
+				insertList.add(tStudentAttendance);
 			} else {
-				tStudentAttendanceMapper.update(tStudentAttendance);
+				updateList.add(tStudentAttendance);
+				beforeMap.put(tStudentAttendance, before);
 			}
 		}
+		// 登録・更新処理（一括）
+		if (!insertList.isEmpty()) {
+			tStudentAttendanceMapper.insertBatch(insertList);
+		}
+		if (!updateList.isEmpty()) {
+			tStudentAttendanceMapper.updateBatch(updateList);
+		}
+		// 未入力件数へ反映（確定後）
+		afterCommit(() -> {
+			for (TStudentAttendance tStudentAttendance : insertList) {
+				attendanceBlankCounter.update(null, tStudentAttendance);
+				attendanceAnalytics.update(null, tStudentAttendance);
+			}
+			for (TStudentAttendance tStudentAttendance : updateList) {
+				attendanceBlankCounter.update(beforeMap.get(tStudentAttendance), tStudentAttendance);
+				attendanceAnalytics.update(beforeMap.get(tStudentAttendance), tStudentAttendance);
+			}
+		});
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
 	}
+
+	/**
+	 * 勤怠情報の変更有無を判定
+	 * 
+	 * @param before 更新前の勤怠情報
+	 * @param after  更新後の勤怠情報
+	 * @return 更新対象の項目に変更がある場合true
+	 */
+	private boolean isModified(TStudentAttendance before, TStudentAttendance after) {
+		return !Objects.equals(before.getTrainingStartTime(), after.getTrainingStartTime())
+				|| !Objects.equals(before.getTrainingEndTime(), after.getTrainingEndTime())
+				|| !Objects.equals(before.getStatus(), after.getStatus())
+				|| !Objects.equals(before.getNote(), after.getNote())
+				|| !Objects.equals(before.getBlankTime(), after.getBlankTime());
+	}
 	
 	/**
 	 * 講義時間を時間と分に分割
@@ -523,12 +621,9 @@ public class StudentAttendanceService {
 					}
 				}
 				//中抜け時間が勤務時間よりも長い場合
-				TrainingTime trainingTime = new TrainingTime();
-				trainingTime.setTrainingStartTime(form.getTrainingStartTime());
-				trainingTime.setTrainingEndTime(form.getTrainingEndTime());
-				
-				trainingTime = attendanceUtil.calcJukoTime(trainingTime);
-				if (form.getBlankTime() != null && trainingTime.getTrainingTime() < form.getBlankTime()) {
+				Integer trainingTime = attendanceUtil.calcJukoTime(form.getTrainingStartTime(),
+						form.getTrainingEndTime());
+				if (form.getBlankTime() != null && trainingTime < form.getBlankTime()) {
 					String error = messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_BLANKTIMEERROR);
 					FieldError fieldError = new FieldError(result.getObjectName(), "attendanceList[" + i + "].blankTime", error);
 					result.addError(fieldError);
@@ -553,8 +648,7 @@ public class StudentAttendanceService {
 		for (DailyAttendanceForm form : forms.getAttendanceList()) {
 			// 中抜け時間を設定
 			if (form.getBlankTime() != null) {
-				TrainingTime blankTime = attendanceUtil.calcBlankTime(form.getBlankTime());
-				form.setBlankTimeValue(String.valueOf(blankTime));
+				form.setBlankTimeValue(TrainingTime.formatMinutes(form.getBlankTime()));
 			}
 			newForm.add(form);
 		}
@@ -566,18 +660,284 @@ public class StudentAttendanceService {
 	}
 	
 	/**
-	 * 勤怠リストを検索
+	 * 勤怠情報確認画面の検索（1ページ分）<br>
+	 * 次ページがある場合、フォームの次ページ開始位置に最後のユーザーIDを設定する。
+	 * 
 	 * @param form
-	 * @return 勤怠リスト
+	 * @return 勤怠情報確認リスト
 	 */
 	public List<AttendanceCheck> getAttendanceData(AttendanceCheckForm form) {
-		List<AttendanceCheck> check = tStudentAttendanceMapper.findForAttendanceCheck(form.getUserName(), 
-				form.getCourseId(), form.getCompanyId(), form.getPlaceId(), 
-				Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE);
-			
+		form.setNextUserId(null);
+		// ユーザー名は索引で対象ユーザーIDに絞り込む（件数によらず1つの配列パラメータで渡す）
+		Integer[] userIdArray = null;
+		int[] userIds = userNameIndex.search(form.getUserName());
+		if (userIds != null) {
+			// 索引の結果はユーザーIDの昇順のため、前ページ以前の分を除いて渡す
+			int from = 0;
+			if (form.getLastUserId() != null) {
+				from = Arrays.binarySearch(userIds, form.getLastUserId() + 1);
+				if (from < 0) {
+					from = -from - 1;
+				}
+			}
+			if (from >= userIds.length) {
+				return new ArrayList<>();
+			}
+			userIdArray = new Integer[userIds.length - from];
+			for (int i = from; i < userIds.length; i++) {
+				userIdArray[i - from] = userIds[i];
+			}
+		}
+		// 次ページ有無の判定用に1件多く取得
+		List<AttendanceCheck> check = tStudentAttendanceMapper.findForAttendanceCheck(userIdArray,
+				form.getCourseId(), form.getCompanyId(), form.getPlaceId(), form.getLastUserId(),
+				pageSize + 1, Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE);
+		if (check.size() > pageSize) {
+			// 同じユーザーの行がページを跨がないよう、次ページ先頭と同じユーザーの行は次ページへ回す
+			Integer nextUserId = check.get(pageSize).getUserId();
+			int end = pageSize;
+			while (end > 0 && check.get(end - 1).getUserId().equals(nextUserId)) {
+				end--;
+			}
+			if (end == 0) {
+				end = pageSize;
+			}
+			check = new ArrayList<>(check.subList(0, end));
+			form.setNextUserId(check.get(end - 1).getUserId());
+		}
 		return check;
 	}
 	
+	/**
+	 * 勤怠一括登録の入力チェック
+	 * 
+	 * @param form
+	 * @param result
+	 * @return チェック結果
+	 */
+	public BindingResult bulkRegistCheck(AttendanceBulkRegistForm form, BindingResult result) {
+		// 研修日
+		if (form.getTrainingDate() == null || form.getTrainingDate().isEmpty()) {
+			String error = messageUtil.getMessage(Constants.VALID_KEY_REQUIRED,
+					new String[] { "研修日" });
+			result.addError(new FieldError(result.getObjectName(), "trainingDate", error));
+		} else {
+			try {
+				dateUtil.parse(form.getTrainingDate(), "yyyy-MM-dd");
+			} catch (ParseException e) {
+				String error = messageUtil.getMessage(Constants.INPUT_INVALID,
+						new String[] { "研修日" });
+				result.addError(new FieldError(result.getObjectName(), "trainingDate", error));
+			}
+		}
+		// 備考
+		if (form.getNote() != null && form.getNote().length() > 100) {
+			String[] str = { messageSource.getMessage("placeNote", new String[] {}, Locale.getDefault()), "100" };
+			String error = messageUtil.getMessage(Constants.VALID_KEY_MAXLENGTH, str);
+			result.addError(new FieldError(result.getObjectName(), "note", error));
+		}
+		// 欠席の場合は時刻を使用しない
+		if (Boolean.TRUE.equals(form.getAbsentFlg())) {
+			return result;
+		}
+		String dispDate = form.getTrainingDate() == null ? "" : form.getTrainingDate();
+		int trainingStartTime = toMinutes(form.getTrainingStartTimeHour(),
+				form.getTrainingStartTimeMinute());
+		int trainingEndTime = toMinutes(form.getTrainingEndTimeHour(),
+				form.getTrainingEndTimeMinute());
+		if (trainingStartTime == TrainingTime.BLANK_MINUTES
+				|| trainingEndTime == TrainingTime.BLANK_MINUTES) {
+			// 出席の場合は出勤・退勤時刻が必須
+			String error = messageUtil.getMessage(Constants.VALID_KEY_REQUIREDTRAININGTIMEBULK,
+					new String[] { dispDate });
+			result.addError(new FieldError(result.getObjectName(), "trainingStartTimeHour", error));
+		} else if (trainingStartTime > trainingEndTime) {
+			String error = messageUtil.getMessage(
+					Constants.VALID_KEY_ATTENDANCE_TRAININGTIMERANGEBULK, new String[] { dispDate });
+			result.addError(new FieldError(result.getObjectName(), "trainingStartTimeHour", error));
+		} else if (form.getBlankTime() != null
+				&& trainingEndTime - trainingStartTime < form.getBlankTime()) {
+			String error = messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_BLANKTIMEERROR);
+			result.addError(new FieldError(result.getObjectName(), "blankTime", error));
+		}
+		return result;
+	}
+
+	/**
+	 * 勤怠一括登録<br>
+	 * 会場の全受講生へ同じ出退勤時刻・中抜け時間・ステータスを1トランザクションで登録・更新する。
+	 * 
+	 * @param placeId
+	 * @param form    入力チェック済みのフォーム
+	 * @return 完了メッセージ
+	 * @throws ParseException
+	 */
+	@Transactional
+	public String bulkRegist(Integer placeId, AttendanceBulkRegistForm form)
+			throws ParseException {
+
+		// 未反映の打刻を先に反映（二重登録防止）
+		punchBufferService.flush();
+
+		Date trainingDate = dateUtil.parse(form.getTrainingDate(), "yyyy-MM-dd");
+		// 全受講生で共通の値は1度だけ算出する（ステータスは勤務スケジュール毎に算出する）
+		boolean absent = Boolean.TRUE.equals(form.getAbsentFlg());
+		String trainingStartTime = "";
+		String trainingEndTime = "";
+		Integer blankTime = null;
+		int startMinutes = TrainingTime.BLANK_MINUTES;
+		int endMinutes = TrainingTime.BLANK_MINUTES;
+		if (!absent) {
+			startMinutes = toMinutes(form.getTrainingStartTimeHour(),
+					form.getTrainingStartTimeMinute());
+			endMinutes = toMinutes(form.getTrainingEndTimeHour(), form.getTrainingEndTimeMinute());
+			trainingStartTime = TrainingTime.formatMinutes(startMinutes);
+			trainingEndTime = TrainingTime.formatMinutes(endMinutes);
+			blankTime = form.getBlankTime();
+		}
+		String note = form.getNote() == null || form.getNote().isEmpty() ? null : form.getNote();
+
+		Date date = new Date();
+		List<TStudentAttendance> targetList = tStudentAttendanceMapper.findForBulkRegist(placeId,
+				trainingDate, Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE);
+		Map<Integer, WorkSchedule> workScheduleMap = Map.of();
+		if (!absent) {
+			List<Integer> lmsUserIdList = new ArrayList<>();
+			for (TStudentAttendance tStudentAttendance : targetList) {
+				lmsUserIdList.add(tStudentAttendance.getLmsUserId());
+			}
+			workScheduleMap = workScheduleEngine.resolveByLmsUserId(lmsUserIdList);
+		}
+		Map<WorkSchedule, Short> statusMap = new IdentityHashMap<>();
+		List<TStudentAttendance> beforeList = new ArrayList<>();
+		List<TStudentAttendance> insertList = new ArrayList<>();
+		List<TStudentAttendance> updateList = new ArrayList<>();
+		for (TStudentAttendance tStudentAttendance : targetList) {
+			Short status = AttendanceStatusEnum.ABSENT.code;
+			if (!absent) {
+				WorkSchedule workSchedule = workScheduleMap
+						.getOrDefault(tStudentAttendance.getLmsUserId(), WorkSchedule.DEFAULT);
+				status = statusMap.get(workSchedule);
+				if (status == null) {
+					status = workSchedule.getStatus(startMinutes, endMinutes).code;
+					statusMap.put(workSchedule, status);
+				}
+			}
+			TStudentAttendance before = null;
+			if (tStudentAttendance.getStudentAttendanceId() == null) {
+				tStudentAttendance.setTrainingDate(trainingDate);
+				tStudentAttendance.setNote("");
+				tStudentAttendance.setAccountId(loginUserDto.getAccountId());
+				tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+				tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
+				tStudentAttendance.setFirstCreateDate(date);
+				insertList.add(tStudentAttendance);
+			} else {
+				before = new TStudentAttendance();
+				BeanUtils.copyProperties(tStudentAttendance, before);
+				updateList.add(tStudentAttendance);
+			}
+			beforeList.add(before);
+			tStudentAttendance.setTrainingStartTime(trainingStartTime);
+			tStudentAttendance.setTrainingEndTime(trainingEndTime);
+			tStudentAttendance.setBlankTime(blankTime);
+			tStudentAttendance.setStatus(status);
+			if (note != null) {
+				tStudentAttendance.setNote(note);
+			}
+			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
+			tStudentAttendance.setLastModifiedDate(date);
+		}
+		// 登録・更新処理（一括）
+		if (!insertList.isEmpty()) {
+			tStudentAttendanceMapper.insertBatch(insertList);
+		}
+		if (!updateList.isEmpty()) {
+			tStudentAttendanceMapper.updateBatch(updateList);
+		}
+		// 未入力件数へ反映（確定後）
+		afterCommit(() -> {
+			for (int i = 0; i < targetList.size(); i++) {
+				attendanceBlankCounter.update(beforeList.get(i), targetList.get(i));
+				attendanceAnalytics.update(beforeList.get(i), targetList.get(i));
+			}
+		});
+		// 完了メッセージ
+		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
+	}
+
+	/**
+	 * コースの勤怠ステータス再計算<br>
+	 * 企業マスタの定時変更後に、登録済の勤怠情報（欠席を除く）の遅刻早退を判定し直す。
+	 * 
+	 * @param courseId
+	 * @return 完了メッセージ
+	 */
+	@Transactional
+	public String recalcStatus(Integer courseId) {
+
+		// 未反映の打刻を先に反映
+		punchBufferService.flush();
+		// 変更後の定時で判定するため、企業マスタを読み込み直す
+		masterDataCache.invalidateCompany();
+
+		List<AttendanceRecalcDto> changedList = workScheduleEngine
+				.recalc(tStudentAttendanceMapper.findForRecalc(courseId, Constants.DB_FLG_FALSE));
+		Date date = new Date();
+		for (AttendanceRecalcDto dto : changedList) {
+			dto.setLastModifiedUser(loginUserDto.getLmsUserId());
+			dto.setLastModifiedDate(date);
+		}
+		// 一括更新（1文あたりの件数を制限する）
+		for (int from = 0; from < changedList.size(); from += RECALC_BATCH_SIZE) {
+			tStudentAttendanceMapper.updateStatusBatch(changedList.subList(from,
+					Math.min(from + RECALC_BATCH_SIZE, changedList.size())));
+		}
+		// 受講時間数は定時の変更で変わるため、ステータスの変更有無によらず集計し直す（欠席以外の変更は未入力件数に影響しない）
+		// 確定前に破棄すると再計算前の内容で集計し直される場合があるため、確定後に破棄する
+		afterCommit(() -> attendanceAnalytics.invalidate(courseId));
+		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_NOTICE,
+				new String[] { String.valueOf(changedList.size()) });
+	}
+
+	/**
+	 * トランザクションの確定後に処理を実行（トランザクション外の場合は即時実行）<br>
+	 * サーバー毎に保持する集計は、確定前に更新するとロールバック時に不整合となり、
+	 * 確定前の内容を他のリクエストが読み込んで保持する場合があるため、確定後に更新する。
+	 * 
+	 * @param action
+	 */
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	/**
+	 * 時・分の文字列を0:00からの分数に変換
+	 * 
+	 * @param hour
+	 * @param minute
+	 * @return 分数（未入力・不正な場合はTrainingTime.BLANK_MINUTES）
+	 */
+	private int toMinutes(String hour, String minute) {
+		if (hour == null || hour.isEmpty() || minute == null || minute.isEmpty()) {
+			return TrainingTime.BLANK_MINUTES;
+		}
+		try {
+			return TrainingTime.parseMinutes(hour + ":" + minute);
+		} catch (IllegalArgumentException e) {
+			return TrainingTime.BLANK_MINUTES;
+		}
+	}
+
 	/**
 	 * 会場の名前を設定
 	 * @return 会場(教室名)
@@ -0,0 +1,590 @@
+package jp.co.sss.lms.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jp.co.sss.lms.dto.AttendanceAnalyticsDto;
+import jp.co.sss.lms.dto.AttendanceDailyAnalyticsDto;
+import jp.co.sss.lms.dto.CourseAttendanceDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 勤怠集計クラス<br>
+ * コースの勤怠情報を1度だけ読み込み、受講生毎・日毎の件数を受講生単位で分割して並列に集計する。<br>
+ * 集計結果は項目毎の配列で保持し、勤怠情報の登録・更新時に差分を反映する。
+ * 日付が変わった場合は再集計し、有効期限を過ぎた場合は保持中の結果を返却しつつ裏で再集計する。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class AttendanceAnalytics {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** 1タスクで集計する受講生数 */
+	private static final int THRESHOLD = 64;
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private WorkScheduleEngine workScheduleEngine;
+
+	@Value("${setting.analytics.attendance.minute}")
+	private Integer expireMinute;
+	@Value("${setting.analytics.attendance.parallelism}")
+	private Integer parallelism;
+
+	/** コースID毎の集計結果 */
+	private final Map<Integer, Snapshot> snapshotMap = new ConcurrentHashMap<>();
+	/** コースID毎の集計用ロック */
+	private final Map<Integer, Object> lockMap = new ConcurrentHashMap<>();
+	/** 再集計中のコースID */
+	private final Set<Integer> refreshingSet = ConcurrentHashMap.newKeySet();
+	/** 更新回数（集計中に更新があった場合、集計結果を期限切れとする） */
+	private final AtomicLong modifyCount = new AtomicLong();
+	/** 集計用スレッドプール */
+	private ForkJoinPool forkJoinPool;
+	/** 再集計用スレッド */
+	private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "attendance-analytics-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * 初期処理
+	 */
+	@PostConstruct
+	public void init() {
+		forkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism
+				: Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 受講生毎の集計結果を取得
+	 *
+	 * @param courseId
+	 * @param companyId 企業ID（指定した場合はその企業の受講生のみ）
+	 * @return 勤怠集計DTOリスト（LMSユーザーID順）
+	 */
+	public List<AttendanceAnalyticsDto> getStudentList(Integer courseId, Integer companyId) {
+		Snapshot snapshot = getSnapshot(courseId);
+		List<AttendanceAnalyticsDto> list = new ArrayList<>();
+		synchronized (snapshot) {
+			Columns users = snapshot.users;
+			for (int i = 0; i < snapshot.lmsUserIds.length; i++) {
+				if (companyId != null && snapshot.companyIds[i] != companyId) {
+					continue;
+				}
+				AttendanceAnalyticsDto dto = new AttendanceAnalyticsDto();
+				dto.setLmsUserId(snapshot.lmsUserIds[i]);
+				dto.setUserName(snapshot.userNames[i]);
+				dto.setAttendanceCount(users.attendance[i]);
+				dto.setTardyCount(users.tardy[i]);
+				dto.setLeavingEarlyCount(users.leavingEarly[i]);
+				dto.setAbsentCount(users.absent[i]);
+				dto.setBlankCount(users.blank[i]);
+				dto.setTrainingTime(String.format("%d:%02d", users.netMinutes[i] / 60,
+						users.netMinutes[i] % 60));
+				dto.setTardyRate(rate(users.tardy[i], users.attendance[i]));
+				dto.setLeavingEarlyRate(rate(users.leavingEarly[i], users.attendance[i]));
+				dto.setAbsentRate(rate(users.absent[i], users.attendance[i] + users.absent[i]));
+				list.add(dto);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 日毎の集計結果を取得
+	 *
+	 * @param courseId
+	 * @return 勤怠集計DTOリスト（日付順）
+	 */
+	public List<AttendanceDailyAnalyticsDto> getDailyList(Integer courseId) {
+		Snapshot snapshot = getSnapshot(courseId);
+		List<AttendanceDailyAnalyticsDto> list = new ArrayList<>();
+		synchronized (snapshot) {
+			Columns days = snapshot.days;
+			for (int i = 0; i < snapshot.epochDays.length; i++) {
+				AttendanceDailyAnalyticsDto dto = new AttendanceDailyAnalyticsDto();
+				dto.setTrainingDate(toDate(snapshot.epochDays[i]));
+				dto.setAttendanceCount(days.attendance[i]);
+				dto.setTardyCount(days.tardy[i]);
+				dto.setLeavingEarlyCount(days.leavingEarly[i]);
+				dto.setAbsentCount(days.absent[i]);
+				dto.setBlankCount(days.blank[i]);
+				list.add(dto);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 勤怠情報の登録・更新を反映<br>
+	 * 登録・更新の完了後に呼び出す。
+	 *
+	 * @param before 更新前の勤怠情報（登録の場合null）
+	 * @param after  更新後の勤怠情報
+	 */
+	public void update(TStudentAttendance before, TStudentAttendance after) {
+		modifyCount.incrementAndGet();
+		long today = today();
+		for (Snapshot snapshot : snapshotMap.values()) {
+			synchronized (snapshot) {
+				int userIndex = Arrays.binarySearch(snapshot.lmsUserIds, after.getLmsUserId());
+				if (userIndex < 0 || snapshot.epochDay != today) {
+					continue;
+				}
+				WorkSchedule schedule = workScheduleEngine.resolve(
+						snapshot.companyIds[userIndex] < 0 ? null : snapshot.companyIds[userIndex]);
+				if (before != null && Constants.DB_FLG_FALSE == nvl(before.getDeleteFlg())) {
+					int dayIndex = Arrays.binarySearch(snapshot.epochDays,
+							toEpochDay(before.getTrainingDate()));
+					if (dayIndex < 0) {
+						// 集計に含まれていない勤怠情報のため、再集計に任せる
+						snapshot.buildTime = 0;
+						continue;
+					}
+					apply(snapshot.users, userIndex, snapshot.days, dayIndex,
+							before.getStatus(), before.getTrainingStartTime(),
+							before.getTrainingEndTime(), before.getBlankTime(),
+							snapshot.epochDays[dayIndex] < today, schedule, -1);
+				}
+				if (Constants.DB_FLG_FALSE == nvl(after.getDeleteFlg())) {
+					long epochDay = toEpochDay(after.getTrainingDate());
+					int dayIndex = Arrays.binarySearch(snapshot.epochDays, epochDay);
+					if (dayIndex < 0) {
+						dayIndex = -dayIndex - 1;
+						snapshot.epochDays = insert(snapshot.epochDays, dayIndex, epochDay);
+						snapshot.days = snapshot.days.insert(dayIndex);
+					}
+					apply(snapshot.users, userIndex, snapshot.days, dayIndex,
+							after.getStatus(), after.getTrainingStartTime(),
+							after.getTrainingEndTime(), after.getBlankTime(), epochDay < today,
+							schedule, 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * コースの集計結果を破棄
+	 *
+	 * @param courseId
+	 */
+	public void invalidate(Integer courseId) {
+		modifyCount.incrementAndGet();
+		snapshotMap.remove(courseId);
+	}
+
+	/**
+	 * 終了処理
+	 */
+	@PreDestroy
+	public void destroy() {
+		refreshExecutor.shutdownNow();
+		if (forkJoinPool != null) {
+			forkJoinPool.shutdownNow();
+		}
+	}
+
+	/**
+	 * 集計結果を取得（未集計・日付が変わった場合は集計する）
+	 *
+	 * @param courseId
+	 * @return 集計結果
+	 */
+	private Snapshot getSnapshot(Integer courseId) {
+		long today = today();
+		Snapshot snapshot = snapshotMap.get(courseId);
+		if (snapshot == null || snapshot.epochDay != today) {
+			synchronized (lockMap.computeIfAbsent(courseId, key -> new Object())) {
+				snapshot = snapshotMap.get(courseId);
+				if (snapshot == null || snapshot.epochDay != today) {
+					snapshot = build(courseId);
+				}
+			}
+			return snapshot;
+		}
+		if (snapshot.buildTime + expireMinute * 60L * 1000L < System.currentTimeMillis()
+				&& refreshingSet.add(courseId)) {
+			try {
+				refreshExecutor.execute(() -> {
+					try {
+						synchronized (lockMap.computeIfAbsent(courseId, key -> new Object())) {
+							build(courseId);
+						}
+					} catch (RuntimeException e) {
+						logger.warn("勤怠集計の再集計に失敗しました。コースID：" + courseId, e);
+					} finally {
+						refreshingSet.remove(courseId);
+					}
+				});
+			} catch (RuntimeException e) {
+				refreshingSet.remove(courseId);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * コースの勤怠情報を集計
+	 *
+	 * @param courseId
+	 * @return 集計結果
+	 */
+	private Snapshot build(Integer courseId) {
+		long modified = modifyCount.get();
+		long today = today();
+		List<CourseAttendanceDto> rows = tStudentAttendanceMapper.findForAnalytics(courseId,
+				Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE);
+
+		// 受講生の区切りと日付の一覧を作成
+		List<Integer> offsetList = new ArrayList<>();
+		TreeSet<Long> daySet = new TreeSet<>();
+		Integer lastLmsUserId = null;
+		for (int i = 0; i < rows.size(); i++) {
+			CourseAttendanceDto row = rows.get(i);
+			if (!row.getLmsUserId().equals(lastLmsUserId)) {
+				offsetList.add(i);
+				lastLmsUserId = row.getLmsUserId();
+			}
+			if (row.getTrainingDate() != null) {
+				daySet.add(toEpochDay(row.getTrainingDate()));
+			}
+		}
+		int userSize = offsetList.size();
+		int[] offsets = new int[userSize + 1];
+		int[] lmsUserIds = new int[userSize];
+		String[] userNames = new String[userSize];
+		int[] companyIds = new int[userSize];
+		for (int i = 0; i < userSize; i++) {
+			CourseAttendanceDto row = rows.get(offsetList.get(i));
+			offsets[i] = offsetList.get(i);
+			lmsUserIds[i] = row.getLmsUserId();
+			userNames[i] = row.getUserName();
+			companyIds[i] = row.getCompanyId() == null ? -1 : row.getCompanyId();
+		}
+		offsets[userSize] = rows.size();
+		long[] epochDays = new long[daySet.size()];
+		int index = 0;
+		for (Long epochDay : daySet) {
+			epochDays[index++] = epochDay;
+		}
+
+		// 受講生単位で分割して並列に集計
+		Columns users = new Columns(userSize);
+		Columns days = forkJoinPool.invoke(new AggregateTask(rows, offsets, companyIds,
+				epochDays, today, users, 0, userSize));
+
+		Snapshot snapshot = new Snapshot(today, System.currentTimeMillis(), lmsUserIds, userNames,
+				companyIds, users, epochDays, days);
+		if (modifyCount.get() != modified) {
+			// 集計中に更新があった場合は次回取得時に再集計する
+			snapshot.buildTime = 0;
+		}
+		snapshotMap.put(courseId, snapshot);
+		logger.debug("勤怠を集計しました。コースID：" + courseId + "、受講生：" + userSize + "人、勤怠："
+				+ rows.size() + "件");
+		return snapshot;
+	}
+
+	/**
+	 * 勤怠情報1件を受講生毎・日毎の件数に加減算
+	 *
+	 * @param users             受講生毎の件数
+	 * @param userIndex
+	 * @param days              日毎の件数
+	 * @param dayIndex
+	 * @param status
+	 * @param trainingStartTime
+	 * @param trainingEndTime
+	 * @param blankTime
+	 * @param past              過去日の場合true
+	 * @param schedule          勤務スケジュール
+	 * @param sign              加算の場合1、減算の場合-1
+	 */
+	private static void apply(Columns users, int userIndex, Columns days, int dayIndex,
+			Short status, String trainingStartTime, String trainingEndTime, Integer blankTime,
+			boolean past, WorkSchedule schedule, int sign) {
+		if (status == null) {
+			return;
+		}
+		if (AttendanceStatusEnum.ABSENT.code.equals(status)) {
+			users.absent[userIndex] += sign;
+			days.absent[dayIndex] += sign;
+			return;
+		}
+		int startMinutes = TrainingTime.parseMinutesOrBlank(trainingStartTime);
+		int endMinutes = TrainingTime.parseMinutesOrBlank(trainingEndTime);
+		if (startMinutes >= 0) {
+			users.attendance[userIndex] += sign;
+			days.attendance[dayIndex] += sign;
+		}
+		if (AttendanceStatusEnum.TARDY.code.equals(status)
+				|| AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY.code.equals(status)) {
+			users.tardy[userIndex] += sign;
+			days.tardy[dayIndex] += sign;
+		}
+		if (AttendanceStatusEnum.LEAVING_EARLY.code.equals(status)
+				|| AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY.code.equals(status)) {
+			users.leavingEarly[userIndex] += sign;
+			days.leavingEarly[dayIndex] += sign;
+		}
+		// 過去日の未入力（TStudentAttendanceMapper#notEnterCountと同条件）
+		if (past && (startMinutes < 0 || endMinutes < 0)) {
+			users.blank[userIndex] += sign;
+			days.blank[dayIndex] += sign;
+		}
+		int netMinutes = schedule.getNetMinutes(startMinutes, endMinutes, blankTime);
+		if (netMinutes > 0) {
+			users.netMinutes[userIndex] += sign * netMinutes;
+			days.netMinutes[dayIndex] += sign * netMinutes;
+		}
+	}
+
+	/**
+	 * 割合（％）を算出
+	 *
+	 * @param count
+	 * @param total
+	 * @return 割合（母数が0の場合0）
+	 */
+	private double rate(int count, int total) {
+		return total <= 0 ? 0 : Math.round(count * 1000.0 / total) / 10.0;
+	}
+
+	private short nvl(Short deleteFlg) {
+		return deleteFlg == null ? Constants.DB_FLG_FALSE : deleteFlg;
+	}
+
+	private static long[] insert(long[] array, int index, long value) {
+		long[] inserted = new long[array.length + 1];
+		System.arraycopy(array, 0, inserted, 0, index);
+		inserted[index] = value;
+		System.arraycopy(array, index, inserted, index + 1, array.length - index);
+		return inserted;
+	}
+
+	/**
+	 * 本日のエポック日を取得
+	 *
+	 * @return エポック日
+	 */
+	private long today() {
+		return LocalDate.now().toEpochDay();
+	}
+
+	/**
+	 * 日付をエポック日に変換
+	 *
+	 * @param date
+	 * @return エポック日
+	 */
+	private static long toEpochDay(Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate()
+				.toEpochDay();
+	}
+
+	/**
+	 * エポック日を日付に変換
+	 *
+	 * @param epochDay
+	 * @return 日付
+	 */
+	private Date toDate(long epochDay) {
+		return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault())
+				.toInstant());
+	}
+
+	/**
+	 * 集計タスク<br>
+	 * 受講生毎の件数は担当範囲の添字に直接書き込み、日毎の件数はタスク毎に集計して合算する。
+	 */
+	private class AggregateTask extends RecursiveTask<Columns> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<CourseAttendanceDto> rows;
+		private final int[] offsets;
+		private final int[] companyIds;
+		private final long[] epochDays;
+		private final long today;
+		private final Columns users;
+		private final int from;
+		private final int to;
+
+		private AggregateTask(List<CourseAttendanceDto> rows, int[] offsets, int[] companyIds,
+				long[] epochDays, long today, Columns users, int from, int to) {
+			this.rows = rows;
+			this.offsets = offsets;
+			this.companyIds = companyIds;
+			this.epochDays = epochDays;
+			this.today = today;
+			this.users = users;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Columns compute() {
+			if (to - from <= THRESHOLD) {
+				Columns days = new Columns(epochDays.length);
+				for (int userIndex = from; userIndex < to; userIndex++) {
+					WorkSchedule schedule = workScheduleEngine
+							.resolve(companyIds[userIndex] < 0 ? null : companyIds[userIndex]);
+					for (int i = offsets[userIndex]; i < offsets[userIndex + 1]; i++) {
+						CourseAttendanceDto row = rows.get(i);
+						if (row.getTrainingDate() == null) {
+							continue;
+						}
+						long epochDay = toEpochDay(row.getTrainingDate());
+						apply(users, userIndex, days, Arrays.binarySearch(epochDays, epochDay),
+								row.getStatus(), row.getTrainingStartTime(),
+								row.getTrainingEndTime(), row.getBlankTime(), epochDay < today,
+								schedule, 1);
+					}
+				}
+				return days;
+			}
+			int middle = (from + to) >>> 1;
+			AggregateTask left = new AggregateTask(rows, offsets, companyIds, epochDays, today,
+					users, from, middle);
+			left.fork();
+			Columns days = new AggregateTask(rows, offsets, companyIds, epochDays, today, users,
+					middle, to).compute();
+			days.addAll(left.join());
+			return days;
+		}
+	}
+
+	/**
+	 * 項目毎の件数
+	 */
+	private static class Columns {
+
+		/** 出席 */
+		private final int[] attendance;
+		/** 遅刻 */
+		private final int[] tardy;
+		/** 早退 */
+		private final int[] leavingEarly;
+		/** 欠席 */
+		private final int[] absent;
+		/** 未入力 */
+		private final int[] blank;
+		/** 受講時間数（分） */
+		private final long[] netMinutes;
+
+		private Columns(int size) {
+			this(new int[size], new int[size], new int[size], new int[size], new int[size],
+					new long[size]);
+		}
+
+		private Columns(int[] attendance, int[] tardy, int[] leavingEarly, int[] absent,
+				int[] blank, long[] netMinutes) {
+			this.attendance = attendance;
+			this.tardy = tardy;
+			this.leavingEarly = leavingEarly;
+			this.absent = absent;
+			this.blank = blank;
+			this.netMinutes = netMinutes;
+		}
+
+		/**
+		 * 同じ大きさの件数を合算
+		 *
+		 * @param other
+		 */
+		private void addAll(Columns other) {
+			for (int i = 0; i < attendance.length; i++) {
+				attendance[i] += other.attendance[i];
+				tardy[i] += other.tardy[i];
+				leavingEarly[i] += other.leavingEarly[i];
+				absent[i] += other.absent[i];
+				blank[i] += other.blank[i];
+				netMinutes[i] += other.netMinutes[i];
+			}
+		}
+
+		/**
+		 * 指定位置に0件の要素を挿入した件数を作成
+		 *
+		 * @param index
+		 * @return 件数
+		 */
+		private Columns insert(int index) {
+			return new Columns(insert(attendance, index), insert(tardy, index),
+					insert(leavingEarly, index), insert(absent, index), insert(blank, index),
+					AttendanceAnalytics.insert(netMinutes, index, 0));
+		}
+
+		private static int[] insert(int[] array, int index) {
+			int[] inserted = new int[array.length + 1];
+			System.arraycopy(array, 0, inserted, 0, index);
+			System.arraycopy(array, index, inserted, index + 1, array.length - index);
+			return inserted;
+		}
+	}
+
+	/**
+	 * 集計結果（自身で同期）
+	 */
+	private static class Snapshot {
+
+		/** 集計日付（エポック日） */
+		private final long epochDay;
+		/** 集計日時 */
+		private volatile long buildTime;
+		/** LMSユーザーID（昇順） */
+		private final int[] lmsUserIds;
+		/** ユーザー名 */
+		private final String[] userNames;
+		/** 企業ID（未所属の場合-1） */
+		private final int[] companyIds;
+		/** 受講生毎の件数 */
+		private final Columns users;
+		/** 日付（エポック日、昇順） */
+		private long[] epochDays;
+		/** 日毎の件数 */
+		private Columns days;
+
+		private Snapshot(long epochDay, long buildTime, int[] lmsUserIds, String[] userNames,
+				int[] companyIds, Columns users, long[] epochDays, Columns days) {
+			this.epochDay = epochDay;
+			this.buildTime = buildTime;
+			this.lmsUserIds = lmsUserIds;
+			this.userNames = userNames;
+			this.companyIds = companyIds;
+			this.users = users;
+			this.epochDays = epochDays;
+			this.days = days;
+		}
+	}
+
+}
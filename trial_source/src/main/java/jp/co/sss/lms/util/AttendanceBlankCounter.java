@@ -0,0 +1,256 @@
+package jp.co.sss.lms.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jp.co.sss.lms.dto.AttendanceBlankCountDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 勤怠未入力件数カウンタ<br>
+ * ユーザー毎の過去日未入力件数（TStudentAttendanceMapper#notEnterCountと同条件）を集計日付と共に保持する。<br>
+ * 勤怠情報の登録・更新時に差分を反映し、日付が変わった件数は破棄する。毎晩テーブルから再集計する。<br>
+ * 他のサーバーでの更新は反映できないため、ログインセッションの保存先がデータベース（複数台構成）の場合は件数を保持せず、
+ * 毎回テーブルから集計する。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class AttendanceBlankCounter {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+
+	@Value("${setting.session.store}")
+	private String sessionStore;
+
+	/** 件数を保持するか（複数台構成の場合false） */
+	private boolean enabled;
+
+	/** LMSユーザーID毎の未入力件数 */
+	private final Map<Integer, BlankCount> countMap = new ConcurrentHashMap<>();
+	/** 全ユーザーを集計済みの日付（エポック日）。この日付の間は保持していないユーザーを0件とみなす */
+	private volatile long completeEpochDay = Long.MIN_VALUE;
+	/** 更新回数（集計中に更新があった場合、集計結果を保持しない） */
+	private final AtomicLong modifyCount = new AtomicLong();
+	/** キャッシュヒット数 */
+	private final LongAdder hitCount = new LongAdder();
+	/** キャッシュミス数 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 初期処理
+	 */
+	@PostConstruct
+	public void init() {
+		enabled = !"database".equals(sessionStore);
+	}
+
+	/**
+	 * 過去日未入力件数を取得
+	 *
+	 * @param lmsUserId
+	 * @return 未入力件数
+	 */
+	public int getCount(Integer lmsUserId) {
+		long today = today();
+		if (!enabled) {
+			missCount.increment();
+			Integer count = tStudentAttendanceMapper.notEnterCount(lmsUserId, Constants.DB_FLG_FALSE,
+					toDate(today));
+			return count == null ? 0 : count;
+		}
+		BlankCount blankCount = countMap.get(lmsUserId);
+		if (blankCount != null && blankCount.epochDay == today) {
+			hitCount.increment();
+			return blankCount.count;
+		}
+		if (blankCount == null && completeEpochDay == today) {
+			hitCount.increment();
+			return 0;
+		}
+		missCount.increment();
+		long modified = modifyCount.get();
+		Integer count = tStudentAttendanceMapper.notEnterCount(lmsUserId, Constants.DB_FLG_FALSE,
+				toDate(today));
+		int result = count == null ? 0 : count;
+		// 判定と保持を同じキーの排他内で行い、判定後に反映された更新を上書きしない
+		countMap.compute(lmsUserId, (key, current) -> modifyCount.get() == modified
+				? new BlankCount(today, result)
+				: current);
+		return result;
+	}
+
+	/**
+	 * 勤怠情報の登録・更新を反映<br>
+	 * 登録・更新の完了後に呼び出す。
+	 *
+	 * @param before 更新前の勤怠情報（登録の場合null）
+	 * @param after  更新後の勤怠情報
+	 */
+	public void update(TStudentAttendance before, TStudentAttendance after) {
+		if (!enabled) {
+			return;
+		}
+		modifyCount.incrementAndGet();
+		long today = today();
+		int delta = (isBlank(after, today) ? 1 : 0) - (isBlank(before, today) ? 1 : 0);
+		if (delta == 0) {
+			return;
+		}
+		boolean complete = completeEpochDay == today;
+		countMap.compute(after.getLmsUserId(), (lmsUserId, blankCount) -> {
+			if (blankCount != null && blankCount.epochDay == today) {
+				return new BlankCount(today, Math.max(0, blankCount.count + delta));
+			}
+			if (blankCount == null && complete) {
+				return new BlankCount(today, Math.max(0, delta));
+			}
+			// 集計日付が古い件数は破棄し、次回取得時に再集計する
+			return null;
+		});
+	}
+
+	/**
+	 * 全ユーザーの未入力件数をテーブルから再集計（毎晩実行）
+	 */
+	@Scheduled(cron = "${setting.attendance.blank.cron}")
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+		long today = today();
+		long modified = modifyCount.get();
+		try {
+			List<AttendanceBlankCountDto> list = tStudentAttendanceMapper.notEnterCountList(
+					Constants.DB_FLG_FALSE, toDate(today));
+			synchronized (this) {
+				countMap.clear();
+				completeEpochDay = Long.MIN_VALUE;
+				if (modifyCount.get() != modified) {
+					// 集計中に更新があった場合は取得時の個別集計に任せる
+					logger.info("勤怠未入力件数の再集計中に更新があったため、個別集計に切り替えます。");
+					return;
+				}
+				for (AttendanceBlankCountDto dto : list) {
+					countMap.put(dto.getLmsUserId(), new BlankCount(today, dto.getBlankCount()));
+				}
+				completeEpochDay = today;
+			}
+			logger.info("勤怠未入力件数を再集計しました。件数：" + list.size());
+		} catch (RuntimeException e) {
+			logger.warn("勤怠未入力件数の再集計に失敗しました。", e);
+		}
+	}
+
+	/**
+	 * キャッシュヒット数を取得
+	 *
+	 * @return キャッシュヒット数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * キャッシュミス数を取得
+	 *
+	 * @return キャッシュミス数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 過去日の未入力か判定（TStudentAttendanceMapper#notEnterCountと同条件）
+	 *
+	 * @param tStudentAttendance
+	 * @param today
+	 * @return 未入力の場合true
+	 */
+	private boolean isBlank(TStudentAttendance tStudentAttendance, long today) {
+		if (tStudentAttendance == null || tStudentAttendance.getTrainingDate() == null
+				|| tStudentAttendance.getDeleteFlg() == null
+				|| tStudentAttendance.getDeleteFlg() != Constants.DB_FLG_FALSE
+				|| tStudentAttendance.getStatus() == null
+				|| AttendanceStatusEnum.ABSENT.code.equals(tStudentAttendance.getStatus())) {
+			return false;
+		}
+		if (toEpochDay(tStudentAttendance.getTrainingDate()) >= today) {
+			return false;
+		}
+		return isEmpty(tStudentAttendance.getTrainingStartTime())
+				|| isEmpty(tStudentAttendance.getTrainingEndTime());
+	}
+
+	private boolean isEmpty(String value) {
+		return value == null || value.isEmpty();
+	}
+
+	/**
+	 * 本日のエポック日を取得
+	 *
+	 * @return エポック日
+	 */
+	private long today() {
+		return LocalDate.now().toEpochDay();
+	}
+
+	/**
+	 * 日付をエポック日に変換
+	 *
+	 * @param date
+	 * @return エポック日
+	 */
+	private long toEpochDay(Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate()
+				.toEpochDay();
+	}
+
+	/**
+	 * エポック日を日付に変換
+	 *
+	 * @param epochDay
+	 * @return 日付
+	 */
+	private Date toDate(long epochDay) {
+		return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault())
+				.toInstant());
+	}
+
+	/**
+	 * 未入力件数
+	 */
+	private static class BlankCount {
+
+		/** 集計日付（エポック日） */
+		private final long epochDay;
+		/** 件数 */
+		private final int count;
+
+		private BlankCount(long epochDay, int count) {
+			this.epochDay = epochDay;
+			this.count = count;
+		}
+	}
+
+}
@@ -1,14 +1,18 @@
 package jp.co.sss.lms.util;
 
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
 
 import jp.co.sss.lms.enums.AttendanceStatusEnum;
-import jp.co.sss.lms.mapper.MSectionMapper;
 
 /**
  * 勤怠管理のユーティリティクラス
@@ -21,7 +25,7 @@ public class AttendanceUtil {
 	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
-	private MSectionMapper mSectionMapper;
+	private CourseCalendarCache courseCalendarCache;
 
 	/**
 	 * SSS定時・出退勤時間を元に、遅刻早退を判定をする
@@ -32,45 +36,20 @@ public class AttendanceUtil {
 	 */
 	public AttendanceStatusEnum getStatus(TrainingTime trainingStartTime,
 			TrainingTime trainingEndTime) {
-		return getStatus(trainingStartTime, trainingEndTime, Constants.SSS_WORK_START_TIME,
-				Constants.SSS_WORK_END_TIME);
+		return getStatus(
+				trainingStartTime == null ? TrainingTime.BLANK_MINUTES : trainingStartTime.toMinutes(),
+				trainingEndTime == null ? TrainingTime.BLANK_MINUTES : trainingEndTime.toMinutes());
 	}
 
 	/**
-	 * 与えられた定時・出退勤時間を元に、遅刻早退を判定する
+	 * SSS定時・出退勤時間（0:00からの分数）を元に、遅刻早退を判定をする
 	 * 
-	 * @param trainingStartTime 開始時刻
-	 * @param trainingEndTime   終了時刻
-	 * @param workStartTime     定時開始時刻
-	 * @param workEndTime       定時終了時刻
-	 * @return 判定結果
+	 * @param trainingStartMinutes 開始時刻（未設定の場合{@link TrainingTime#BLANK_MINUTES}）
+	 * @param trainingEndMinutes   終了時刻（未設定の場合{@link TrainingTime#BLANK_MINUTES}）
+	 * @return 遅刻早退を判定メソッド
 	 */
-	private AttendanceStatusEnum getStatus(TrainingTime trainingStartTime,
-			TrainingTime trainingEndTime, TrainingTime workStartTime, TrainingTime workEndTime) {
-		// 定時が不明な場合、NONEを返却する
-		if (workStartTime == null || workStartTime.isBlank() || workEndTime == null
-				|| workEndTime.isBlank()) {
-			return AttendanceStatusEnum.NONE;
-		}
-		boolean isLate = false, isEarly = false;
-		// 定時より1分以上遅く出社していたら遅刻(＝はセーフ)
-		if (trainingStartTime != null && trainingStartTime.isNotBlank()) {
-			isLate = (trainingStartTime.compareTo(workStartTime) > 0);
-		}
-		// 定時より1分以上早く退社していたら早退(＝はセーフ)
-		if (trainingEndTime != null && trainingEndTime.isNotBlank()) {
-			isEarly = (trainingEndTime.compareTo(workEndTime) < 0);
-		}
-		if (isLate && isEarly) {
-			return AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY;
-		}
-		if (isLate) {
-			return AttendanceStatusEnum.TARDY;
-		}
-		if (isEarly) {
-			return AttendanceStatusEnum.LEAVING_EARLY;
-		}
-		return AttendanceStatusEnum.NONE;
+	public AttendanceStatusEnum getStatus(int trainingStartMinutes, int trainingEndMinutes) {
+		return WorkSchedule.DEFAULT.getStatus(trainingStartMinutes, trainingEndMinutes);
 	}
 
 	/**
@@ -102,74 +81,171 @@ public class AttendanceUtil {
 		return trainingDate;
 	}
 
-	/**
-	 * 休憩時間取得
-	 * 
-	 * @return 休憩時間
-	 */
-	public LinkedHashMap<Integer, String> setBlankTime() {
-		LinkedHashMap<Integer, String> map = new LinkedHashMap<>();
-		map.put(null, "");
-		for (int i = 15; i < 480;) {
+	/** 中抜け時間（プルダウン） */
+	private static final Map<Integer, String> BLANK_TIME_MAP;
+	/** 時間（プルダウン） */
+	private static final Map<Integer, String> HOUR_MAP;
+	/** 分（プルダウン） */
+	private static final Map<Integer, String> MINUTE_MAP;
+	/** 中抜け時間の選択肢HTML（選択中の値毎） */
+	private static final Map<Integer, String> BLANK_TIME_OPTIONS;
+	/** 時間の選択肢HTML（添字：選択中の時間+1、0は未選択） */
+	private static final String[] HOUR_OPTIONS;
+	/** 分の選択肢HTML（添字：選択中の分+1、0は未選択） */
+	private static final String[] MINUTE_OPTIONS;
+
+	static {
+		LinkedHashMap<Integer, String> blankTimeMap = new LinkedHashMap<>();
+		blankTimeMap.put(null, "");
+		for (int i = 15; i < 480; i += 15) {
 			int hour = i / 60;
 			int minute = i % 60;
 			String time;
-
 			if (hour == 0) {
 				time = minute + "分";
-
 			} else if (minute == 0) {
 				time = hour + "時間";
 			} else {
 				time = hour + "時" + minute + "分";
 			}
+			blankTimeMap.put(i, time);
+		}
+		BLANK_TIME_MAP = Collections.unmodifiableMap(blankTimeMap);
+		HOUR_MAP = createNumberMap(24);
+		MINUTE_MAP = createNumberMap(60);
 
-			map.put(i, time);
-
-			i = i + 15;
-
+		// 中抜け時間は値がキー、時間・分は表示値が送信値となる
+		Map<Integer, String> blankTimeOptions = new HashMap<>();
+		for (Integer selected : BLANK_TIME_MAP.keySet()) {
+			StringBuilder sb = new StringBuilder();
+			for (Map.Entry<Integer, String> entry : BLANK_TIME_MAP.entrySet()) {
+				appendOption(sb, entry.getKey() == null ? "" : entry.getKey().toString(),
+						entry.getValue(), Objects.equals(entry.getKey(), selected));
+			}
+			blankTimeOptions.put(selected, sb.toString());
 		}
-		return map;
+		BLANK_TIME_OPTIONS = Collections.unmodifiableMap(blankTimeOptions);
+		HOUR_OPTIONS = createNumberOptions(HOUR_MAP);
+		MINUTE_OPTIONS = createNumberOptions(MINUTE_MAP);
+	}
+
+	/**
+	 * 休憩時間取得
+	 * 
+	 * @return 休憩時間（共有のため変更不可）
+	 */
+	public Map<Integer, String> setBlankTime() {
+		return BLANK_TIME_MAP;
 	}
 
 	/**
 	 * 勤怠時間の時間設定
-	 * @return 時間
+	 * @return 時間（共有のため変更不可）
 	 */
-	public LinkedHashMap<Integer, String> getHourMap() {
-		LinkedHashMap<Integer, String> map = new LinkedHashMap<>();
-		map.put(null, "");
-		String time;
-		//00～23までの値を登録
-		for (int i = 0; i < 24; i++) {
-			if (i < 10) {
-				time = ("0" + i);
-			} else {
-				time = ("" + i);
-			}
-			map.put(i, time);
-		}
-		return map;
+	public Map<Integer, String> getHourMap() {
+		return HOUR_MAP;
 	}
 	
 	/**
 	 * 勤怠時間の分設定
-	 * @return 分
+	 * @return 分（共有のため変更不可）
+	 */
+	public Map<Integer, String> getMinuteMap() {
+		return MINUTE_MAP;
+	}
+
+	/**
+	 * 中抜け時間プルダウンの選択肢HTMLを取得
+	 * @param selected 選択中の中抜け時間（分）
+	 * @return 選択肢HTML
 	 */
-	public LinkedHashMap<Integer, String> getMinuteMap() {
+	public String getBlankTimeOptions(Integer selected) {
+		String options = BLANK_TIME_OPTIONS.get(selected);
+		return options != null ? options : BLANK_TIME_OPTIONS.get(null);
+	}
+
+	/**
+	 * 時間プルダウンの選択肢HTMLを取得
+	 * @param selected 選択中の時間（"09"等）
+	 * @return 選択肢HTML
+	 */
+	public String getHourOptions(String selected) {
+		return HOUR_OPTIONS[toOptionIndex(selected, HOUR_OPTIONS.length)];
+	}
+
+	/**
+	 * 分プルダウンの選択肢HTMLを取得
+	 * @param selected 選択中の分（"05"等）
+	 * @return 選択肢HTML
+	 */
+	public String getMinuteOptions(String selected) {
+		return MINUTE_OPTIONS[toOptionIndex(selected, MINUTE_OPTIONS.length)];
+	}
+
+	/**
+	 * 0から件数-1までの2桁表記のマップを作成（先頭は空の選択肢）
+	 * @param size
+	 * @return マップ（変更不可）
+	 */
+	private static Map<Integer, String> createNumberMap(int size) {
 		LinkedHashMap<Integer, String> map = new LinkedHashMap<>();
 		map.put(null, "");
-		String time;
-		//00～59までの値を登録
-		for (int i = 0; i < 60; i++) {
-			if (i < 10) {
-				time = ("0" + i);
-			} else {
-				time = ("" + i);
+		for (int i = 0; i < size; i++) {
+			map.put(i, i < 10 ? "0" + i : String.valueOf(i));
+		}
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * 選択中の値毎の選択肢HTMLを作成
+	 * @param map
+	 * @return 選択肢HTML（添字：選択中の値+1、0は未選択）
+	 */
+	private static String[] createNumberOptions(Map<Integer, String> map) {
+		String[] options = new String[map.size()];
+		for (int i = 0; i < options.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (Map.Entry<Integer, String> entry : map.entrySet()) {
+				int index = entry.getKey() == null ? 0 : entry.getKey() + 1;
+				appendOption(sb, entry.getValue(), entry.getValue(), index == i);
 			}
-			map.put(i, time);
+			options[i] = sb.toString();
+		}
+		return options;
+	}
+
+	/**
+	 * 選択肢HTMLを追加
+	 * @param sb
+	 * @param value
+	 * @param text
+	 * @param selected
+	 */
+	private static void appendOption(StringBuilder sb, String value, String text,
+			boolean selected) {
+		sb.append("<option value=\"").append(HtmlUtils.htmlEscape(value)).append('"');
+		if (selected) {
+			sb.append(" selected=\"selected\"");
+		}
+		sb.append('>').append(HtmlUtils.htmlEscape(text)).append("</option>");
+	}
+
+	/**
+	 * 選択中の値を選択肢HTMLの添字に変換
+	 * @param selected
+	 * @param length
+	 * @return 添字（未選択・範囲外の場合0）
+	 */
+	private static int toOptionIndex(String selected, int length) {
+		if (selected == null || selected.isEmpty()) {
+			return 0;
+		}
+		try {
+			int index = Integer.parseInt(selected) + 1;
+			return index > 0 && index < length ? index : 0;
+		} catch (NumberFormatException e) {
+			return 0;
 		}
-		return map;
 	}
 	
 	/**
@@ -178,36 +254,26 @@ public class AttendanceUtil {
 	 * @return 受講時間数
 	 */
 	public TrainingTime calcJukoTime(TrainingTime time) {
-		int hour ;
-		int minute ;
-		int trainingMinute = 0;
-		Integer startHour = null;
-		Integer startMinute = null;
-		Integer endHour = null;
-		Integer endMinute = null;
-		
-		if (time.getTrainingStartTime() != null && time.getTrainingEndTime() != null) {
-			String startTime = time.getTrainingStartTime();
-			String endTime = time.getTrainingEndTime();
-			if (!startTime.equals("") && !endTime.equals("")) {
-				//空文字じゃなければ「：」を中心に分割して出勤時間、分をセット
-				String[] startTimes = startTime.split(":");
-				startHour = Integer.parseInt(startTimes[0]);
-				startMinute = Integer.parseInt(startTimes[1]);
-				//空文字じゃなければ「：」を中心に分割して退勤時間、分をセット
-				String[] endTimes = endTime.split(":");
-				endHour = Integer.parseInt(endTimes[0]);
-				endMinute = Integer.parseInt(endTimes[1]);
-				
-				hour = (endHour - startHour) * 60;
-				minute = endMinute - startMinute;
-				trainingMinute = hour + minute;
-				
-				time.setTrainingTime(trainingMinute);
-			}
+		Integer trainingMinute = calcJukoTime(time.getTrainingStartTime(), time.getTrainingEndTime());
+		if (trainingMinute != null) {
+			time.setTrainingTime(trainingMinute);
 		}
 		return time;
 	}
+
+	/**
+	 * 出退勤時刻から受講時間数を算出
+	 * @param trainingStartTime 出勤時刻
+	 * @param trainingEndTime 退勤時刻
+	 * @return 受講時間数（出退勤時刻のいずれかが空の場合null）
+	 */
+	public Integer calcJukoTime(String trainingStartTime, String trainingEndTime) {
+		if (trainingStartTime == null || trainingEndTime == null
+				|| trainingStartTime.equals("") || trainingEndTime.equals("")) {
+			return null;
+		}
+		return TrainingTime.parseMinutes(trainingEndTime) - TrainingTime.parseMinutes(trainingStartTime);
+	}
 	
 	/**
 	 * 研修日の判定
@@ -217,11 +283,7 @@ public class AttendanceUtil {
 	 * @return 判定結果
 	 */
 	public boolean isWorkDay(Integer courseId, Date trainingDate) {
-		Integer count = mSectionMapper.getSectionCountByCourseId(courseId, trainingDate);
-		if (count > 0) {
-			return true;
-		}
-		return false;
+		return courseCalendarCache.isWorkDay(courseId, trainingDate);
 	}
 
 }
@@ -0,0 +1,200 @@
+package jp.co.sss.lms.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.mapper.MSectionMapper;
+
+/**
+ * コース研修日キャッシュ<br>
+ * コースごとの研修日（セクション日付）をエポック日の昇順配列で保持する。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class CourseCalendarCache {
+
+	@Autowired
+	private MSectionMapper mSectionMapper;
+
+	@Value("${setting.cache.calendar.minute}")
+	private Integer expireMinute;
+
+	/** コースID毎の研修日 */
+	private final Map<Integer, CourseCalendar> calendarMap = new ConcurrentHashMap<>();
+	/** キャッシュヒット数 */
+	private final LongAdder hitCount = new LongAdder();
+	/** キャッシュミス数 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 研修日の判定
+	 *
+	 * @param courseId
+	 * @param trainingDate
+	 * @return 研修日の場合true
+	 */
+	public boolean isWorkDay(Integer courseId, Date trainingDate) {
+		int[] epochDays = getEpochDays(courseId);
+		return Arrays.binarySearch(epochDays, toEpochDay(trainingDate)) >= 0;
+	}
+
+	/**
+	 * 指定日より後の直近の研修日を取得
+	 *
+	 * @param courseId
+	 * @param date
+	 * @return 研修日（存在しない場合null）
+	 */
+	public Date getNextTrainingDay(Integer courseId, Date date) {
+		int[] epochDays = getEpochDays(courseId);
+		int index = Arrays.binarySearch(epochDays, toEpochDay(date));
+		// 一致した場合は次の要素、一致しない場合は挿入位置
+		index = index >= 0 ? index + 1 : -(index + 1);
+		if (index >= epochDays.length) {
+			return null;
+		}
+		return toDate(epochDays[index]);
+	}
+
+	/**
+	 * 指定日より前の直近の研修日を取得
+	 *
+	 * @param courseId
+	 * @param date
+	 * @return 研修日（存在しない場合null）
+	 */
+	public Date getPreviousTrainingDay(Integer courseId, Date date) {
+		int[] epochDays = getEpochDays(courseId);
+		int index = Arrays.binarySearch(epochDays, toEpochDay(date));
+		// 一致した場合は前の要素、一致しない場合は挿入位置の前
+		index = index >= 0 ? index - 1 : -(index + 1) - 1;
+		if (index < 0) {
+			return null;
+		}
+		return toDate(epochDays[index]);
+	}
+
+	/**
+	 * コースのキャッシュを破棄（セクション変更時に呼び出す）
+	 *
+	 * @param courseId
+	 */
+	public void invalidate(Integer courseId) {
+		calendarMap.remove(courseId);
+	}
+
+	/**
+	 * 全コースのキャッシュを破棄
+	 */
+	public void invalidateAll() {
+		calendarMap.clear();
+	}
+
+	/**
+	 * キャッシュヒット数を取得
+	 *
+	 * @return キャッシュヒット数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * キャッシュミス数を取得
+	 *
+	 * @return キャッシュミス数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * コースの研修日（エポック日の昇順配列）を取得
+	 *
+	 * @param courseId
+	 * @return 研修日
+	 */
+	private int[] getEpochDays(Integer courseId) {
+		long now = System.currentTimeMillis();
+		CourseCalendar calendar = calendarMap.get(courseId);
+		if (calendar != null && calendar.expireTime > now) {
+			hitCount.increment();
+			return calendar.epochDays;
+		}
+		missCount.increment();
+		calendar = new CourseCalendar(load(courseId), now + expireMinute * 60L * 1000L);
+		calendarMap.put(courseId, calendar);
+		return calendar.epochDays;
+	}
+
+	/**
+	 * セクションマスタから研修日を読み込む
+	 *
+	 * @param courseId
+	 * @return 研修日
+	 */
+	private int[] load(Integer courseId) {
+		List<Date> dateList = mSectionMapper.getSectionDateListByCourseId(courseId);
+		int[] epochDays = new int[dateList.size()];
+		int size = 0;
+		for (Date date : dateList) {
+			if (date != null) {
+				epochDays[size++] = toEpochDay(date);
+			}
+		}
+		epochDays = Arrays.copyOf(epochDays, size);
+		Arrays.sort(epochDays);
+		return epochDays;
+	}
+
+	/**
+	 * 日付をエポック日に変換
+	 *
+	 * @param date
+	 * @return エポック日
+	 */
+	private int toEpochDay(Date date) {
+		return (int) Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault())
+				.toLocalDate().toEpochDay();
+	}
+
+	/**
+	 * エポック日を日付に変換
+	 *
+	 * @param epochDay
+	 * @return 日付
+	 */
+	private Date toDate(int epochDay) {
+		return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault())
+				.toInstant());
+	}
+
+	/**
+	 * コース研修日
+	 */
+	private static class CourseCalendar {
+
+		/** 研修日（エポック日の昇順） */
+		private final int[] epochDays;
+		/** 有効期限 */
+		private final long expireTime;
+
+		private CourseCalendar(int[] epochDays, long expireTime) {
+			this.epochDays = epochDays;
+			this.expireTime = expireTime;
+		}
+	}
+
+}
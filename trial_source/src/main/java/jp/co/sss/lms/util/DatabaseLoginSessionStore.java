@@ -0,0 +1,66 @@
+package jp.co.sss.lms.util;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.LoginSessionDto;
+import jp.co.sss.lms.mapper.TLoginSessionMapper;
+
+/**
+ * ログインセッションの保存先（データベース）<br>
+ * t_login_sessionにセッションキー毎に1行を保持する。複数台構成用。<br>
+ * 本保存先を使用する場合、サーバー毎に保持する{@link AttendanceBlankCounter}の件数保持と打刻バッファは無効になり、
+ * ジョブを受け付けたサーバーにしか存在しないレポートの一括エクスポートは使用できない。<br>
+ * 次のテーブルを使用する。
+ * 
+ * <pre>
+ * CREATE TABLE t_login_session (
+ *     session_key VARCHAR(64) NOT NULL PRIMARY KEY,
+ *     session_data BYTEA NOT NULL,
+ *     expire_date TIMESTAMP NOT NULL
+ * );
+ * CREATE INDEX t_login_session_idx1 ON t_login_session (expire_date);
+ * </pre>
+ *
+ * @author 東京ITスクール
+ */
+@Component
+@ConditionalOnProperty(name = "setting.session.store", havingValue = "database")
+public class DatabaseLoginSessionStore implements LoginSessionStore {
+
+	@Autowired
+	private TLoginSessionMapper tLoginSessionMapper;
+
+	@Override
+	public LoginSessionDto find(String sessionKey) {
+		return tLoginSessionMapper.findBySessionKey(sessionKey, new Date());
+	}
+
+	@Override
+	public void save(String sessionKey, byte[] sessionData, long expireTime) {
+		tLoginSessionMapper.upsert(sessionKey, sessionData, new Date(expireTime));
+	}
+
+	@Override
+	public void touch(String sessionKey, long expireTime) {
+		tLoginSessionMapper.updateExpireDate(sessionKey, new Date(expireTime));
+	}
+
+	@Override
+	public void delete(String sessionKey) {
+		tLoginSessionMapper.delete(sessionKey);
+	}
+
+	/**
+	 * 有効期限切れのログインセッションを削除（1分毎に実行）
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void purge() {
+		tLoginSessionMapper.deleteBefore(new Date());
+	}
+
+}
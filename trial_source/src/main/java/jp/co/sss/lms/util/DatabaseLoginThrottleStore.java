@@ -0,0 +1,67 @@
+package jp.co.sss.lms.util;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.mapper.TLoginFailureMapper;
+
+/**
+ * ログイン失敗回数の保存先（データベース）<br>
+ * 失敗の都度t_login_failureへ1行登録し、集計期間内の行数を数える。複数台構成用。<br>
+ * 次のテーブルを使用する。
+ * 
+ * <pre>
+ * CREATE TABLE t_login_failure (
+ *     throttle_key VARCHAR(300) NOT NULL,
+ *     failure_date TIMESTAMP NOT NULL
+ * );
+ * CREATE INDEX t_login_failure_idx1 ON t_login_failure (throttle_key, failure_date);
+ * </pre>
+ *
+ * @author 東京ITスクール
+ */
+@Component
+@ConditionalOnProperty(name = "setting.lock.store", havingValue = "database")
+public class DatabaseLoginThrottleStore implements LoginThrottleStore {
+
+	@Autowired
+	private TLoginFailureMapper tLoginFailureMapper;
+
+	@Value("${setting.lock.minute}")
+	private Integer lockMinute;
+
+	@Override
+	public int increment(String key, long windowMillis) {
+		long now = System.currentTimeMillis();
+		tLoginFailureMapper.insert(key, new Date(now));
+		Integer count = tLoginFailureMapper.count(key, new Date(now - windowMillis));
+		return count == null ? 0 : count;
+	}
+
+	@Override
+	public int count(String key, long windowMillis) {
+		Integer count = tLoginFailureMapper.count(key,
+				new Date(System.currentTimeMillis() - windowMillis));
+		return count == null ? 0 : count;
+	}
+
+	@Override
+	public void reset(String key) {
+		tLoginFailureMapper.delete(key);
+	}
+
+	/**
+	 * 集計期間を過ぎた履歴を削除（1分毎に実行）
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void purge() {
+		tLoginFailureMapper.deleteBefore(
+				new Date(System.currentTimeMillis() - lockMinute * 60L * 1000L));
+	}
+
+}
@@ -2,16 +2,44 @@ package jp.co.sss.lms.util;
 
 import java.sql.Timestamp;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Component;
 
 @Component
 public class DateUtil {
+
+	/** フォーマット用DateTimeFormatter（パターン毎、SimpleDateFormatと互換性のないパターンは空） */
+	private static final Map<String, Optional<DateTimeFormatter>> FORMATTER_MAP = new ConcurrentHashMap<>();
+	/** 解析用DateTimeFormatter（パターン毎、SimpleDateFormatと互換性のないパターンは空） */
+	private static final Map<String, Optional<DateTimeFormatter>> PARSER_MAP = new ConcurrentHashMap<>();
+	/**
+	 * DateTimeFormatterで変換する最小の年<br>
+	 * 1900年より前はSimpleDateFormat（ユリウス暦・タイムゾーンの標準時差）と結果が異なるため対象外とする。
+	 */
+	private static final int COMPATIBLE_MIN_YEAR = 1900;
+
 	/**
 	 * Date型日付を"yyyy/M/d"形式にフォーマット
 	 * 
@@ -19,8 +47,7 @@ public class DateUtil {
 	 * @return "yyyy/M/d"形式日付
 	 */
 	public String toString(Date date) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/M/d");
-		return sdf.format(date);
+		return toString(date, "yyyy/M/d");
 	}
 
 	/**
@@ -31,8 +58,38 @@ public class DateUtil {
 	 * @return 任意の形式の日付
 	 */
 	public String toString(Date date, String fmt) {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		return sdf.format(date);
+		DateTimeFormatter formatter = getFormatter(fmt);
+		ZonedDateTime dateTime = toZonedDateTime(date);
+		if (formatter == null || dateTime.getYear() < COMPATIBLE_MIN_YEAR) {
+			return new SimpleDateFormat(fmt).format(date);
+		}
+		return formatter.format(dateTime);
+	}
+
+	/**
+	 * LocalDate型日付を任意の日付形式にフォーマット
+	 * 
+	 * @param date
+	 * @param fmt
+	 * @return 任意の形式の日付
+	 */
+	public String toString(LocalDate date, String fmt) {
+		return toString(date.atStartOfDay(), fmt);
+	}
+
+	/**
+	 * LocalDateTime型日時を任意の日付形式にフォーマット
+	 * 
+	 * @param dateTime
+	 * @param fmt
+	 * @return 任意の形式の日時
+	 */
+	public String toString(LocalDateTime dateTime, String fmt) {
+		DateTimeFormatter formatter = getFormatter(fmt);
+		if (formatter == null) {
+			return new SimpleDateFormat(fmt).format(toDate(dateTime));
+		}
+		return formatter.format(dateTime.atZone(ZoneId.systemDefault()));
 	}
 
 	/**
@@ -42,8 +99,7 @@ public class DateUtil {
 	 * @return "yyyy/M/d"形式の日付
 	 */
 	public Date parse(String date) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/M/d");
-		return sdf.parse(date);
+		return parse(date, "yyyy/M/d");
 	}
 
 	/**
@@ -54,8 +110,69 @@ public class DateUtil {
 	 * @return 任意の形式の日付
 	 */
 	public Date parse(String date, String fmt) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		return sdf.parse(date);
+		ZonedDateTime dateTime = parseZonedDateTime(date, fmt);
+		if (dateTime == null) {
+			return new SimpleDateFormat(fmt).parse(date);
+		}
+		return Date.from(dateTime.toInstant());
+	}
+
+	/**
+	 * String型日付を任意の日付形式でLocalDate型に変換
+	 * 
+	 * @param date
+	 * @param fmt
+	 * @return 日付
+	 * @throws ParseException 日付フォーマットが不正な場合
+	 */
+	public LocalDate parseLocalDate(String date, String fmt) throws ParseException {
+		return parseLocalDateTime(date, fmt).toLocalDate();
+	}
+
+	/**
+	 * String型日時を任意の日付形式でLocalDateTime型に変換
+	 * 
+	 * @param dateTime
+	 * @param fmt
+	 * @return 日時
+	 * @throws ParseException 日付フォーマットが不正な場合
+	 */
+	public LocalDateTime parseLocalDateTime(String dateTime, String fmt) throws ParseException {
+		ZonedDateTime zonedDateTime = parseZonedDateTime(dateTime, fmt);
+		if (zonedDateTime == null) {
+			return toLocalDateTime(new SimpleDateFormat(fmt).parse(dateTime));
+		}
+		return zonedDateTime.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+	}
+
+	/**
+	 * Date型をLocalDate型に変換
+	 * 
+	 * @param date
+	 * @return 日付
+	 */
+	public LocalDate toLocalDate(Date date) {
+		return toZonedDateTime(date).toLocalDate();
+	}
+
+	/**
+	 * Date型をLocalDateTime型に変換
+	 * 
+	 * @param date
+	 * @return 日時
+	 */
+	public LocalDateTime toLocalDateTime(Date date) {
+		return toZonedDateTime(date).toLocalDateTime();
+	}
+
+	/**
+	 * LocalDateTime型をDate型に変換
+	 * 
+	 * @param dateTime
+	 * @return 日時
+	 */
+	public Date toDate(LocalDateTime dateTime) {
+		return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
 	}
 
 	/**
@@ -76,8 +193,7 @@ public class DateUtil {
 	 * @return 年齢
 	 */
 	public int calcAge(Date birthday, Date now) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
-		return (Integer.parseInt(sdf.format(now)) - Integer.parseInt(sdf.format(birthday))) / 10000;
+		return (toDateNumber(toLocalDate(now)) - toDateNumber(toLocalDate(birthday))) / 10000;
 	}
 
 	/**
@@ -132,9 +248,8 @@ public class DateUtil {
 	 * @throws ParseException 日付フォーマットが不正な場合
 	 */
 	public int differenceDays(String strDate1, String strDate2, String fmt) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		Date date1 = sdf.parse(strDate1);
-		Date date2 = sdf.parse(strDate2);
+		Date date1 = parse(strDate1, fmt);
+		Date date2 = parse(strDate2, fmt);
 		return differenceDays(date1, date2);
 	}
 
@@ -161,6 +276,18 @@ public class DateUtil {
 		return (int) diffDays;
 	}
 
+	/**
+	 * 2つの日付の差を求めます。<br>
+	 * LocalDate 型の日付 date1 - date2 が何日かを返します。
+	 *
+	 * @param date1 日付 java.time.LocalDate
+	 * @param date2 日付 java.time.LocalDate
+	 * @return 2つの日付の差
+	 */
+	public int differenceDays(LocalDate date1, LocalDate date2) {
+		return (int) ChronoUnit.DAYS.between(date2, date1);
+	}
+
 	/**
 	 * String型をCalendar型に変換
 	 *
@@ -204,8 +331,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String getCurrentDateString() {
-		Date date = new Date();
-		return dateToString(date);
+		return toString(LocalDateTime.now(), "yyyy/MM/dd HH:mm:ss");
 	}
 
 	/**
@@ -214,8 +340,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String getCurrentDateString(String fmt) {
-		Date date = new Date();
-		return dateToString(date, fmt);
+		return toString(LocalDateTime.now(), fmt);
 	}
 
 	/**
@@ -226,8 +351,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String dateToString(Date time, String format) {
-		SimpleDateFormat sdf = new SimpleDateFormat(format);
-		return sdf.format(time);
+		return toString(time, format);
 	}
 
 	/**
@@ -295,7 +419,7 @@ public class DateUtil {
 	public Timestamp stringToTimestamp(String time, String fmt) {
 		Timestamp dateTime = null;
 		try {
-			Long dateTimeLong = new SimpleDateFormat(fmt).parse(time).getTime();
+			Long dateTimeLong = parse(time, fmt).getTime();
 			dateTime = new Timestamp(dateTimeLong);
 		} catch (ParseException e) {
 			e.printStackTrace();
@@ -322,7 +446,7 @@ public class DateUtil {
 	 */
 	public java.sql.Date stringToSqlDate(String date, String format) {
 		try {
-			Date d = new SimpleDateFormat(format).parse(date);
+			Date d = parse(date, format);
 			Calendar cal = Calendar.getInstance();
 			cal.setTime(d);
 			cal.set(Calendar.HOUR_OF_DAY, 0);
@@ -344,7 +468,7 @@ public class DateUtil {
 	 */
 	public Date stringToDate(String date, String format) {
 		try {
-			Date d = new SimpleDateFormat(format).parse(date);
+			Date d = parse(date, format);
 			return d;
 		} catch (ParseException e) {
 			return null;
@@ -366,6 +490,10 @@ public class DateUtil {
 	 * @throws IllegalArgumentException 日付文字列が変換不可能な場合 または、矛盾している場合（例：2000/99/99）。
 	 */
 	public Calendar toCalendar(String strDate) {
+		Calendar canonical = toCalendarCanonical(strDate);
+		if (canonical != null) {
+			return canonical;
+		}
 		strDate = format(strDate);
 		Calendar cal = Calendar.getInstance();
 		cal.setLenient(false);
@@ -413,6 +541,87 @@ public class DateUtil {
 		return cal;
 	}
 
+	/**
+	 * 指定された日付・時刻文字列を、LocalDateTimeクラスに変換します。<br>
+	 * 変換可能な形式は{@link #toCalendar(String)}と同様です。
+	 *
+	 * @param strDate 日付・時刻文字列。
+	 * @return 変換後のLocalDateTimeクラス。
+	 * @throws IllegalArgumentException 日付文字列が変換不可能な場合 または、矛盾している場合（例：2000/99/99）。
+	 */
+	public LocalDateTime toLocalDateTime(String strDate) {
+		return toLocalDateTime(toCalendar(strDate).getTime());
+	}
+
+	/**
+	 * デフォルトの日付・時刻フォーマットの文字列をCalendarクラスに変換します。<br>
+	 * getCurrentDateString()等で生成した文字列を{@link #format(String)}を経由せずに変換するための高速経路です。
+	 *
+	 * ●変換可能な形式は以下となります。<br>
+	 * yyyy/MM/dd yyyy/MM/dd HH:mm yyyy/MM/dd HH:mm:ss yyyy/MM/dd HH:mm:ss.SSS
+	 *
+	 * @param strDate 日付・時刻文字列。
+	 * @return 変換後のCalendarクラス。上記の形式でない場合null
+	 * @throws IllegalArgumentException 日付が矛盾している場合（例：2000/99/99）。
+	 */
+	private Calendar toCalendarCanonical(String strDate) {
+		if (strDate == null) {
+			return null;
+		}
+		int len = strDate.length();
+		if (len != 10 && len != 16 && len != 19 && len != 23) {
+			return null;
+		}
+		if (strDate.charAt(4) != '/' || strDate.charAt(7) != '/') {
+			return null;
+		}
+		if (len > 10 && (strDate.charAt(10) != ' ' || strDate.charAt(13) != ':')) {
+			return null;
+		}
+		if (len > 16 && strDate.charAt(16) != ':') {
+			return null;
+		}
+		if (len > 19 && strDate.charAt(19) != '.') {
+			return null;
+		}
+		int yyyy = parseDigits(strDate, 0, 4);
+		int MM = parseDigits(strDate, 5, 7);
+		int dd = parseDigits(strDate, 8, 10);
+		int HH = len > 10 ? parseDigits(strDate, 11, 13) : 0;
+		int mm = len > 10 ? parseDigits(strDate, 14, 16) : 0;
+		int ss = len > 16 ? parseDigits(strDate, 17, 19) : 0;
+		int SSS = len > 19 ? parseDigits(strDate, 20, 23) : 0;
+		if (yyyy < 0 || MM < 0 || dd < 0 || HH < 0 || mm < 0 || ss < 0 || SSS < 0) {
+			return null;
+		}
+		Calendar cal = Calendar.getInstance();
+		cal.setLenient(false);
+		cal.clear();
+		cal.set(yyyy, MM - 1, dd, HH, mm, ss);
+		cal.set(Calendar.MILLISECOND, SSS);
+		return cal;
+	}
+
+	/**
+	 * 文字列の指定範囲を数値に変換します。
+	 *
+	 * @param str   対象文字列
+	 * @param begin 開始位置
+	 * @param end   終了位置（この位置を含まない）
+	 * @return 数値。数字以外が含まれる場合-1
+	 */
+	private int parseDigits(String str, int begin, int end) {
+		int value = 0;
+		for (int i = begin; i < end; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
 	/**
 	 * 様々な日付、時刻文字列をデフォルトの日付・時刻フォーマット へ変換します。
 	 *
@@ -701,4 +910,136 @@ public class DateUtil {
 		throw new IllegalStateException();
 	}
 
+	/**
+	 * Date型をシステムデフォルトのタイムゾーンのZonedDateTime型に変換<br>
+	 * java.sql.Date#toInstant()は例外となるため、エポックミリ秒を経由する。
+	 * 
+	 * @param date
+	 * @return 日時
+	 */
+	private ZonedDateTime toZonedDateTime(Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault());
+	}
+
+	/**
+	 * 日付をyyyyMMdd形式の数値に変換
+	 * 
+	 * @param date
+	 * @return yyyyMMdd形式の数値
+	 */
+	private int toDateNumber(LocalDate date) {
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+
+	/**
+	 * 任意の日付形式でString型日時を解析する<br>
+	 * SimpleDateFormatと同様に寛容に解析し、末尾の余分な文字列は無視する。
+	 * 解析できない場合はSimpleDateFormatに委ねるため、項目前の空白等SimpleDateFormatが許容する入力はこれまで通り解析される。
+	 * 
+	 * @param dateTime
+	 * @param fmt
+	 * @return 日時。DateTimeFormatterで解析できない形式・入力の場合null
+	 */
+	private ZonedDateTime parseZonedDateTime(String dateTime, String fmt) {
+		DateTimeFormatter parser = getParser(fmt);
+		if (parser == null || dateTime == null) {
+			return null;
+		}
+		TemporalAccessor parsed;
+		try {
+			parsed = parser.parse(dateTime, new ParsePosition(0));
+		} catch (DateTimeException e) {
+			return null;
+		}
+		LocalDate date = parsed.query(TemporalQueries.localDate());
+		if (date == null || date.getYear() < COMPATIBLE_MIN_YEAR) {
+			// 年月日が揃わない形式（時刻のみ等）・1900年より前の日付はSimpleDateFormatに委ねる
+			return null;
+		}
+		LocalTime time = parsed.query(TemporalQueries.localTime());
+		ZoneId zone = parsed.query(TemporalQueries.zone());
+		return ZonedDateTime.of(date, time == null ? LocalTime.MIDNIGHT : time,
+				zone == null ? ZoneId.systemDefault() : zone);
+	}
+
+	/**
+	 * フォーマット用のDateTimeFormatterを取得
+	 * 
+	 * @param fmt
+	 * @return DateTimeFormatter。SimpleDateFormatと互換性のないパターンの場合null
+	 */
+	private static DateTimeFormatter getFormatter(String fmt) {
+		return FORMATTER_MAP.computeIfAbsent(fmt, key -> {
+			if (!isCompatiblePattern(key)) {
+				return Optional.empty();
+			}
+			try {
+				return Optional.of(DateTimeFormatter.ofPattern(key));
+			} catch (IllegalArgumentException e) {
+				return Optional.empty();
+			}
+		}).orElse(null);
+	}
+
+	/**
+	 * 解析用のDateTimeFormatterを取得
+	 * 
+	 * @param fmt
+	 * @return DateTimeFormatter。SimpleDateFormatと互換性のないパターンの場合null
+	 */
+	private static DateTimeFormatter getParser(String fmt) {
+		return PARSER_MAP.computeIfAbsent(fmt, key -> {
+			// 週基準年（Y）は年月日に解決できないため対象外とする
+			// ミリ秒（S）はSimpleDateFormatでは数値、DateTimeFormatterでは小数部として解析されるため対象外とする
+			if (!isCompatiblePattern(key) || key.indexOf('Y') != -1 || key.indexOf('S') != -1) {
+				return Optional.empty();
+			}
+			try {
+				return Optional.of(new DateTimeFormatterBuilder()
+						.parseLenient()
+						.appendPattern(key)
+						.toFormatter()
+						.withResolverStyle(ResolverStyle.LENIENT));
+			} catch (IllegalArgumentException e) {
+				return Optional.empty();
+			}
+		}).orElse(null);
+	}
+
+	/**
+	 * SimpleDateFormatとDateTimeFormatterで意味が同じパターンか判定<br>
+	 * u（曜日番号/年）、F（月内の曜日番号）は意味が異なるため対象外とする。
+	 * S（ミリ秒/小数部）はSSS以外では桁数の扱いが異なるため、SSS以外を含む場合は対象外とする。
+	 * 
+	 * @param fmt
+	 * @return 互換性がある場合true
+	 */
+	private static boolean isCompatiblePattern(String fmt) {
+		if (fmt.indexOf('u') != -1 || fmt.indexOf('F') != -1) {
+			return false;
+		}
+		boolean quoted = false;
+		int i = 0;
+		while (i < fmt.length()) {
+			char c = fmt.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+				i++;
+				continue;
+			}
+			if (quoted || c != 'S') {
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < fmt.length() && fmt.charAt(i) == 'S') {
+				i++;
+			}
+			if (i - start != 3) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
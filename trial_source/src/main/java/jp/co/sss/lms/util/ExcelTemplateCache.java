@@ -0,0 +1,263 @@
+package jp.co.sss.lms.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Excelテンプレートキャッシュ<br>
+ * テンプレートファイルをバイト列で保持し、要求毎に独立したワークブックを作成する。<br>
+ * POIのワークブックは複製できないため、解析済みの予備を裏で用意しておき、ダウンロード時の解析を省く。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ExcelTemplateCache {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private MessageUtil messageUtil;
+
+	@Value("${setting.cache.excel.size}")
+	private Integer maxSize;
+
+	@Value("${setting.cache.excel.spare}")
+	private Integer spareSize;
+
+	@Value("${setting.cache.excel.warmup}")
+	private boolean warmup;
+
+	/** 起動時に読み込むテンプレートのファイル名 */
+	@Value("${setting.cache.excel.template:}")
+	private String[] warmupFileNames;
+
+	/** テンプレートパス毎のテンプレート（アクセス順） */
+	private final Map<String, Template> templateMap = new LinkedHashMap<>(16, 0.75f, true);
+	/** 予備ワークブック作成用スレッド */
+	private final ExecutorService spareExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "excel-template-spare");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/** 予備ワークブックのヒット数 */
+	private final LongAdder spareHitCount = new LongAdder();
+	/** 予備ワークブックのミス数 */
+	private final LongAdder spareMissCount = new LongAdder();
+
+	/**
+	 * テンプレートからワークブックを作成<br>
+	 * 返却したワークブックは呼び出し元専用のため、自由に編集してよい。
+	 *
+	 * @param filePath クラスパス上のテンプレートパス
+	 * @return ワークブック
+	 */
+	public Workbook getWorkbook(String filePath) {
+		Template template = getTemplate(filePath);
+		Workbook workbook = template.spareQueue.poll();
+		if (workbook != null) {
+			spareHitCount.increment();
+		} else {
+			spareMissCount.increment();
+			workbook = parse(template.bytes);
+		}
+		fillSpare(template);
+		return workbook;
+	}
+
+	/**
+	 * テンプレートのバイト列を取得
+	 *
+	 * @param filePath クラスパス上のテンプレートパス
+	 * @return バイト列（呼び出し元で変更しないこと）
+	 */
+	public byte[] getBytes(String filePath) {
+		return getTemplate(filePath).bytes;
+	}
+
+	/**
+	 * テンプレートのキャッシュを破棄
+	 *
+	 * @param filePath クラスパス上のテンプレートパス
+	 */
+	public synchronized void invalidate(String filePath) {
+		templateMap.remove(filePath);
+	}
+
+	/**
+	 * 全テンプレートのキャッシュを破棄
+	 */
+	public synchronized void invalidateAll() {
+		templateMap.clear();
+	}
+
+	/**
+	 * 予備ワークブックのヒット数を取得
+	 *
+	 * @return ヒット数
+	 */
+	public long getSpareHitCount() {
+		return spareHitCount.sum();
+	}
+
+	/**
+	 * 予備ワークブックのミス数を取得
+	 *
+	 * @return ミス数
+	 */
+	public long getSpareMissCount() {
+		return spareMissCount.sum();
+	}
+
+	/**
+	 * 起動時に設定されたExcelテンプレートを読み込む
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmup() {
+		if (!warmup) {
+			return;
+		}
+		String commonFileDir = messageUtil.getMessage("setting.file.common.dir");
+		int count = 0;
+		for (String fileName : warmupFileNames) {
+			if (count >= maxSize) {
+				break;
+			}
+			if (fileName.isBlank()) {
+				continue;
+			}
+			try {
+				getTemplate(commonFileDir + "/" + fileName.trim());
+				count++;
+			} catch (RuntimeException e) {
+				logger.warn("Excelテンプレートの読み込みに失敗しました。" + fileName, e);
+			}
+		}
+		logger.info("Excelテンプレートを読み込みました。件数：" + count);
+	}
+
+	/**
+	 * 終了処理
+	 */
+	@PreDestroy
+	public void destroy() {
+		spareExecutor.shutdownNow();
+	}
+
+	/**
+	 * テンプレートを取得（未読込の場合はクラスパスから読み込む）
+	 *
+	 * @param filePath
+	 * @return テンプレート
+	 */
+	private Template getTemplate(String filePath) {
+		synchronized (this) {
+			Template template = templateMap.get(filePath);
+			if (template != null) {
+				return template;
+			}
+		}
+		Template template = new Template(load(filePath));
+		synchronized (this) {
+			Template current = templateMap.putIfAbsent(filePath, template);
+			if (current != null) {
+				return current;
+			}
+			// 上限を超えた場合、最も長く使用されていないテンプレートを破棄する
+			if (templateMap.size() > maxSize) {
+				String eldest = templateMap.keySet().iterator().next();
+				templateMap.remove(eldest);
+			}
+		}
+		fillSpare(template);
+		return template;
+	}
+
+	/**
+	 * 予備ワークブックの作成を依頼
+	 *
+	 * @param template
+	 */
+	private void fillSpare(Template template) {
+		if (template.spareQueue.size() >= spareSize) {
+			return;
+		}
+		try {
+			spareExecutor.execute(() -> {
+				if (template.spareQueue.size() < spareSize) {
+					try {
+						template.spareQueue.offer(parse(template.bytes));
+					} catch (RuntimeException e) {
+						logger.warn("予備ワークブックの作成に失敗しました。", e);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			// 終了処理中は予備を作成しない
+			logger.debug("予備ワークブックの作成を中止しました。", e);
+		}
+	}
+
+	/**
+	 * クラスパスからテンプレートを読み込む
+	 *
+	 * @param filePath
+	 * @return バイト列
+	 */
+	private byte[] load(String filePath) {
+		try (InputStream in = new ClassPathResource(filePath).getInputStream()) {
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * バイト列からワークブックを作成
+	 *
+	 * @param bytes
+	 * @return ワークブック
+	 */
+	private Workbook parse(byte[] bytes) {
+		try (InputStream in = new ByteArrayInputStream(bytes)) {
+			return WorkbookFactory.create(in);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * テンプレート
+	 */
+	private static class Template {
+
+		/** テンプレートファイルのバイト列 */
+		private final byte[] bytes;
+		/** 解析済みの予備ワークブック */
+		private final ConcurrentLinkedQueue<Workbook> spareQueue = new ConcurrentLinkedQueue<>();
+
+		private Template(byte[] bytes) {
+			this.bytes = bytes;
+		}
+	}
+
+}
@@ -1,13 +1,14 @@
 package jp.co.sss.lms.util;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLEncoder;
-import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -22,7 +23,6 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 
 import jakarta.servlet.ServletOutputStream;
@@ -38,8 +38,6 @@ import jp.co.sss.lms.dto.WorkbookDto;
  */
 public class ExcelUtil {
 
-	@Autowired
-	private static MessageUtil messageUtil;
 	/* 縦軸最大桁数 */
 	public static final int MAX_COL_NUM = 16384;
 	/* エクセル縦軸文字を数値に変換 */
@@ -60,6 +58,15 @@ public class ExcelUtil {
 		}
 	}
 
+	/**
+	 * 作成済みのワークブックを開く
+	 * 
+	 * @param wb
+	 */
+	public ExcelUtil(Workbook wb) {
+		this.wb = wb;
+	}
+
 	/**
 	 * 作成済みのファイルを開く
 	 * 
@@ -261,80 +268,54 @@ public class ExcelUtil {
 	}
 
 	/**
-	 * Workbookの一括ダウンロードを行う
+	 * WorkbookをZIPエントリとして書き出す
 	 * 
-	 * @param workbookDto
-	 * @param response
+	 * @param workbookDtoIterator
+	 * @param zos
 	 * @throws IOException
 	 */
-	public static void downloadBookInZip(List<WorkbookDto> workbookDtoList, HttpServletResponse response)
+	public static void writeBookInZip(Iterator<WorkbookDto> workbookDtoIterator, ZipOutputStream zos)
 			throws IOException {
-		try (ZipOutputStream zos = new ZipOutputStream(response.getOutputStream(), Charset.forName("MS932"))) {
-			List<String> wbNameList = new ArrayList<String>();
-			for (WorkbookDto workbookDto : workbookDtoList) {
-
-				// もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
-				int count = 1;
-				String wbName = workbookDto.getWbName();
-				while (wbNameList.contains(wbName)) {
-					String prefix = FileUtil.getPrefix(workbookDto.getWbName());
-					String suffix = FileUtil.getSuffix(workbookDto.getWbName());
-					wbName = prefix + "(" + count + ")." + suffix;
-					count++;
-				}
-				wbNameList.add(wbName);
-
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				String zipName = "レポート";
-				String fileName = new String((zipName + new Date().getTime()).getBytes("Windows-31J"), "ISO-8859-1");
-				fileName += ".zip";
-				response.setContentType("application/octet-stream");
-				response.setHeader("Content-Disposition", "filename=\"" + fileName + "\"");
-				workbookDto.getWb().write(baos);
+		// Workbook#writeは出力先をクローズするため、ZIPストリームを保護する
+		OutputStream entryOut = new NonClosingOutputStream(zos);
+		Set<String> wbNameSet = new HashSet<String>();
+		while (workbookDtoIterator.hasNext()) {
+			WorkbookDto workbookDto = workbookDtoIterator.next();
 
-				zos.putNextEntry(new ZipEntry(wbName));
-				zos.write(baos.toByteArray(), 0, baos.toByteArray().length);
-				zos.closeEntry();
+			// もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
+			int count = 1;
+			String wbName = workbookDto.getWbName();
+			while (wbNameSet.contains(wbName)) {
+				String prefix = FileUtil.getPrefix(workbookDto.getWbName());
+				String suffix = FileUtil.getSuffix(workbookDto.getWbName());
+				wbName = prefix + "(" + count + ")." + suffix;
+				count++;
 			}
+			wbNameSet.add(wbName);
+
+			zos.putNextEntry(new ZipEntry(wbName));
+			workbookDto.getWb().write(entryOut);
+			zos.closeEntry();
 		}
 	}
 
 	/**
-	 * レポートの一括ダウンロードを行う
-	 * 
-	 * @param workbookDto
-	 * @param response
-	 * @throws IOException
+	 * クローズ要求を無視する出力ストリーム
 	 */
-	public static void downloadReportInZip(List<WorkbookDto> workbookDtoList, HttpServletResponse response)
-			throws IOException {
-		try (ZipOutputStream zos = new ZipOutputStream(response.getOutputStream(), Charset.forName("MS932"))) {
-			List<String> wbNameList = new ArrayList<String>();
-			for (WorkbookDto workbookDto : workbookDtoList) {
+	private static class NonClosingOutputStream extends FilterOutputStream {
 
-				// もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
-				int count = 1;
-				String wbName = workbookDto.getWbName();
-				while (wbNameList.contains(wbName)) {
-					String prefix = FileUtil.getPrefix(workbookDto.getWbName());
-					String suffix = FileUtil.getSuffix(workbookDto.getWbName());
-					wbName = prefix + "(" + count + ")." + suffix;
-					count++;
-				}
-				wbNameList.add(wbName);
+		private NonClosingOutputStream(OutputStream out) {
+			super(out);
+		}
 
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				String zipName = messageUtil.getMessage("dailyReportId");
-				String fileName = new String((zipName + new Date().getTime()).getBytes("Windows-31J"), "ISO-8859-1");
-				fileName += ".zip";
-				response.setContentType("application/octet-stream");
-				response.setHeader("Content-Disposition", "filename=\"" + fileName + "\"");
-				workbookDto.getWb().write(baos);
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
 
-				zos.putNextEntry(new ZipEntry(wbName));
-				zos.write(baos.toByteArray(), 0, baos.toByteArray().length);
-				zos.closeEntry();
-			}
+		@Override
+		public void close() throws IOException {
+			flush();
 		}
 	}
 
@@ -0,0 +1,147 @@
+package jp.co.sss.lms.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 処理時間ヒストグラム<br>
+ * マイクロ秒単位の値を対数・線形の区間（2のべき乗毎に32分割、相対誤差約3%）で数える。
+ * 記録はCASによる加算のみでロック・オブジェクト生成を行わない。区間の範囲は1時間までとし、超えた値は最大の区間に数える。
+ *
+ * @author 東京ITスクール
+ */
+public final class LatencyHistogram {
+
+	/** 2のべき乗毎の分割数のビット数 */
+	private static final int SUB_BUCKET_BITS = 5;
+	/** 2のべき乗毎の分割数 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	/** 記録できる最大値（マイクロ秒、2の32乗未満） */
+	private static final long MAX_VALUE = 60L * 60L * 1000L * 1000L;
+	/** 区間数 */
+	private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+	/** 区間毎の件数 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	/** 合計値 */
+	private final LongAdder sum = new LongAdder();
+	/** 最大値 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * 値を記録
+	 *
+	 * @param micros 処理時間（マイクロ秒）
+	 */
+	public void record(long micros) {
+		long value = Math.max(0, Math.min(micros, MAX_VALUE));
+		counts.incrementAndGet(indexOf(value));
+		sum.add(value);
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * 区間毎の件数の複製を取得（集計用）
+	 *
+	 * @return 区間毎の件数
+	 */
+	public long[] snapshot() {
+		long[] snapshot = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = counts.get(i);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * 合計値を取得
+	 *
+	 * @return 合計値（マイクロ秒）
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * 最大値を取得
+	 *
+	 * @return 最大値（マイクロ秒）
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * 件数を算出
+	 *
+	 * @param snapshot {@link #snapshot()}の戻り値
+	 * @return 件数
+	 */
+	public static long getCount(long[] snapshot) {
+		long count = 0;
+		for (long bucket : snapshot) {
+			count += bucket;
+		}
+		return count;
+	}
+
+	/**
+	 * 分位点の値を算出
+	 *
+	 * @param snapshot {@link #snapshot()}の戻り値
+	 * @param count    {@link #getCount(long[])}の戻り値
+	 * @param quantile 0～1
+	 * @return 分位点を含む区間の上限値（マイクロ秒、件数が0の場合0）
+	 */
+	public static long valueAtQuantile(long[] snapshot, long count, double quantile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * count));
+		long accumulated = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			accumulated += snapshot[i];
+			if (accumulated >= rank) {
+				return upperBoundOf(i);
+			}
+		}
+		return upperBoundOf(snapshot.length - 1);
+	}
+
+	/**
+	 * 値の区間番号を算出
+	 *
+	 * @param value 0以上{@link #MAX_VALUE}以下
+	 * @return 区間番号
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * 区間の上限値を算出
+	 *
+	 * @param index 区間番号
+	 * @return 上限値
+	 */
+	private static long upperBoundOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+		int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		long lower = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+}
@@ -0,0 +1,45 @@
+package jp.co.sss.lms.util;
+
+import jp.co.sss.lms.dto.LoginSessionDto;
+
+/**
+ * ログインセッションの保存先<br>
+ * セッションキー毎にログイン情報のバイト列を有効期限付きで保持する。複数台構成の場合は共有できる実装を使用する。
+ *
+ * @author 東京ITスクール
+ */
+public interface LoginSessionStore {
+
+	/**
+	 * ログインセッションを取得
+	 *
+	 * @param sessionKey
+	 * @return ログインセッション（存在しない・有効期限切れの場合null）
+	 */
+	LoginSessionDto find(String sessionKey);
+
+	/**
+	 * ログインセッションを登録・更新
+	 *
+	 * @param sessionKey
+	 * @param sessionData
+	 * @param expireTime  有効期限（エポックミリ秒）
+	 */
+	void save(String sessionKey, byte[] sessionData, long expireTime);
+
+	/**
+	 * 有効期限のみを延長
+	 *
+	 * @param sessionKey
+	 * @param expireTime 有効期限（エポックミリ秒）
+	 */
+	void touch(String sessionKey, long expireTime);
+
+	/**
+	 * ログインセッションを削除
+	 *
+	 * @param sessionKey
+	 */
+	void delete(String sessionKey);
+
+}
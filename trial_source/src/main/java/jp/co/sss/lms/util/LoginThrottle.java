@@ -0,0 +1,93 @@
+package jp.co.sss.lms.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * ログイン試行制限クラス<br>
+ * ログインID毎・接続元アドレス毎に直近の失敗回数を数え、上限に達した場合はログインを拒否する。<br>
+ * セッションに依存しないため、Cookieを破棄しても回数は引き継がれる。<br>
+ * 接続元アドレスは転送ヘッダー（server.forward-headers-strategy）から解決したものを使用する。
+ * 転送ヘッダーは信頼するプロキシ（setting.proxy.trusted、既定はループバックのみ）からの接続の場合だけ採用されるため、
+ * ロードバランサーを置く場合はそのアドレスを setting.proxy.trusted に追加すること。
+ * 追加しない場合は全員がロードバランサーのアドレスで数えられる。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class LoginThrottle {
+
+	/** キーの接頭辞（ログインID） */
+	private static final String KEY_LOGIN_ID = "id:";
+	/** キーの接頭辞（接続元アドレス） */
+	private static final String KEY_ADDRESS = "ip:";
+	/** キーに使用するログインIDの最大長 */
+	private static final int MAX_LOGIN_ID_LENGTH = 256;
+
+	@Autowired
+	private LoginThrottleStore loginThrottleStore;
+	@Autowired
+	private HttpServletRequest request;
+
+	@Value("${setting.lock.minute}")
+	private Integer lockMinute;
+	@Value("${setting.lock.count}")
+	private Integer lockCount;
+	@Value("${setting.lock.address.count}")
+	private Integer addressLockCount;
+
+	/**
+	 * ログイン拒否中か判定
+	 *
+	 * @param loginId
+	 * @return ログインID・接続元アドレスのいずれかの失敗回数が上限に達している場合true
+	 */
+	public boolean isLocked(String loginId) {
+		long windowMillis = getWindowMillis();
+		return loginThrottleStore.count(getLoginIdKey(loginId), windowMillis) >= lockCount
+				|| loginThrottleStore.count(getAddressKey(), windowMillis) >= addressLockCount;
+	}
+
+	/**
+	 * ログイン失敗を記録
+	 *
+	 * @param loginId
+	 * @return 記録により失敗回数が上限に達した場合true
+	 */
+	public boolean recordFailure(String loginId) {
+		long windowMillis = getWindowMillis();
+		int loginIdCount = loginThrottleStore.increment(getLoginIdKey(loginId), windowMillis);
+		int addressCount = loginThrottleStore.increment(getAddressKey(), windowMillis);
+		return loginIdCount >= lockCount || addressCount >= addressLockCount;
+	}
+
+	/**
+	 * ログイン成功時にログインIDの失敗回数を破棄
+	 *
+	 * @param loginId
+	 */
+	public void reset(String loginId) {
+		loginThrottleStore.reset(getLoginIdKey(loginId));
+	}
+
+	private long getWindowMillis() {
+		return lockMinute * 60L * 1000L;
+	}
+
+	private String getLoginIdKey(String loginId) {
+		String value = loginId == null ? "" : loginId;
+		if (value.length() > MAX_LOGIN_ID_LENGTH) {
+			value = value.substring(0, MAX_LOGIN_ID_LENGTH);
+		}
+		return KEY_LOGIN_ID + value;
+	}
+
+	private String getAddressKey() {
+		String address = request.getRemoteAddr();
+		return KEY_ADDRESS + (address == null ? "" : address);
+	}
+
+}
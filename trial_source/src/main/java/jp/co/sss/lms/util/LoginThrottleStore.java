@@ -0,0 +1,36 @@
+package jp.co.sss.lms.util;
+
+/**
+ * ログイン失敗回数の保存先<br>
+ * キー毎に直近の一定時間内の失敗回数を数える。複数台構成の場合は共有できる実装を使用する。
+ *
+ * @author 東京ITスクール
+ */
+public interface LoginThrottleStore {
+
+	/**
+	 * 失敗を記録
+	 *
+	 * @param key
+	 * @param windowMillis 集計期間（ミリ秒）
+	 * @return 記録後の集計期間内の失敗回数
+	 */
+	int increment(String key, long windowMillis);
+
+	/**
+	 * 集計期間内の失敗回数を取得
+	 *
+	 * @param key
+	 * @param windowMillis 集計期間（ミリ秒）
+	 * @return 失敗回数
+	 */
+	int count(String key, long windowMillis);
+
+	/**
+	 * 失敗回数を破棄
+	 *
+	 * @param key
+	 */
+	void reset(String key);
+
+}
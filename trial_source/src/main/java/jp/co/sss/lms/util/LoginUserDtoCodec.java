@@ -0,0 +1,170 @@
+package jp.co.sss.lms.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+
+/**
+ * ログイン情報の変換<br>
+ * ログイン情報DTOをセッションの保存先に格納するバイト列へ変換する。
+ * 先頭に形式のバージョンと値が設定されている項目のビットを持ち、設定されている項目のみを定義順に書き出す。
+ * Javaの直列化と異なりクラス情報を含まないため、同じ内容であれば常に同じバイト列になる。<br>
+ * 項目を追加する場合は末尾に追加し、並び順を変更する場合は{@link #VERSION}を上げること。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class LoginUserDtoCodec {
+
+	/** 形式のバージョン */
+	private static final byte VERSION = 1;
+
+	/**
+	 * ログイン情報をバイト列に変換
+	 *
+	 * @param loginUserDto
+	 * @return バイト列
+	 */
+	public byte[] encode(LoginUserDto loginUserDto) {
+		Object[] values = {
+				loginUserDto.getAccountId(),
+				loginUserDto.getUserId(),
+				loginUserDto.getLmsUserId(),
+				loginUserDto.getUserName(),
+				loginUserDto.getRole(),
+				loginUserDto.getCompanyId(),
+				loginUserDto.getCompanyName(),
+				loginUserDto.getPlaceId(),
+				loginUserDto.getPlaceName(),
+				loginUserDto.getHiddenFlg(),
+				loginUserDto.getCourseId(),
+				loginUserDto.getCourseName(),
+				loginUserDto.getSecurityAgreeFlg(),
+				loginUserDto.getPasswordNgCount(),
+				loginUserDto.getPasswordChangeDate(),
+				loginUserDto.getPasswordNgDate(),
+				loginUserDto.getSupportAvailable(),
+				loginUserDto.getMailAddress(),
+				loginUserDto.getLeaveFlg(),
+				loginUserDto.getLeaveDate(),
+				loginUserDto.getFileShareFlg(),
+				loginUserDto.getGateCheckExpireTime() };
+		int presence = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				presence |= 1 << i;
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeInt(presence);
+			for (Object value : values) {
+				if (value instanceof Integer) {
+					out.writeInt((Integer) value);
+				} else if (value instanceof Short) {
+					out.writeShort((Short) value);
+				} else if (value instanceof Long) {
+					out.writeLong((Long) value);
+				} else if (value instanceof Date) {
+					out.writeLong(((Date) value).getTime());
+				} else if (value instanceof String) {
+					out.writeUTF((String) value);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * バイト列をログイン情報に変換
+	 *
+	 * @param data
+	 * @return ログイン情報（形式が異なる場合null）
+	 */
+	public LoginUserDto decode(byte[] data) {
+		if (data == null || data.length == 0 || data[0] != VERSION) {
+			return null;
+		}
+		LoginUserDto loginUserDto = new LoginUserDto();
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+			Reader reader = new Reader(in, in.readInt());
+			loginUserDto.setAccountId(reader.readInteger());
+			loginUserDto.setUserId(reader.readInteger());
+			loginUserDto.setLmsUserId(reader.readInteger());
+			loginUserDto.setUserName(reader.readString());
+			loginUserDto.setRole(reader.readString());
+			loginUserDto.setCompanyId(reader.readInteger());
+			loginUserDto.setCompanyName(reader.readString());
+			loginUserDto.setPlaceId(reader.readInteger());
+			loginUserDto.setPlaceName(reader.readString());
+			loginUserDto.setHiddenFlg(reader.readShort());
+			loginUserDto.setCourseId(reader.readInteger());
+			loginUserDto.setCourseName(reader.readString());
+			loginUserDto.setSecurityAgreeFlg(reader.readShort());
+			loginUserDto.setPasswordNgCount(reader.readInteger());
+			loginUserDto.setPasswordChangeDate(reader.readDate());
+			loginUserDto.setPasswordNgDate(reader.readString());
+			loginUserDto.setSupportAvailable(reader.readShort());
+			loginUserDto.setMailAddress(reader.readString());
+			loginUserDto.setLeaveFlg(reader.readInteger());
+			loginUserDto.setLeaveDate(reader.readDate());
+			loginUserDto.setFileShareFlg(reader.readShort());
+			loginUserDto.setGateCheckExpireTime(reader.readLong());
+		} catch (IOException e) {
+			return null;
+		}
+		return loginUserDto;
+	}
+
+	/**
+	 * 設定されている項目のビットに従って値を読み込む
+	 */
+	private static class Reader {
+
+		private final DataInputStream in;
+		private final int presence;
+		/** 次に読み込む項目の位置 */
+		private int index;
+
+		private Reader(DataInputStream in, int presence) {
+			this.in = in;
+			this.presence = presence;
+		}
+
+		private boolean next() {
+			return (presence & (1 << index++)) != 0;
+		}
+
+		private Integer readInteger() throws IOException {
+			return next() ? in.readInt() : null;
+		}
+
+		private Short readShort() throws IOException {
+			return next() ? in.readShort() : null;
+		}
+
+		private Long readLong() throws IOException {
+			return next() ? in.readLong() : null;
+		}
+
+		private Date readDate() throws IOException {
+			return next() ? new Date(in.readLong()) : null;
+		}
+
+		private String readString() throws IOException {
+			return next() ? in.readUTF() : null;
+		}
+	}
+
+}
@@ -0,0 +1,315 @@
+package jp.co.sss.lms.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jp.co.sss.lms.entity.MCompany;
+import jp.co.sss.lms.entity.MCourse;
+import jp.co.sss.lms.entity.MPlace;
+import jp.co.sss.lms.mapper.MCompanyMapper;
+import jp.co.sss.lms.mapper.MCourseMapper;
+import jp.co.sss.lms.mapper.MPlaceMapper;
+
+/**
+ * マスタデータキャッシュ<br>
+ * コース・会場・企業マスタ（削除されていないもの）を変更不可のリストで保持する。<br>
+ * 有効期限を過ぎた場合は保持中のデータを返却しつつ裏で再読み込みする。
+ * 返却するエンティティは共有されるため、呼び出し元で変更しないこと。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class MasterDataCache {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private MCourseMapper mCourseMapper;
+	@Autowired
+	private MPlaceMapper mPlaceMapper;
+	@Autowired
+	private MCompanyMapper mCompanyMapper;
+
+	@Value("${setting.cache.master.minute}")
+	private Integer expireMinute;
+
+	/** コースマスタ */
+	private final Snapshot<MCourse> courseSnapshot = new Snapshot<>("course",
+			() -> mCourseMapper.findAll(Constants.DB_FLG_FALSE), MCourse::getCourseId);
+	/** 会場マスタ */
+	private final Snapshot<MPlace> placeSnapshot = new Snapshot<>("place",
+			() -> mPlaceMapper.findAll(Constants.DB_FLG_FALSE), MPlace::getPlaceId);
+	/** 企業マスタ */
+	private final Snapshot<MCompany> companySnapshot = new Snapshot<>("company",
+			() -> mCompanyMapper.findAll(Constants.DB_FLG_FALSE), MCompany::getCompanyId);
+	/** 再読み込み用スレッド */
+	private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "master-data-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * コースリスト取得
+	 *
+	 * @return コースリスト（変更不可）
+	 */
+	public List<MCourse> getCourseList() {
+		return courseSnapshot.get().list;
+	}
+
+	/**
+	 * 会場リスト取得
+	 *
+	 * @return 会場リスト（変更不可）
+	 */
+	public List<MPlace> getPlaceList() {
+		return placeSnapshot.get().list;
+	}
+
+	/**
+	 * 企業リスト取得
+	 *
+	 * @return 企業リスト（変更不可）
+	 */
+	public List<MCompany> getCompanyList() {
+		return companySnapshot.get().list;
+	}
+
+	/**
+	 * 会場取得（MPlaceMapper#findByIdと同条件）
+	 *
+	 * @param placeId
+	 * @param hiddenFlg
+	 * @param deleteFlg
+	 * @return 会場（存在しない場合null）
+	 */
+	public MPlace getPlace(Integer placeId, Short hiddenFlg, Short deleteFlg) {
+		if (deleteFlg == null || deleteFlg != Constants.DB_FLG_FALSE) {
+			// 削除済データはキャッシュ対象外
+			return mPlaceMapper.findById(placeId, hiddenFlg, deleteFlg);
+		}
+		MPlace mPlace = placeSnapshot.get().map.get(placeId);
+		if (mPlace == null || !Objects.equals(mPlace.getHiddenFlg(), hiddenFlg)) {
+			return null;
+		}
+		return mPlace;
+	}
+
+	/**
+	 * 企業取得（削除されていない企業のみ）
+	 *
+	 * @param companyId
+	 * @return 企業（存在しない場合null）
+	 */
+	public MCompany getCompany(Integer companyId) {
+		return companySnapshot.get().map.get(companyId);
+	}
+
+	/**
+	 * コースマスタのキャッシュを破棄（コースマスタ変更時に呼び出す）
+	 */
+	public void invalidateCourse() {
+		courseSnapshot.invalidate();
+	}
+
+	/**
+	 * 会場マスタのキャッシュを破棄（会場マスタ変更時に呼び出す）
+	 */
+	public void invalidatePlace() {
+		placeSnapshot.invalidate();
+	}
+
+	/**
+	 * 企業マスタのキャッシュを破棄（企業マスタ変更時に呼び出す）
+	 */
+	public void invalidateCompany() {
+		companySnapshot.invalidate();
+	}
+
+	/**
+	 * 全マスタのキャッシュを破棄
+	 */
+	public void invalidateAll() {
+		courseSnapshot.invalidate();
+		placeSnapshot.invalidate();
+		companySnapshot.invalidate();
+	}
+
+	/**
+	 * キャッシュの統計情報を取得<br>
+	 * マスタ毎に件数(size)、読込からの経過ミリ秒(ageMillis)、読込回数(loadCount)を返却する。
+	 * 未読込の場合、件数と経過ミリ秒は-1とする。
+	 *
+	 * @return 統計情報（キー：マスタ名.項目名）
+	 */
+	public Map<String, Long> getMetrics() {
+		Map<String, Long> metrics = new LinkedHashMap<>();
+		for (Snapshot<?> snapshot : List.of(courseSnapshot, placeSnapshot, companySnapshot)) {
+			snapshot.putMetrics(metrics);
+		}
+		return metrics;
+	}
+
+	/**
+	 * 終了処理
+	 */
+	@PreDestroy
+	public void destroy() {
+		refreshExecutor.shutdownNow();
+	}
+
+	/**
+	 * マスタのスナップショット
+	 *
+	 * @param <T> エンティティ
+	 */
+	private class Snapshot<T> {
+
+		/** マスタ名 */
+		private final String name;
+		/** 読込処理 */
+		private final Supplier<List<T>> loader;
+		/** ID取得処理 */
+		private final Function<T, Integer> idGetter;
+		/** 保持データ */
+		private volatile Data<T> data;
+		/** 世代（破棄の度に加算し、破棄前に開始した読込結果を無効にする） */
+		private final AtomicLong generation = new AtomicLong();
+		/** 再読み込み中フラグ */
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+		/** 読込回数 */
+		private final LongAdder loadCount = new LongAdder();
+
+		private Snapshot(String name, Supplier<List<T>> loader, Function<T, Integer> idGetter) {
+			this.name = name;
+			this.loader = loader;
+			this.idGetter = idGetter;
+		}
+
+		/**
+		 * 保持データを取得（未読込の場合は読み込む）
+		 *
+		 * @return 保持データ
+		 */
+		private Data<T> get() {
+			Data<T> current = data;
+			if (current == null) {
+				synchronized (this) {
+					current = data;
+					if (current == null) {
+						current = load(generation.get());
+					}
+				}
+				return current;
+			}
+			if (current.loadTime + expireMinute * 60L * 1000L < System.currentTimeMillis()
+					&& refreshing.compareAndSet(false, true)) {
+				try {
+					refreshExecutor.execute(this::refresh);
+				} catch (RuntimeException e) {
+					refreshing.set(false);
+				}
+			}
+			return current;
+		}
+
+		/**
+		 * 裏で再読み込み
+		 */
+		private void refresh() {
+			try {
+				load(generation.get());
+			} catch (RuntimeException e) {
+				logger.warn("マスタデータの再読み込みに失敗しました。" + name, e);
+			} finally {
+				refreshing.set(false);
+			}
+		}
+
+		/**
+		 * 読み込み
+		 *
+		 * @param loadGeneration 読込開始時の世代
+		 * @return 読み込んだデータ
+		 */
+		private Data<T> load(long loadGeneration) {
+			List<T> list = List.copyOf(loader.get());
+			Map<Integer, T> map = new HashMap<>();
+			for (T entity : list) {
+				map.put(idGetter.apply(entity), entity);
+			}
+			Data<T> loaded = new Data<>(list, Collections.unmodifiableMap(map),
+					System.currentTimeMillis());
+			loadCount.increment();
+			synchronized (this) {
+				// 読込中に破棄された場合は保持しない
+				if (generation.get() == loadGeneration) {
+					data = loaded;
+				}
+			}
+			return loaded;
+		}
+
+		/**
+		 * 破棄
+		 */
+		private synchronized void invalidate() {
+			generation.incrementAndGet();
+			data = null;
+		}
+
+		/**
+		 * 統計情報を設定
+		 *
+		 * @param metrics
+		 */
+		private void putMetrics(Map<String, Long> metrics) {
+			Data<T> current = data;
+			metrics.put(name + ".size", current == null ? -1L : current.list.size());
+			metrics.put(name + ".ageMillis",
+					current == null ? -1L : System.currentTimeMillis() - current.loadTime);
+			metrics.put(name + ".loadCount", loadCount.sum());
+		}
+	}
+
+	/**
+	 * 保持データ
+	 *
+	 * @param <T> エンティティ
+	 */
+	private static class Data<T> {
+
+		/** リスト */
+		private final List<T> list;
+		/** ID毎のエンティティ */
+		private final Map<Integer, T> map;
+		/** 読込日時 */
+		private final long loadTime;
+
+		private Data(List<T> list, Map<Integer, T> map, long loadTime) {
+			this.list = list;
+			this.map = map;
+			this.loadTime = loadTime;
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package jp.co.sss.lms.util;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.LoginSessionDto;
+
+/**
+ * ログインセッションの保存先（メモリ）<br>
+ * 単一サーバー構成用。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+@ConditionalOnProperty(name = "setting.session.store", havingValue = "memory", matchIfMissing = true)
+public class MemoryLoginSessionStore implements LoginSessionStore {
+
+	/** セッションキー毎のログインセッション */
+	private final Map<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+	@Override
+	public LoginSessionDto find(String sessionKey) {
+		Entry entry = entryMap.get(sessionKey);
+		if (entry == null || entry.expireTime <= System.currentTimeMillis()) {
+			return null;
+		}
+		LoginSessionDto loginSessionDto = new LoginSessionDto();
+		loginSessionDto.setSessionKey(sessionKey);
+		loginSessionDto.setSessionData(entry.sessionData);
+		loginSessionDto.setExpireDate(new Date(entry.expireTime));
+		return loginSessionDto;
+	}
+
+	@Override
+	public void save(String sessionKey, byte[] sessionData, long expireTime) {
+		entryMap.put(sessionKey, new Entry(sessionData, expireTime));
+	}
+
+	@Override
+	public void touch(String sessionKey, long expireTime) {
+		entryMap.computeIfPresent(sessionKey, (key, entry) -> new Entry(entry.sessionData, expireTime));
+	}
+
+	@Override
+	public void delete(String sessionKey) {
+		entryMap.remove(sessionKey);
+	}
+
+	/**
+	 * 有効期限切れのログインセッションを破棄（1分毎に実行）
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void purge() {
+		long now = System.currentTimeMillis();
+		entryMap.values().removeIf(entry -> entry.expireTime <= now);
+	}
+
+	/**
+	 * ログインセッション（変更不可）
+	 */
+	private static class Entry {
+
+		private final byte[] sessionData;
+		private final long expireTime;
+
+		private Entry(byte[] sessionData, long expireTime) {
+			this.sessionData = sessionData;
+			this.expireTime = expireTime;
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package jp.co.sss.lms.util;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * ログイン失敗回数の保存先（メモリ）<br>
+ * 集計期間を一定数の区間に分け、区間毎の回数をCASで加算する（ロックを使用しない）。
+ * 単一サーバー構成用。<br>
+ * 存在しないログインIDを大量に試行された場合に備え、キー数が上限（setting.lock.memory.max）に達すると
+ * 集計期間を過ぎたキー、次に最後の失敗が古いキーから破棄する。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+@ConditionalOnProperty(name = "setting.lock.store", havingValue = "memory", matchIfMissing = true)
+public class MemoryLoginThrottleStore implements LoginThrottleStore {
+
+	/** 集計期間の分割数 */
+	private static final int BUCKET_SIZE = 8;
+	/** 区間内の回数に使用するビット数 */
+	private static final int COUNT_BITS = 16;
+	/** 区間内の回数の上限 */
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+	/** 保持するキー数の上限 */
+	@Value("${setting.lock.memory.max}")
+	private int maxKeys;
+
+	/** キー毎の失敗回数 */
+	private final Map<String, Window> windowMap = new ConcurrentHashMap<>();
+
+	@Override
+	public int increment(String key, long windowMillis) {
+		long now = System.currentTimeMillis();
+		Window window = windowMap.get(key);
+		if (window == null) {
+			if (windowMap.size() >= maxKeys) {
+				evict();
+			}
+			window = windowMap.computeIfAbsent(key, k -> new Window(windowMillis));
+		}
+		window.increment(now);
+		return window.count(now);
+	}
+
+	@Override
+	public int count(String key, long windowMillis) {
+		Window window = windowMap.get(key);
+		return window == null ? 0 : window.count(System.currentTimeMillis());
+	}
+
+	@Override
+	public void reset(String key) {
+		windowMap.remove(key);
+	}
+
+	/**
+	 * 集計期間を過ぎたキーを破棄（1分毎に実行）
+	 */
+	@Scheduled(fixedDelay = 60000)
+	public void purge() {
+		long now = System.currentTimeMillis();
+		windowMap.values().removeIf(window -> window.count(now) == 0);
+	}
+
+	/**
+	 * キー数を上限の9割まで減らす<br>
+	 * 集計期間を過ぎたキーを破棄し、なお超える場合は最後の失敗が古いキーから破棄する。
+	 */
+	private synchronized void evict() {
+		if (windowMap.size() < maxKeys) {
+			return;
+		}
+		purge();
+		int excess = windowMap.size() - maxKeys / 10 * 9;
+		if (excess <= 0) {
+			return;
+		}
+		windowMap.entrySet().stream()
+				.sorted(Comparator.comparingLong(
+						(Map.Entry<String, Window> entry) -> entry.getValue().lastMillis))
+				.limit(excess)
+				.map(Map.Entry::getKey)
+				.toList()
+				.forEach(windowMap::remove);
+	}
+
+	/**
+	 * 区間毎の失敗回数<br>
+	 * 各要素は区間番号（上位ビット）と回数（下位16ビット）を1つのlongに詰めて保持する。
+	 */
+	private static class Window {
+
+		/** 区間の長さ（ミリ秒） */
+		private final long bucketMillis;
+		/** 区間毎の回数 */
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_SIZE);
+		/** 最後に失敗を記録した日時 */
+		private volatile long lastMillis;
+
+		private Window(long windowMillis) {
+			this.bucketMillis = Math.max(1, windowMillis / BUCKET_SIZE);
+		}
+
+		private void increment(long now) {
+			lastMillis = now;
+			long bucket = now / bucketMillis;
+			int index = (int) (bucket % BUCKET_SIZE);
+			while (true) {
+				long value = buckets.get(index);
+				long next;
+				if (value >>> COUNT_BITS == bucket) {
+					if ((value & COUNT_MASK) == COUNT_MASK) {
+						return;
+					}
+					next = value + 1;
+				} else {
+					// 古い区間の回数は破棄して数え直す
+					next = (bucket << COUNT_BITS) | 1;
+				}
+				if (buckets.compareAndSet(index, value, next)) {
+					return;
+				}
+			}
+		}
+
+		private int count(long now) {
+			long bucket = now / bucketMillis;
+			int count = 0;
+			for (int i = 0; i < BUCKET_SIZE; i++) {
+				long value = buckets.get(i);
+				if (bucket - (value >>> COUNT_BITS) < BUCKET_SIZE) {
+					count += (int) (value & COUNT_MASK);
+				}
+			}
+			return count;
+		}
+	}
+
+}
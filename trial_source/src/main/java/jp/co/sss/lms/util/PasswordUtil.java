@@ -1,9 +1,11 @@
 package jp.co.sss.lms.util;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Random;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,7 +16,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class PasswordUtil {
 
-	private static int STRETCH_COUNT = 10;
+	/** ストレッチング回数（変更すると登録済のパスワードと一致しなくなる） */
+	@Value("${setting.password.stretch}")
+	private int stretchCount;
+
+	/** 16進数の文字 */
+	private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	/** スレッド毎のSHA-256（MessageDigestはスレッドセーフではないため） */
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	});
 
 	/** パスワードポリシー */
 	public final static String PASSWORD_POLICY = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])[0-9a-zA-Z\\-]{8,}$";
@@ -33,63 +49,73 @@ public class PasswordUtil {
 	 * @return getStretchedPassword()
 	 */
 	public String getSaltedAndStrechedPassword(String password, String userId) {
-		return getStretchedPassword(getSaltedPassword(password, userId), userId);
+		MessageDigest md = SHA256.get();
+		byte[] salt = getSha256(md, userId.getBytes(StandardCharsets.UTF_8));
+		byte[] saltedPassword = getSaltedPassword(md, salt, password);
+		return new String(getStretchedPassword(md, salt, saltedPassword), StandardCharsets.US_ASCII);
 	}
 
 	/**
 	 * salt＋ハッシュ化したパスワードを取得
 	 * 
+	 * @param md
+	 * @param salt     ユーザーIDのハッシュ値（16進数）
 	 * @param password
-	 * @param userId
-	 * @return getSha256()
+	 * @return ハッシュ値（16進数）
 	 * 
 	 */
-	private String getSaltedPassword(String password, String userId) {
-		String salt = getSha256(userId);
-		return getSha256(salt + password);
+	private byte[] getSaltedPassword(MessageDigest md, byte[] salt, String password) {
+		md.update(salt);
+		md.update(password.getBytes(StandardCharsets.UTF_8));
+		return toHex(md.digest());
 	}
 
 	/**
-	 * salt + ストレッチングしたパスワードを取得(推奨)
+	 * salt + ストレッチングしたパスワードを取得(推奨)<br>
+	 * 前回のハッシュ値＋salt＋パスワードのハッシュ化を繰り返す（初回の前回値は空）。
 	 * 
+	 * @param md
+	 * @param salt     ユーザーIDのハッシュ値（16進数）
 	 * @param password
-	 * @param userId
-	 * @return hash
+	 * @return ハッシュ値（16進数）
 	 */
-	private String getStretchedPassword(String password, String userId) {
-		String salt = getSha256(userId);
-		String hash = "";
-
-		for (int i = 0; i < STRETCH_COUNT; i++) {
-			hash = getSha256(hash + salt + password);
+	private byte[] getStretchedPassword(MessageDigest md, byte[] salt, byte[] password) {
+		byte[] hash = new byte[0];
+
+		for (int i = 0; i < stretchCount; i++) {
+			md.update(hash);
+			md.update(salt);
+			md.update(password);
+			hash = toHex(md.digest());
 		}
 
 		return hash;
 	}
 
 	/**
-	 * 文字列から SHA256 のハッシュ値を取得
+	 * バイト列から SHA256 のハッシュ値を取得
 	 * 
+	 * @param md
 	 * @param target
-	 * @return SHA256 のハッシュ値
+	 * @return SHA256 のハッシュ値（16進数）
 	 */
-	private String getSha256(String target) {
-		MessageDigest md = null;
-		StringBuffer buf = new StringBuffer();
-		try {
-			md = MessageDigest.getInstance("SHA-256");
-			md.update(target.getBytes());
-			byte[] digest = md.digest();
-
-			for (int i = 0; i < digest.length; i++) {
-				buf.append(String.format("%02x", digest[i]));
-			}
+	private byte[] getSha256(MessageDigest md, byte[] target) {
+		return toHex(md.digest(target));
+	}
 
-		} catch (NoSuchAlgorithmException e) {
-			throw new RuntimeException(e);
+	/**
+	 * バイト列を16進数（小文字）のASCIIバイト列に変換
+	 * 
+	 * @param bytes
+	 * @return 16進数のバイト列
+	 */
+	private static byte[] toHex(byte[] bytes) {
+		byte[] hex = new byte[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
 		}
-
-		return buf.toString();
+		return hex;
 	}
 
 	/**
@@ -0,0 +1,151 @@
+package jp.co.sss.lms.util;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * リクエスト計測値<br>
+ * ハンドラー（コントローラーのメソッド）毎に処理時間・処理中件数・件数・エラー件数を保持する。
+ * 同じURIパターンでもパラメータで振り分けるハンドラー（打刻の出勤・退勤など）は別に数える。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class RequestMetrics {
+
+	/** ハンドラー毎の計測値 */
+	private final Map<Method, Endpoint> endpointMap = new ConcurrentHashMap<>();
+
+	/**
+	 * ハンドラーの計測値を取得（初回は作成）
+	 *
+	 * @param handlerMethod
+	 * @param request       URIパターンの取得用
+	 * @return 計測値
+	 */
+	public Endpoint getEndpoint(HandlerMethod handlerMethod, HttpServletRequest request) {
+		Endpoint endpoint = endpointMap.get(handlerMethod.getMethod());
+		if (endpoint != null) {
+			return endpoint;
+		}
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String handler = handlerMethod.getBeanType().getSimpleName() + "."
+				+ handlerMethod.getMethod().getName();
+		return endpointMap.computeIfAbsent(handlerMethod.getMethod(),
+				method -> new Endpoint(handler, pattern == null ? "" : pattern.toString()));
+	}
+
+	/**
+	 * 全ハンドラーの計測値を取得
+	 *
+	 * @return 計測値
+	 */
+	public Collection<Endpoint> getEndpoints() {
+		return endpointMap.values();
+	}
+
+	/**
+	 * ハンドラー毎の計測値
+	 */
+	public static class Endpoint {
+
+		/** ハンドラー名（クラス名.メソッド名） */
+		private final String handler;
+		/** URIパターン（初回のリクエストで一致したもの） */
+		private final String pattern;
+		/** 処理時間 */
+		private final LatencyHistogram histogram = new LatencyHistogram();
+		/** 処理中件数 */
+		private final LongAdder inFlight = new LongAdder();
+		/** エラー件数 */
+		private final LongAdder errorCount = new LongAdder();
+
+		private Endpoint(String handler, String pattern) {
+			this.handler = handler;
+			this.pattern = pattern;
+		}
+
+		/**
+		 * 処理開始
+		 */
+		public void begin() {
+			inFlight.increment();
+		}
+
+		/**
+		 * 処理終了
+		 *
+		 * @param nanos 処理時間（ナノ秒）
+		 * @param error サーバーエラー・例外の場合true
+		 */
+		public void end(long nanos, boolean error) {
+			inFlight.decrement();
+			histogram.record(nanos / 1000L);
+			if (error) {
+				errorCount.increment();
+			}
+		}
+
+		/**
+		 * 処理中止（処理時間を記録しない）
+		 */
+		public void cancel() {
+			inFlight.decrement();
+		}
+
+		/**
+		 * ハンドラー名を取得
+		 *
+		 * @return クラス名.メソッド名
+		 */
+		public String getHandler() {
+			return handler;
+		}
+
+		/**
+		 * URIパターンを取得
+		 *
+		 * @return URIパターン
+		 */
+		public String getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * 処理時間を取得
+		 *
+		 * @return 処理時間ヒストグラム
+		 */
+		public LatencyHistogram getHistogram() {
+			return histogram;
+		}
+
+		/**
+		 * 処理中件数を取得
+		 *
+		 * @return 処理中件数
+		 */
+		public long getInFlight() {
+			return inFlight.sum();
+		}
+
+		/**
+		 * エラー件数を取得
+		 *
+		 * @return エラー件数
+		 */
+		public long getErrorCount() {
+			return errorCount.sum();
+		}
+	}
+
+}
@@ -1,8 +1,7 @@
 package jp.co.sss.lms.util;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalTime;
 
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -23,6 +22,23 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	/** シリアルバージョンUID */
 	private static final long serialVersionUID = 1L;
 
+	/** 未設定を表す分数 */
+	public static final short BLANK_MINUTES = -1;
+	/** 1日の分数 */
+	private static final int MINUTES_OF_DAY = 24 * 60;
+	/** 0:00～23:59のHH:mm形式文字列（分数をインデックスとする） */
+	private static final String[] FORMATTED_STRINGS = new String[MINUTES_OF_DAY];
+
+	static {
+		for (int i = 0; i < MINUTES_OF_DAY; i++) {
+			int hour = i / 60;
+			int minute = i % 60;
+			FORMATTED_STRINGS[i] = new String(new char[] { (char) ('0' + hour / 10),
+					(char) ('0' + hour % 10), ':', (char) ('0' + minute / 10),
+					(char) ('0' + minute % 10) });
+		}
+	}
+
 	/** 時間 */
 	private Integer hour;
 	/** 分 */
@@ -38,9 +54,9 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * 現在時刻でインスタンスを作成する
 	 */
 	public TrainingTime() {
-		SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-		String timeStr = sdf.format(new Date());
-		setTimeStr(timeStr);
+		int minutes = nowMinutes();
+		this.hour = minutes / 60;
+		this.minute = minutes % 60;
 	}
 
 	/**
@@ -67,27 +83,7 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 		if (StringUtils.isEmpty(timeStr)) {
 			return true;
 		}
-		Integer hour, minute;
-		if (timeStr.indexOf(":") >= 0) {
-			String[] times = timeStr.split(":");
-			final String numRegex = "[0-9]+";
-			if (times.length == 2 && times[0].matches(numRegex) && times[1].matches(numRegex)) {
-				hour = Integer.parseInt(times[0]);
-				minute = Integer.parseInt(times[1]);
-				return isValidTrainingTime(hour, minute);
-			} else {
-				return false;
-			}
-		} else if (timeStr.matches("[0-9]{4}")) {
-			// 数値4桁の場合
-			String hourStr = timeStr.substring(0, 2);
-			String minuteStr = timeStr.substring(2, 4);
-			hour = Integer.parseInt(hourStr);
-			minute = Integer.parseInt(minuteStr);
-			return isValidTrainingTime(hour, minute);
-		} else {
-			return false;
-		}
+		return scanMinutes(timeStr) != Integer.MIN_VALUE;
 	}
 
 	/**
@@ -125,31 +121,123 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * @param timeStr
 	 */
 	private void setTimeStr(String timeStr) {
-		// 有効フォーマットかどうかチェックを行う
-		if (!isValidTrainingTime(timeStr)) {
+		int minutes = parseMinutes(timeStr);
+		this.hour = minutes / 60;
+		this.minute = minutes % 60;
+	}
+
+	/**
+	 * 時刻文字列を0:00からの分数に変換する。 有効フォーマット："9:00", "18:00", "0900", "1800"<br>
+	 * 文字列の分割や正規表現を使用せず、1文字ずつ解析する。
+	 *
+	 * @param timeStr
+	 * @return 0:00からの分数（空の場合{@link #BLANK_MINUTES}）
+	 * @throws IllegalArgumentException 有効フォーマットでない場合
+	 */
+	public static int parseMinutes(String timeStr) {
+		if (!StringUtils.hasLength(timeStr)) {
+			return BLANK_MINUTES;
+		}
+		int minutes = scanMinutes(timeStr);
+		if (minutes == Integer.MIN_VALUE) {
 			throw new IllegalArgumentException(timeStr + " is Illegal.");
 		}
-		Integer hour, minute;
-		if (timeStr.indexOf(":") >= 0) {
-			String[] times = timeStr.split(":");
-			// isValidTrainingTimeでチェック済のためそのまま変換する
-			hour = Integer.parseInt(times[0]);
-			minute = Integer.parseInt(times[1]);
-		} else if (timeStr.matches("[0-9]{4}")) {
+		return minutes;
+	}
+
+	/**
+	 * 時刻文字列を0:00からの分数に変換する（前後の空白は除去し、不正な値は未設定として扱う）。
+	 *
+	 * @param timeStr
+	 * @return 0:00からの分数（空・不正な場合{@link #BLANK_MINUTES}）
+	 */
+	public static int parseMinutesOrBlank(String timeStr) {
+		try {
+			return parseMinutes(timeStr == null ? null : timeStr.trim());
+		} catch (IllegalArgumentException e) {
+			return BLANK_MINUTES;
+		}
+	}
+
+	/**
+	 * 0:00からの分数をHH:mm形式で返却<br>
+	 * 0:00～23:59は事前に生成した文字列を返却する。
+	 *
+	 * @param minutes 0:00からの分数
+	 * @return HH:mm（{@link #BLANK_MINUTES}等の負数の場合空文字）
+	 */
+	public static String formatMinutes(int minutes) {
+		if (minutes < 0) {
+			return "";
+		}
+		if (minutes < MINUTES_OF_DAY) {
+			return FORMATTED_STRINGS[minutes];
+		}
+		return String.format("%1$02d:%2$02d", minutes / 60, minutes % 60);
+	}
+
+	/**
+	 * 現在時刻の0:00からの分数を取得
+	 *
+	 * @return 0:00からの分数
+	 */
+	public static int nowMinutes() {
+		LocalTime now = LocalTime.now();
+		return now.getHour() * 60 + now.getMinute();
+	}
+
+	/**
+	 * 時刻文字列を0:00からの分数に変換する
+	 *
+	 * @param timeStr 空でない時刻文字列
+	 * @return 0:00からの分数（有効フォーマットでない場合Integer.MIN_VALUE）
+	 */
+	private static int scanMinutes(String timeStr) {
+		int length = timeStr.length();
+		int colon = timeStr.indexOf(':');
+		int hour, minute;
+		if (colon >= 0) {
+			// "H:mm"形式の場合、コロンの前後が数字のみであること
+			// 末尾のコロンは無視する（従来のString#splitと同じ扱い）
+			while (length > colon + 1 && timeStr.charAt(length - 1) == ':') {
+				length--;
+			}
+			hour = parseDigits(timeStr, 0, colon);
+			minute = parseDigits(timeStr, colon + 1, length);
+		} else if (length == 4) {
 			// 数値4桁の場合
-			String hourStr = timeStr.substring(0, 2);
-			String minuteStr = timeStr.substring(2, 4);
-			hour = Integer.parseInt(hourStr);
-			minute = Integer.parseInt(minuteStr);
+			hour = parseDigits(timeStr, 0, 2);
+			minute = parseDigits(timeStr, 2, 4);
 		} else {
-			throw new IllegalArgumentException();
+			return Integer.MIN_VALUE;
 		}
-		// 数値的なチェックを行う
-		if (!isValidTrainingTime(hour, minute)) {
-			throw new IllegalArgumentException();
+		if (hour < 0 || minute < 0 || minute > 59 || hour > (Short.MAX_VALUE - 59) / 60) {
+			return Integer.MIN_VALUE;
 		}
-		this.hour = hour;
-		this.minute = minute;
+		return hour * 60 + minute;
+	}
+
+	/**
+	 * 文字列の指定範囲を数値に変換する
+	 *
+	 * @param str
+	 * @param begin 開始位置
+	 * @param end   終了位置（この位置を含まない）
+	 * @return 数値（空、数字以外を含む、桁あふれの場合-1）
+	 */
+	private static int parseDigits(String str, int begin, int end) {
+		if (begin >= end) {
+			return -1;
+		}
+		int value = 0;
+		for (int i = begin; i < end; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9' || value > Short.MAX_VALUE) {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
 	}
 
 	/**
@@ -314,11 +402,25 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	public String getFormattedString() {
 		if (hour == null || minute == null) {
 			return "";
+		} else if (hour >= 0 && minute >= 0 && minute < 60) {
+			return formatMinutes(hour * 60 + minute);
 		} else {
 			return String.format("%1$02d:%2$02d", hour, minute);
 		}
 	}
 
+	/**
+	 * 時刻を0:00からの分数で返却
+	 * 
+	 * @return 0:00からの分数（未設定の場合{@link #BLANK_MINUTES}）
+	 */
+	public int toMinutes() {
+		if (hour == null || minute == null) {
+			return BLANK_MINUTES;
+		}
+		return hour * 60 + minute;
+	}
+
 	/**
 	 * 分を15分刻みで切り上げる。出社に仕様
 	 * 
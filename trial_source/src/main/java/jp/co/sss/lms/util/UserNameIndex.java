@@ -0,0 +1,247 @@
+package jp.co.sss.lms.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jp.co.sss.lms.entity.MUser;
+import jp.co.sss.lms.mapper.MUserMapper;
+
+/**
+ * 受講生名インデックス<br>
+ * 受講生のユーザー名を正規化し、1文字・2文字単位（N-gram）の索引で部分一致検索する。<br>
+ * 正規化では全角半角・大文字小文字・カタカナひらがなの違いと空白を無視する。
+ * 有効期限を過ぎた場合は保持中の索引で検索しつつ裏で再作成する。<br>
+ * 受講生の登録・氏名変更はこのアプリケーションの外で行われるため、索引へは再作成時に反映される。
+ * 登録・変更した受講生は、有効期限（setting.search.user.minute）と再作成に要する時間の間、
+ * 検索結果に反映されない（変更前の氏名で検索される）ことがある。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class UserNameIndex {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private MUserMapper mUserMapper;
+
+	@Value("${setting.search.user.minute}")
+	private Integer expireMinute;
+
+	/** 保持中の索引 */
+	private volatile Index index;
+	/** 再作成中フラグ */
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	/** 再作成用スレッド */
+	private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "user-name-index-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * ユーザー名の部分一致検索
+	 *
+	 * @param keyword 検索キーワード
+	 * @return 一致したユーザーIDの昇順配列（キーワードが空の場合null）
+	 */
+	public int[] search(String keyword) {
+		String normalized = normalize(keyword);
+		if (normalized.isEmpty()) {
+			return null;
+		}
+		Index current = getIndex();
+		// 最も件数の少ないN-gramの候補のみを照合する
+		int[] candidates = null;
+		int gramLength = Math.min(normalized.length(), 2);
+		for (int i = 0; i + gramLength <= normalized.length(); i++) {
+			int[] postings = current.gramMap.get(normalized.substring(i, i + gramLength));
+			if (postings == null) {
+				return new int[0];
+			}
+			if (candidates == null || postings.length < candidates.length) {
+				candidates = postings;
+			}
+		}
+		int[] userIds = new int[candidates.length];
+		int size = 0;
+		for (int position : candidates) {
+			if (current.names[position].contains(normalized)) {
+				userIds[size++] = current.userIds[position];
+			}
+		}
+		return Arrays.copyOf(userIds, size);
+	}
+
+	/**
+	 * 索引の件数を取得
+	 *
+	 * @return 件数（未作成の場合-1）
+	 */
+	public int getSize() {
+		Index current = index;
+		return current == null ? -1 : current.userIds.length;
+	}
+
+	/**
+	 * 終了処理
+	 */
+	@PreDestroy
+	public void destroy() {
+		refreshExecutor.shutdownNow();
+	}
+
+	/**
+	 * 検索用に文字列を正規化
+	 *
+	 * @param value
+	 * @return 正規化後の文字列
+	 */
+	public static String normalize(String value) {
+		if (value == null) {
+			return "";
+		}
+		String nfkc = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase();
+		StringBuilder sb = new StringBuilder(nfkc.length());
+		for (int i = 0; i < nfkc.length(); i++) {
+			char c = nfkc.charAt(i);
+			if (Character.isWhitespace(c)) {
+				continue;
+			}
+			// カタカナはひらがなに寄せる
+			if (c >= 'ァ' && c <= 'ヶ') {
+				c = (char) (c - 'ァ' + 'ぁ');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 索引を取得（未作成の場合は作成する）
+	 *
+	 * @return 索引
+	 */
+	private Index getIndex() {
+		Index current = index;
+		if (current == null) {
+			synchronized (this) {
+				current = index;
+				if (current == null) {
+					current = build();
+				}
+			}
+			return current;
+		}
+		if (current.buildTime + expireMinute * 60L * 1000L < System.currentTimeMillis()
+				&& refreshing.compareAndSet(false, true)) {
+			try {
+				refreshExecutor.execute(() -> {
+					try {
+						build();
+					} catch (RuntimeException e) {
+						logger.warn("受講生名インデックスの再作成に失敗しました。", e);
+					} finally {
+						refreshing.set(false);
+					}
+				});
+			} catch (RuntimeException e) {
+				refreshing.set(false);
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * 索引を作成
+	 *
+	 * @return 索引
+	 */
+	private Index build() {
+		List<MUser> userList = mUserMapper.getUserNameList(Constants.CODE_VAL_ROLL_STUDENT,
+				Constants.DB_FLG_FALSE);
+		int[] userIds = new int[userList.size()];
+		String[] names = new String[userList.size()];
+		Map<String, int[]> gramMap = new HashMap<>();
+		Map<String, Integer> gramSizeMap = new HashMap<>();
+		for (int i = 0; i < userList.size(); i++) {
+			userIds[i] = userList.get(i).getUserId();
+			names[i] = normalize(userList.get(i).getUserName());
+			String name = names[i];
+			for (int j = 0; j < name.length(); j++) {
+				addPosting(gramMap, gramSizeMap, name.substring(j, j + 1), i);
+				if (j + 2 <= name.length()) {
+					addPosting(gramMap, gramSizeMap, name.substring(j, j + 2), i);
+				}
+			}
+		}
+		for (Map.Entry<String, int[]> entry : gramMap.entrySet()) {
+			entry.setValue(Arrays.copyOf(entry.getValue(), gramSizeMap.get(entry.getKey())));
+		}
+		Index built = new Index(userIds, names, gramMap, System.currentTimeMillis());
+		index = built;
+		logger.debug("受講生名インデックスを作成しました。件数：" + userIds.length);
+		return built;
+	}
+
+	/**
+	 * N-gramに位置を追加（同じ名前内の重複は1件とする）
+	 *
+	 * @param gramMap
+	 * @param gramSizeMap
+	 * @param gram
+	 * @param position
+	 */
+	private void addPosting(Map<String, int[]> gramMap, Map<String, Integer> gramSizeMap,
+			String gram, int position) {
+		int[] postings = gramMap.get(gram);
+		int size = gramSizeMap.getOrDefault(gram, 0);
+		if (postings == null) {
+			postings = new int[4];
+			gramMap.put(gram, postings);
+		} else if (postings[size - 1] == position) {
+			return;
+		} else if (size == postings.length) {
+			postings = Arrays.copyOf(postings, size * 2);
+			gramMap.put(gram, postings);
+		}
+		postings[size] = position;
+		gramSizeMap.put(gram, size + 1);
+	}
+
+	/**
+	 * 索引
+	 */
+	private static class Index {
+
+		/** ユーザーID（昇順） */
+		private final int[] userIds;
+		/** 正規化後のユーザー名 */
+		private final String[] names;
+		/** N-gram毎の位置（昇順） */
+		private final Map<String, int[]> gramMap;
+		/** 作成日時 */
+		private final long buildTime;
+
+		private Index(int[] userIds, String[] names, Map<String, int[]> gramMap, long buildTime) {
+			this.userIds = userIds;
+			this.names = names;
+			this.gramMap = gramMap;
+			this.buildTime = buildTime;
+		}
+	}
+
+}
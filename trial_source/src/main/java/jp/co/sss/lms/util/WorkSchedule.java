@@ -0,0 +1,150 @@
+package jp.co.sss.lms.util;
+
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+
+/**
+ * 勤務スケジュール<br>
+ * 定時と休憩時間を0:00からの分数で保持する。変更不可のため共有してよい。
+ *
+ * @author 東京ITスクール
+ */
+public final class WorkSchedule {
+
+	/** SSS定時のスケジュール */
+	public static final WorkSchedule DEFAULT = new WorkSchedule(
+			Constants.SSS_WORK_START_TIME.toMinutes(), Constants.SSS_WORK_END_TIME.toMinutes(),
+			Constants.SSS_REST_START_TIME.toMinutes(), Constants.SSS_REST_END_TIME.toMinutes());
+
+	/** 定時開始時刻 */
+	private final int workStartMinutes;
+	/** 定時終了時刻 */
+	private final int workEndMinutes;
+	/** 休憩開始時刻 */
+	private final int restStartMinutes;
+	/** 休憩終了時刻 */
+	private final int restEndMinutes;
+
+	private WorkSchedule(int workStartMinutes, int workEndMinutes, int restStartMinutes,
+			int restEndMinutes) {
+		this.workStartMinutes = workStartMinutes;
+		this.workEndMinutes = workEndMinutes;
+		this.restStartMinutes = restStartMinutes;
+		this.restEndMinutes = restEndMinutes;
+	}
+
+	/**
+	 * HH:mm形式の時刻からスケジュールを作成<br>
+	 * 定時・休憩時間はそれぞれ開始・終了の組で判定し、未設定または不正な場合は基準のスケジュールの値を使用する。
+	 *
+	 * @param workStartTime 定時開始時刻
+	 * @param workEndTime   定時終了時刻
+	 * @param restStartTime 休憩開始時刻
+	 * @param restEndTime   休憩終了時刻
+	 * @param base          基準のスケジュール
+	 * @return スケジュール
+	 */
+	public static WorkSchedule compile(String workStartTime, String workEndTime,
+			String restStartTime, String restEndTime, WorkSchedule base) {
+		int workStart = TrainingTime.parseMinutesOrBlank(workStartTime);
+		int workEnd = TrainingTime.parseMinutesOrBlank(workEndTime);
+		if (workStart < 0 || workEnd < 0 || workStart > workEnd) {
+			workStart = base.workStartMinutes;
+			workEnd = base.workEndMinutes;
+		}
+		int restStart = TrainingTime.parseMinutesOrBlank(restStartTime);
+		int restEnd = TrainingTime.parseMinutesOrBlank(restEndTime);
+		if (restStart < 0 || restEnd < 0 || restStart > restEnd) {
+			restStart = base.restStartMinutes;
+			restEnd = base.restEndMinutes;
+		}
+		if (workStart == base.workStartMinutes && workEnd == base.workEndMinutes
+				&& restStart == base.restStartMinutes && restEnd == base.restEndMinutes) {
+			return base;
+		}
+		return new WorkSchedule(workStart, workEnd, restStart, restEnd);
+	}
+
+	/**
+	 * 出退勤時刻（0:00からの分数）を元に、遅刻早退を判定する
+	 *
+	 * @param trainingStartMinutes 開始時刻（未設定の場合{@link TrainingTime#BLANK_MINUTES}）
+	 * @param trainingEndMinutes   終了時刻（未設定の場合{@link TrainingTime#BLANK_MINUTES}）
+	 * @return 判定結果
+	 */
+	public AttendanceStatusEnum getStatus(int trainingStartMinutes, int trainingEndMinutes) {
+		// 定時が不明な場合、NONEを返却する
+		if (workStartMinutes < 0 || workEndMinutes < 0) {
+			return AttendanceStatusEnum.NONE;
+		}
+		// 定時より1分以上遅く出社していたら遅刻(＝はセーフ)
+		boolean isLate = trainingStartMinutes >= 0 && trainingStartMinutes > workStartMinutes;
+		// 定時より1分以上早く退社していたら早退(＝はセーフ)
+		boolean isEarly = trainingEndMinutes >= 0 && trainingEndMinutes < workEndMinutes;
+		if (isLate && isEarly) {
+			return AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY;
+		}
+		if (isLate) {
+			return AttendanceStatusEnum.TARDY;
+		}
+		if (isEarly) {
+			return AttendanceStatusEnum.LEAVING_EARLY;
+		}
+		return AttendanceStatusEnum.NONE;
+	}
+
+	/**
+	 * 出退勤時刻（0:00からの分数）から休憩時間と中抜け時間を除いた正味の受講時間数を算出
+	 *
+	 * @param trainingStartMinutes 開始時刻
+	 * @param trainingEndMinutes   終了時刻
+	 * @param blankTime            中抜け時間（分）
+	 * @return 受講時間数（分、出退勤時刻のいずれかが未設定の場合{@link TrainingTime#BLANK_MINUTES}）
+	 */
+	public int getNetMinutes(int trainingStartMinutes, int trainingEndMinutes, Integer blankTime) {
+		if (trainingStartMinutes < 0 || trainingEndMinutes < trainingStartMinutes) {
+			return TrainingTime.BLANK_MINUTES;
+		}
+		int restMinutes = Math.max(0, Math.min(trainingEndMinutes, restEndMinutes)
+				- Math.max(trainingStartMinutes, restStartMinutes));
+		int netMinutes = trainingEndMinutes - trainingStartMinutes - restMinutes
+				- (blankTime == null ? 0 : blankTime);
+		return Math.max(0, netMinutes);
+	}
+
+	/**
+	 * 定時開始時刻を取得
+	 *
+	 * @return 0:00からの分数
+	 */
+	public int getWorkStartMinutes() {
+		return workStartMinutes;
+	}
+
+	/**
+	 * 定時終了時刻を取得
+	 *
+	 * @return 0:00からの分数
+	 */
+	public int getWorkEndMinutes() {
+		return workEndMinutes;
+	}
+
+	/**
+	 * 休憩開始時刻を取得
+	 *
+	 * @return 0:00からの分数
+	 */
+	public int getRestStartMinutes() {
+		return restStartMinutes;
+	}
+
+	/**
+	 * 休憩終了時刻を取得
+	 *
+	 * @return 0:00からの分数
+	 */
+	public int getRestEndMinutes() {
+		return restEndMinutes;
+	}
+
+}
@@ -0,0 +1,132 @@
+package jp.co.sss.lms.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.AttendanceRecalcDto;
+import jp.co.sss.lms.entity.MCompany;
+import jp.co.sss.lms.entity.TUserCompany;
+import jp.co.sss.lms.mapper.MLmsUserMapper;
+
+/**
+ * 勤務スケジュール解決クラス<br>
+ * SSS定時を基準に、企業マスタに定時・休憩時間が設定されている場合はその値で上書きしたスケジュールを返却する。<br>
+ * 作成したスケジュールは企業毎に保持し、企業マスタのキャッシュが読み込み直された場合に作成し直す。
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class WorkScheduleEngine {
+
+	@Autowired
+	private MasterDataCache masterDataCache;
+	@Autowired
+	private MLmsUserMapper mLmsUserMapper;
+
+	/** 企業ID毎のスケジュール */
+	private final Map<Integer, Compiled> scheduleMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 企業の勤務スケジュールを取得
+	 *
+	 * @param companyId 企業ID（未所属の場合null）
+	 * @return 勤務スケジュール
+	 */
+	public WorkSchedule resolve(Integer companyId) {
+		if (companyId == null) {
+			return WorkSchedule.DEFAULT;
+		}
+		MCompany mCompany = masterDataCache.getCompany(companyId);
+		if (mCompany == null) {
+			return WorkSchedule.DEFAULT;
+		}
+		Compiled compiled = scheduleMap.get(companyId);
+		// キャッシュが読み込み直された場合は別インスタンスになるため、参照の一致で判定する
+		if (compiled == null || compiled.source != mCompany) {
+			compiled = new Compiled(mCompany,
+					WorkSchedule.compile(mCompany.getWorkStartTime(), mCompany.getWorkEndTime(),
+							mCompany.getRestStartTime(), mCompany.getRestEndTime(),
+							WorkSchedule.DEFAULT));
+			scheduleMap.put(companyId, compiled);
+		}
+		return compiled.schedule;
+	}
+
+	/**
+	 * 受講生毎の勤務スケジュールを一括取得
+	 *
+	 * @param lmsUserIdList
+	 * @return LMSユーザーID毎の勤務スケジュール（企業未所属の受講生は含まない）
+	 */
+	public Map<Integer, WorkSchedule> resolveByLmsUserId(List<Integer> lmsUserIdList) {
+		Map<Integer, WorkSchedule> result = new HashMap<>();
+		if (lmsUserIdList == null || lmsUserIdList.isEmpty()) {
+			return result;
+		}
+		List<TUserCompany> userCompanyList = mLmsUserMapper.getUserCompanyList(lmsUserIdList,
+				Constants.DB_FLG_FALSE);
+		for (TUserCompany tUserCompany : userCompanyList) {
+			result.put(tUserCompany.getLmsUserId(), resolve(tUserCompany.getCompanyId()));
+		}
+		return result;
+	}
+
+	/**
+	 * 勤怠情報のステータスを一括計算
+	 *
+	 * @param attendanceRecalcDtoList 勤怠ステータス再計算DTOリスト（企業ID順だと効率がよい）
+	 * @return ステータスが変化した勤怠ステータス再計算DTOリスト
+	 */
+	public List<AttendanceRecalcDto> recalc(List<AttendanceRecalcDto> attendanceRecalcDtoList) {
+		List<AttendanceRecalcDto> changedList = new ArrayList<>();
+		Integer companyId = null;
+		WorkSchedule schedule = WorkSchedule.DEFAULT;
+		boolean first = true;
+		for (AttendanceRecalcDto dto : attendanceRecalcDtoList) {
+			if (first || !Objects.equals(companyId, dto.getCompanyId())) {
+				companyId = dto.getCompanyId();
+				schedule = resolve(companyId);
+				first = false;
+			}
+			int startMinutes = TrainingTime.parseMinutesOrBlank(dto.getTrainingStartTime());
+			int endMinutes = TrainingTime.parseMinutesOrBlank(dto.getTrainingEndTime());
+			Short status = schedule.getStatus(startMinutes, endMinutes).code;
+			if (!Objects.equals(status, dto.getStatus())) {
+				dto.setStatus(status);
+				changedList.add(dto);
+			}
+		}
+		return changedList;
+	}
+
+	/**
+	 * 保持中のスケジュールを破棄
+	 */
+	public void invalidate() {
+		scheduleMap.clear();
+	}
+
+	/**
+	 * 作成済みスケジュール
+	 */
+	private static class Compiled {
+
+		/** 作成元の企業 */
+		private final MCompany source;
+		/** スケジュール */
+		private final WorkSchedule schedule;
+
+		private Compiled(MCompany source, WorkSchedule schedule) {
+			this.source = source;
+			this.schedule = schedule;
+		}
+	}
+
+}
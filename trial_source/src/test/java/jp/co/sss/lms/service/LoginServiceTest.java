@@ -25,6 +25,7 @@ import jp.co.sss.lms.mapper.LoginMapper;
 import jp.co.sss.lms.mapper.MUserMapper;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginThrottle;
 import jp.co.sss.lms.util.MessageUtil;
 import jp.co.sss.lms.util.PasswordUtil;
 
@@ -52,6 +53,8 @@ public class LoginServiceTest {
 	private PasswordUtil passwordUtil;
 	@Mock
 	private LoginMapper loginMapper;
+	@Mock
+	private LoginThrottle loginThrottle;
 	
 	@InjectMocks
 	private LoginService loginService;
@@ -471,6 +474,99 @@ public class LoginServiceTest {
 		assertEquals(expected, actual);
 	}
 
+    /**
+	 * Case.1_10 ログインサービス試験　ログイン処理_試行制限中<br>
+	 * <br>
+	 * ■対象メソッド：getLoginInfo()<br>
+	 * ■試験パラメータ：
+	 * 　・ログインID：任意<br>
+	 *　　・パスワード：任意<br>
+	 * 　・(モック)ログイン試行制限：拒否中<br>
+	 * ■試験観点：<br>
+	 * 　・正常終了すること<br>
+	 * 　・メッセージ出力：「規定の回数を超えたため、アカウントにロックがかかりました。しばらくたってから再度お試しください。」であること<br>
+	 * 　・パスワードのハッシュ化・ログイン情報の取得・失敗の記録が行われないこと<br>
+	 * 
+	 * */
+	@Test
+	public void testCase1_10(){
+
+		// メソッド実行に必要な引数のパラメータ設定
+		String loginId = "loginThrottledId";
+		String password = "password";
+		
+		// ログインユーザーDTO（セッション）に必要な値を対象メソッドのフィールドに格納
+		loginUserDto.setPasswordNgCount(0);
+		loginUserDto.setPasswordNgDate("");
+		ReflectionTestUtils.setField(loginService, "loginUserDto", loginUserDto);
+		
+		// モック対象メソッドの返却値を設定
+		when(loginThrottle.isLocked(loginId)).thenReturn(true); // ログイン試行制限のモック
+		
+		// 期待値の設定
+		String expected = messageUtil.getMessage(Constants.VALID_KEY_LOGIN_LOCK);
+		
+		// 試験実行
+		String actual = loginService.getLoginInfo(loginId, password);
+		
+		//　検証処理
+		assertEquals(expected, actual);
+		verify(passwordUtil, never()).getSaltedAndStrechedPassword(anyString(), anyString());
+		verify(loginMapper, never()).getLoginDetailByLoginIdAndPassword(anyString(), anyString(), anyShort());
+		verify(loginThrottle, never()).recordFailure(anyString());
+	}
+	
+    /**
+	 * Case.1_11 ログインサービス試験　ログイン処理_試行制限到達<br>
+	 * <br>
+	 * ■対象メソッド：getLoginInfo()<br>
+	 * ■試験パラメータ：
+	 * 　・ログインID：任意<br>
+	 *　　・パスワード：任意<br>
+	 * 　・ログインユーザーDTO.パスワードNGカウント:0<br>
+	 * 　・(モック)ログインユーザーエンティティ：null<br>
+	 * 　・(モック)ログイン試行制限：失敗の記録により上限到達<br>
+	 * ■試験観点：<br>
+	 * 　・正常終了すること<br>
+	 * 　・メッセージ出力：「規定の回数を超えたため、アカウントにロックがかかりました。しばらくたってから再度お試しください。」であること<br>
+	 * 　・ログインユーザーDTO.パスワードNGカウント：1であること<br>
+	 * 　・ログイン失敗が記録されること<br>
+	 * 
+	 * */
+	@Test
+	public void testCase1_11(){
+
+		// メソッド実行に必要な引数のパラメータ設定
+		String loginId = "loginLockedId";
+		String password = "password";
+		
+		// ログインユーザーDTO（セッション）に必要な値を対象メソッドのフィールドに格納
+		loginUserDto.setPasswordNgCount(0);
+		loginUserDto.setPasswordNgDate("");
+		ReflectionTestUtils.setField(loginService, "loginUserDto", loginUserDto);
+		
+		// モック対象メソッドの返却値を設定
+		when(loginThrottle.isLocked(loginId)).thenReturn(false); // ログイン試行制限のモック
+		when(passwordUtil.getSaltedAndStrechedPassword
+				(password, loginId)).thenReturn("aaa"); //　パスワードソルト処理のモック
+		when(loginMapper.getLoginDetailByLoginIdAndPassword
+				(loginId, "aaa", Constants.DB_FLG_FALSE)).thenReturn(null); // ログインユーザー取得処理のモック
+		when(loginThrottle.recordFailure(loginId)).thenReturn(true); // ログイン失敗記録のモック
+		
+		// 期待値の設定
+		String expected = messageUtil.getMessage(Constants.VALID_KEY_LOGIN_LOCK);
+		Integer expectedNgCount = 1;
+		
+		// 試験実行
+		String actual = loginService.getLoginInfo(loginId, password);
+		
+		//　検証処理
+		assertEquals(expected, actual);
+		assertEquals(expectedNgCount, loginUserDto.getPasswordNgCount());
+		verify(loginThrottle).recordFailure(loginId);
+		verify(loginThrottle, never()).reset(anyString());
+	}
+
     /**
 	 * Case.xx ログインサービス試験　アカウントNG回数チェック(リフレクションを用いたサンプル)<br>
 	 * <br>
@@ -0,0 +1,223 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceAnalytics;
+import jp.co.sss.lms.util.AttendanceBlankCounter;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 出退勤打刻バッファサービスの試験<br>
+ * ジャーナルの再適用、未反映の打刻の取得への反映、ジャーナルの同期を確認する。
+ */
+public class PunchBufferServiceTest {
+
+	@TempDir
+	Path journalDir;
+
+	@Mock
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Mock
+	private AttendanceBlankCounter attendanceBlankCounter;
+	@Mock
+	private AttendanceAnalytics attendanceAnalytics;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private PunchBufferService punchBufferService;
+
+	private AutoCloseable mocks;
+
+	@BeforeEach
+	public void setup() {
+		mocks = MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(punchBufferService, "enabled", true);
+		// 試験中に反映スレッドが動かないよう間隔を長くする
+		ReflectionTestUtils.setField(punchBufferService, "flushMillis", 60000L);
+		ReflectionTestUtils.setField(punchBufferService, "maxSize", 100);
+		ReflectionTestUtils.setField(punchBufferService, "journalDir", journalDir.toString());
+		ReflectionTestUtils.setField(punchBufferService, "sessionStore", "memory");
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		mocks.close();
+	}
+
+	/**
+	 * Case.1 起動時に残っているジャーナルを再適用すること<br>
+	 * ■試験観点：<br>
+	 * ・同一キーの記録は最後の記録で登録されること<br>
+	 * ・書込途中の行は読み飛ばされること<br>
+	 * ・再適用後にジャーナルが削除されること
+	 */
+	@Test
+	public void testCase1() throws Exception {
+		Date trainingDate = date(2024, 4, 1);
+		Date modified = new Date();
+		String journal = "1\t" + trainingDate.getTime() + "\t09:00\t\t0\t5\t1\t" + modified.getTime() + "\n"
+				+ "1\t" + trainingDate.getTime() + "\t09:00\t18:00\t0\t5\t1\t" + modified.getTime() + "\n"
+				+ "2\t" + trainingDate.getTime() + "\t09:";
+		Files.write(journalDir.resolve("punch-0000000000000000003.log"),
+				journal.getBytes(StandardCharsets.UTF_8));
+
+		punchBufferService.init();
+		try {
+			@SuppressWarnings("unchecked")
+			ArgumentCaptor<List<TStudentAttendance>> captor = ArgumentCaptor.forClass(List.class);
+			verify(tStudentAttendanceMapper).insertBatch(captor.capture());
+			verify(tStudentAttendanceMapper, never()).updateBatch(any());
+			List<TStudentAttendance> insertList = captor.getValue();
+			assertEquals(1, insertList.size());
+			TStudentAttendance inserted = insertList.get(0);
+			assertEquals(1, inserted.getLmsUserId());
+			assertEquals("09:00", inserted.getTrainingStartTime());
+			assertEquals("18:00", inserted.getTrainingEndTime());
+			assertEquals(5, inserted.getAccountId());
+			assertEquals(Constants.DB_FLG_FALSE, inserted.getDeleteFlg());
+			verify(attendanceBlankCounter).update(isNull(), eq(inserted));
+			assertFalse(Files.exists(journalDir.resolve("punch-0000000000000000003.log")));
+		} finally {
+			punchBufferService.destroy();
+		}
+	}
+
+	/**
+	 * Case.2 未反映の打刻が取得・勤怠管理画面に反映されること<br>
+	 * ■試験観点：<br>
+	 * ・未反映の打刻は勤怠情報を取得せずに返すこと<br>
+	 * ・勤怠管理画面用DTOに出退勤時刻が反映されること<br>
+	 * ・受付時点でジャーナルに記録されていること<br>
+	 * ・反映後は勤怠情報から取得すること
+	 */
+	@Test
+	public void testCase2() throws Exception {
+		punchBufferService.init();
+		try {
+			Date trainingDate = date(2024, 4, 1);
+			TStudentAttendance before = attendance(10, 1, trainingDate, "09:00", "");
+			TStudentAttendance after = attendance(10, 1, trainingDate, "09:00", "18:00");
+
+			assertTrue(punchBufferService.offer(before, after));
+			assertEquals(1, readJournalLines().size());
+
+			TStudentAttendance found = punchBufferService.findByLmsUserIdAndTrainingDate(1,
+					date(2024, 4, 1));
+			assertEquals("18:00", found.getTrainingEndTime());
+			assertNotSame(after, found);
+			verify(tStudentAttendanceMapper, never()).findByLmsUserIdAndTrainingDate(any(), any(),
+					any());
+
+			AttendanceManagementDto dto = new AttendanceManagementDto();
+			dto.setTrainingDate(trainingDate);
+			dto.setTrainingStartTime("09:00");
+			dto.setTrainingEndTime("");
+			AttendanceManagementDto other = new AttendanceManagementDto();
+			other.setTrainingDate(date(2024, 4, 2));
+			other.setTrainingEndTime("");
+			List<AttendanceManagementDto> dtoList = new ArrayList<>(List.of(dto, other));
+			punchBufferService.overlay(1, dtoList);
+			assertEquals(10, dto.getStudentAttendanceId());
+			assertEquals("18:00", dto.getTrainingEndTime());
+			assertEquals("", other.getTrainingEndTime());
+
+			punchBufferService.flush();
+			verify(tStudentAttendanceMapper).updateBatch(List.of(after));
+			punchBufferService.findByLmsUserIdAndTrainingDate(1, trainingDate);
+			verify(tStudentAttendanceMapper).findByLmsUserIdAndTrainingDate(1, trainingDate,
+					Constants.DB_FLG_FALSE);
+		} finally {
+			punchBufferService.destroy();
+		}
+	}
+
+	/**
+	 * Case.3 同時に受け付けた打刻がすべてジャーナルに記録されること<br>
+	 * ■試験観点：<br>
+	 * ・同期をまとめて行っても受付が失敗しないこと<br>
+	 * ・すべての打刻がジャーナルに記録されること
+	 */
+	@Test
+	public void testCase3() throws Exception {
+		punchBufferService.init();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Date trainingDate = date(2024, 4, 1);
+			List<Future<Boolean>> futureList = new ArrayList<>();
+			for (int i = 1; i <= 50; i++) {
+				TStudentAttendance after = attendance(null, i, trainingDate, "09:00", "");
+				futureList.add(executor.submit(() -> punchBufferService.offer(null, after)));
+			}
+			for (Future<Boolean> future : futureList) {
+				assertTrue(future.get());
+			}
+			assertEquals(50, readJournalLines().size());
+		} finally {
+			executor.shutdown();
+			punchBufferService.destroy();
+		}
+	}
+
+	private List<String> readJournalLines() throws Exception {
+		List<String> lineList = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(journalDir)) {
+			for (Path path : stream.toList()) {
+				lineList.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+			}
+		}
+		return lineList;
+	}
+
+	private TStudentAttendance attendance(Integer studentAttendanceId, Integer lmsUserId,
+			Date trainingDate, String startTime, String endTime) {
+		TStudentAttendance tStudentAttendance = new TStudentAttendance();
+		tStudentAttendance.setStudentAttendanceId(studentAttendanceId);
+		tStudentAttendance.setLmsUserId(lmsUserId);
+		tStudentAttendance.setTrainingDate(trainingDate);
+		tStudentAttendance.setTrainingStartTime(startTime);
+		tStudentAttendance.setTrainingEndTime(endTime);
+		tStudentAttendance.setStatus((short) 0);
+		tStudentAttendance.setNote("");
+		tStudentAttendance.setAccountId(5);
+		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+		tStudentAttendance.setLastModifiedUser(lmsUserId);
+		tStudentAttendance.setLastModifiedDate(new Date());
+		return tStudentAttendance;
+	}
+
+	private Date date(int year, int month, int day) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(year, month - 1, day);
+		return calendar.getTime();
+	}
+
+}
@@ -0,0 +1,154 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 日付ユーティリティの試験<br>
+ * DateTimeFormatterによる変換結果が、これまでのSimpleDateFormatと一致することを確認する。
+ */
+public class DateUtilTest {
+
+	private final DateUtil dateUtil = new DateUtil();
+
+	/**
+	 * Case.1 アプリケーションで使用する形式の解析結果が一致すること
+	 */
+	@Test
+	public void testCase1() {
+		assertParseSame("2024/4/1", "yyyy/M/d");
+		assertParseSame("2024/04/01", "yyyy/M/d");
+		assertParseSame("2024-04-01", "yyyy-MM-dd");
+		assertParseSame("2024/04/01", "yyyy/MM/dd");
+		assertParseSame("2024/04", "yyyy/MM");
+		assertParseSame("2024年4月1日", "yyyy年M月d日");
+		assertParseSame("2024/04/01 09:05:30", "yyyy/MM/dd HH:mm:ss");
+	}
+
+	/**
+	 * Case.2 空文字・空白・不正な入力の扱いが一致すること
+	 */
+	@Test
+	public void testCase2() {
+		assertParseSame("", "yyyy/M/d");
+		assertParseSame(" ", "yyyy/M/d");
+		assertParseSame("　", "yyyy/M/d");
+		assertParseSame("abc", "yyyy/M/d");
+		assertParseSame("2024/", "yyyy/M/d");
+		assertParseSame("2024-04-01", "yyyy/M/d");
+		assertThrows(ParseException.class, () -> dateUtil.parse(""));
+		assertThrows(ParseException.class, () -> dateUtil.parse("   "));
+	}
+
+	/**
+	 * Case.3 SimpleDateFormatが寛容に解析する入力の結果が一致すること<br>
+	 * ■試験観点：<br>
+	 * ・範囲外の月日は繰り上がること<br>
+	 * ・末尾の余分な文字列は無視されること<br>
+	 * ・項目前の空白が許容されること<br>
+	 * ・1900年より前（2桁の年を含む）の日付も同じ日時になること
+	 */
+	@Test
+	public void testCase3() {
+		assertParseSame("2024/2/30", "yyyy/M/d");
+		assertParseSame("2024/13/1", "yyyy/M/d");
+		assertParseSame("2024/4/0", "yyyy/M/d");
+		assertParseSame("2024/04/01 24:60:00", "yyyy/MM/dd HH:mm:ss");
+		assertParseSame("2024/4/1abc", "yyyy/M/d");
+		assertParseSame("2024/04/01 09:00:00", "yyyy/MM/dd");
+		assertParseSame(" 2024/4/1", "yyyy/M/d");
+		assertParseSame("2024/ 4/ 1", "yyyy/M/d");
+		assertParseSame("24/4/1", "yyyy/M/d");
+		assertParseSame("1582/10/10", "yyyy/M/d");
+		assertParseSame("1899/12/31 23:59:59", "yyyy/MM/dd HH:mm:ss");
+	}
+
+	/**
+	 * Case.4 ミリ秒を含む形式の解析・フォーマット結果が一致すること
+	 */
+	@Test
+	public void testCase4() {
+		assertParseSame("2024/04/01 09:00:00.123", "yyyy/MM/dd HH:mm:ss.SSS");
+		assertParseSame("2024/04/01 09:00:00.5", "yyyy/MM/dd HH:mm:ss.SSS");
+		assertParseSame("2024/04/01 09:00:00.050", "yyyy/MM/dd HH:mm:ss.SSS");
+		assertParseSame("2024/04/01 09:00:00.1234", "yyyy/MM/dd HH:mm:ss.SSS");
+
+		Date date = date(2024, 4, 1, 9, 5, 30, 7);
+		assertFormatSame(date, "S");
+		assertFormatSame(date, "SS");
+		assertFormatSame(date, "SSS");
+		assertFormatSame(date, "SSSS");
+		assertFormatSame(date, "HH:mm:ss.SSS");
+		assertFormatSame(date, "yyyy'S'MM");
+		assertFormatSame(date(2024, 4, 1, 9, 5, 30, 123), "yyyy/MM/dd HH:mm:ss.SSS");
+	}
+
+	/**
+	 * Case.5 アプリケーションで使用する形式のフォーマット結果が一致すること<br>
+	 * ■試験観点：<br>
+	 * ・週基準年（Y）は年末で翌年になること
+	 */
+	@Test
+	public void testCase5() {
+		Date date = date(2024, 4, 1, 9, 5, 30, 0);
+		assertFormatSame(date, "yyyy/M/d");
+		assertFormatSame(date, "yyyy-MM-dd");
+		assertFormatSame(date, "yyyy/MM/dd");
+		assertFormatSame(date, "yyyy/MM/dd HH:mm:ss");
+		assertFormatSame(date, "yyyy年M月d日");
+		assertFormatSame(date, "yyyy年MM月");
+		assertFormatSame(date, "YYYYMMdd");
+		assertFormatSame(date(2024, 12, 30, 0, 0, 0, 0), "YYYYMMdd");
+		assertFormatSame(new java.sql.Date(date.getTime()), "yyyy/M/d");
+		assertFormatSame(date(24, 4, 1, 0, 0, 0, 0), "yyyy/MM/dd HH:mm:ss");
+		assertEquals("2024/4/1", dateUtil.toString(date));
+	}
+
+	/**
+	 * 解析結果がSimpleDateFormatと一致することを確認
+	 *
+	 * @param text
+	 * @param fmt
+	 */
+	private void assertParseSame(String text, String fmt) {
+		String expected;
+		try {
+			expected = String.valueOf(new SimpleDateFormat(fmt).parse(text).getTime());
+		} catch (ParseException e) {
+			expected = ParseException.class.getSimpleName();
+		}
+		String actual;
+		try {
+			actual = String.valueOf(dateUtil.parse(text, fmt).getTime());
+		} catch (ParseException e) {
+			actual = ParseException.class.getSimpleName();
+		}
+		assertEquals(expected, actual, "\"" + text + "\" / " + fmt);
+	}
+
+	/**
+	 * フォーマット結果がSimpleDateFormatと一致することを確認
+	 *
+	 * @param date
+	 * @param fmt
+	 */
+	private void assertFormatSame(Date date, String fmt) {
+		assertEquals(new SimpleDateFormat(fmt).format(date), dateUtil.toString(date, fmt), fmt);
+	}
+
+	private Date date(int year, int month, int day, int hour, int minute, int second,
+			int millisecond) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(year, month - 1, day, hour, minute, second);
+		calendar.set(Calendar.MILLISECOND, millisecond);
+		return calendar.getTime();
+	}
+
+}
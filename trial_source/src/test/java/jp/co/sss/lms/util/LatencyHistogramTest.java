@@ -0,0 +1,144 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 処理時間ヒストグラムの試験<br>
+ * 分位点が区間の相対誤差（約3%）の範囲に収まることと、範囲外の値・同時記録の扱いを確認する。
+ */
+public class LatencyHistogramTest {
+
+	/** 記録できる最大値（マイクロ秒） */
+	private static final long MAX_VALUE = 60L * 60L * 1000L * 1000L;
+
+	/**
+	 * Case.1 32マイクロ秒未満の値は誤差なく数えること
+	 */
+	@Test
+	public void testCase1() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		for (long value = 0; value < 32; value++) {
+			latencyHistogram.record(value);
+		}
+		long[] snapshot = latencyHistogram.snapshot();
+		long count = LatencyHistogram.getCount(snapshot);
+
+		assertEquals(32, count);
+		assertEquals(0, LatencyHistogram.valueAtQuantile(snapshot, count, 0));
+		assertEquals(15, LatencyHistogram.valueAtQuantile(snapshot, count, 0.5));
+		assertEquals(31, LatencyHistogram.valueAtQuantile(snapshot, count, 1));
+		assertEquals(496, latencyHistogram.getSum());
+		assertEquals(31, latencyHistogram.getMax());
+	}
+
+	/**
+	 * Case.2 値を含む区間の上限値が、値以上かつ相対誤差1/32以内であること
+	 */
+	@Test
+	public void testCase2() {
+		List<Long> valueList = new ArrayList<>();
+		for (long value = 1; value <= MAX_VALUE; value = value * 2) {
+			valueList.add(value - 1);
+			valueList.add(value);
+			valueList.add(value + 1);
+			valueList.add(value * 3 / 2);
+		}
+		valueList.add(MAX_VALUE);
+		for (long value : valueList) {
+			if (value > MAX_VALUE) {
+				continue;
+			}
+			LatencyHistogram latencyHistogram = new LatencyHistogram();
+			latencyHistogram.record(value);
+			long[] snapshot = latencyHistogram.snapshot();
+			long upper = LatencyHistogram.valueAtQuantile(snapshot, 1, 1);
+			assertTrue(upper >= value, "value=" + value + ", upper=" + upper);
+			assertTrue(upper <= value + value / 32, "value=" + value + ", upper=" + upper);
+		}
+	}
+
+	/**
+	 * Case.3 分位点が区間の誤差の範囲で算出されること<br>
+	 * ■試験観点：<br>
+	 * ・件数が0の場合は0を返却すること<br>
+	 * ・1～10000の一様な値の中央値・99パーセンタイル
+	 */
+	@Test
+	public void testCase3() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		long[] empty = latencyHistogram.snapshot();
+		assertEquals(0, LatencyHistogram.getCount(empty));
+		assertEquals(0, LatencyHistogram.valueAtQuantile(empty, 0, 0.5));
+
+		for (long value = 1; value <= 10000; value++) {
+			latencyHistogram.record(value);
+		}
+		long[] snapshot = latencyHistogram.snapshot();
+		long count = LatencyHistogram.getCount(snapshot);
+		long p50 = LatencyHistogram.valueAtQuantile(snapshot, count, 0.5);
+		long p99 = LatencyHistogram.valueAtQuantile(snapshot, count, 0.99);
+
+		assertEquals(10000, count);
+		assertTrue(p50 >= 5000 && p50 <= 5000 + 5000 / 32, "p50=" + p50);
+		assertTrue(p99 >= 9900 && p99 <= 9900 + 9900 / 32, "p99=" + p99);
+		assertEquals(50005000, latencyHistogram.getSum());
+		assertEquals(10000, latencyHistogram.getMax());
+	}
+
+	/**
+	 * Case.4 範囲外の値は範囲内に丸めて数えること
+	 */
+	@Test
+	public void testCase4() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		latencyHistogram.record(-5);
+		latencyHistogram.record(MAX_VALUE * 2);
+		latencyHistogram.record(Long.MAX_VALUE);
+		long[] snapshot = latencyHistogram.snapshot();
+		long count = LatencyHistogram.getCount(snapshot);
+
+		assertEquals(3, count);
+		assertEquals(0, LatencyHistogram.valueAtQuantile(snapshot, count, 0.1));
+		assertTrue(LatencyHistogram.valueAtQuantile(snapshot, count, 1) >= MAX_VALUE);
+		assertEquals(MAX_VALUE * 2, latencyHistogram.getSum());
+		assertEquals(MAX_VALUE, latencyHistogram.getMax());
+	}
+
+	/**
+	 * Case.5 同時に記録した値がすべて数えられること
+	 */
+	@Test
+	public void testCase5() throws Exception {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futureList = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				long offset = i;
+				futureList.add(executor.submit(() -> {
+					for (long value = 1; value <= 10000; value++) {
+						latencyHistogram.record(value + offset);
+					}
+				}));
+			}
+			for (Future<?> future : futureList) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(80000, LatencyHistogram.getCount(latencyHistogram.snapshot()));
+		assertEquals(8 * 50005000L + 10000L * (0 + 1 + 2 + 3 + 4 + 5 + 6 + 7), latencyHistogram.getSum());
+		assertEquals(10007, latencyHistogram.getMax());
+	}
+
+}
@@ -0,0 +1,83 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+
+/**
+ * ログイン情報の変換の試験<br>
+ * バイト列はサーバー間で共有するため、変換前後で内容が一致することとバージョン不一致時の扱いを確認する。
+ */
+public class LoginUserDtoCodecTest {
+
+	private final LoginUserDtoCodec loginUserDtoCodec = new LoginUserDtoCodec();
+
+	/**
+	 * Case.1 全項目を設定したログイン情報が元に戻ること
+	 */
+	@Test
+	public void testCase1() {
+		LoginUserDto loginUserDto = new LoginUserDto();
+		loginUserDto.setAccountId(1);
+		loginUserDto.setUserId(2);
+		loginUserDto.setLmsUserId(3);
+		loginUserDto.setUserName("受講生　太郎");
+		loginUserDto.setRole("ROLE_STUDENT");
+		loginUserDto.setCompanyId(4);
+		loginUserDto.setCompanyName("株式会社テスト");
+		loginUserDto.setPlaceId(5);
+		loginUserDto.setPlaceName("東京");
+		loginUserDto.setHiddenFlg((short) 1);
+		loginUserDto.setCourseId(6);
+		loginUserDto.setCourseName("Javaコース");
+		loginUserDto.setSecurityAgreeFlg((short) 1);
+		loginUserDto.setPasswordNgCount(2);
+		loginUserDto.setPasswordChangeDate(new Date(1700000000000L));
+		loginUserDto.setPasswordNgDate("2024/04/01 09:00:00");
+		loginUserDto.setSupportAvailable((short) 0);
+		loginUserDto.setMailAddress("student@example.com");
+		loginUserDto.setLeaveFlg(0);
+		loginUserDto.setLeaveDate(new Date(1710000000000L));
+		loginUserDto.setFileShareFlg((short) 1);
+		loginUserDto.setGateCheckExpireTime(1720000000000L);
+
+		byte[] data = loginUserDtoCodec.encode(loginUserDto);
+
+		assertEquals(loginUserDto, loginUserDtoCodec.decode(data));
+		assertArrayEquals(data, loginUserDtoCodec.encode(loginUserDtoCodec.decode(data)));
+	}
+
+	/**
+	 * Case.2 全項目が未設定のログイン情報が元に戻ること
+	 */
+	@Test
+	public void testCase2() {
+		LoginUserDto loginUserDto = new LoginUserDto();
+
+		byte[] data = loginUserDtoCodec.encode(loginUserDto);
+
+		// バージョン（1バイト）と設定されている項目のビット（4バイト）のみ
+		assertEquals(5, data.length);
+		assertEquals(loginUserDto, loginUserDtoCodec.decode(data));
+	}
+
+	/**
+	 * Case.3 形式のバージョンが異なる場合・空の場合はnullを返却すること
+	 */
+	@Test
+	public void testCase3() {
+		LoginUserDto loginUserDto = new LoginUserDto();
+		loginUserDto.setLmsUserId(3);
+		byte[] data = loginUserDtoCodec.encode(loginUserDto);
+		data[0]++;
+
+		assertNull(loginUserDtoCodec.decode(data));
+		assertNull(loginUserDtoCodec.decode(new byte[0]));
+		assertNull(loginUserDtoCodec.decode(null));
+	}
+
+}
@@ -0,0 +1,53 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * パスワードユーティリティの試験<br>
+ * 登録済のパスワードと一致させるため、ハッシュ値が従来の実装（文字列連結・UTF-8）で算出した値と一致することを確認する。
+ */
+public class PasswordUtilTest {
+
+	private final PasswordUtil passwordUtil = new PasswordUtil();
+
+	@BeforeEach
+	public void setup() {
+		ReflectionTestUtils.setField(passwordUtil, "stretchCount", 10);
+	}
+
+	/**
+	 * Case.1 英数字のパスワードのハッシュ値が従来の値と一致すること
+	 */
+	@Test
+	public void testCase1() {
+		assertEquals("8481c4e9ec4003c9abedc9e4652114774e5c018cdf44a400ac8af3c5fe0a2852",
+				passwordUtil.getSaltedAndStrechedPassword("Password1", "student01"));
+		assertEquals("9cdf9e13ef40f75a72e06a0ddba88c25cfc08472cbc7123779ffe244b0ccccfc",
+				passwordUtil.getSaltedAndStrechedPassword("abcDEF123-", "teacher"));
+	}
+
+	/**
+	 * Case.2 マルチバイト文字を含むパスワード・ユーザーIDのハッシュ値が従来の値と一致すること
+	 */
+	@Test
+	public void testCase2() {
+		assertEquals("e2080c80e6a9c3af274722db950441b9778efc4be6fca9a911522079ad53cdc0",
+				passwordUtil.getSaltedAndStrechedPassword("パスワード1a", "受講生01"));
+		assertEquals("b811a5e0c36e0ec893df15d09833df413006364fc2ae82cfd0c2afb4a0db8132",
+				passwordUtil.getSaltedAndStrechedPassword("Pässwörd😀9", "user@example.com"));
+	}
+
+	/**
+	 * Case.3 空のパスワード・ユーザーIDのハッシュ値が従来の値と一致すること
+	 */
+	@Test
+	public void testCase3() {
+		assertEquals("ca14566cdfb03b4d2fd237a0297c4baa6ebcff67aae04616ff7fadc0bcfff989",
+				passwordUtil.getSaltedAndStrechedPassword("", ""));
+	}
+
+}
@@ -0,0 +1,101 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 研修時刻ユーティリティの試験<br>
+ * 時刻文字列の解析結果が、従来の実装（String#split・正規表現）と同じであることを確認する。
+ */
+public class TrainingTimeTest {
+
+	/**
+	 * Case.1 有効フォーマットの時刻文字列が分数に変換されること<br>
+	 * ■試験観点：<br>
+	 * ・"H:mm"形式、数値4桁の形式を解析できること<br>
+	 * ・24時以降の時刻を解析できること<br>
+	 * ・末尾のコロンは無視されること
+	 */
+	@Test
+	public void testCase1() {
+		assertEquals(540, TrainingTime.parseMinutes("9:00"));
+		assertEquals(540, TrainingTime.parseMinutes("09:00"));
+		assertEquals(1080, TrainingTime.parseMinutes("18:00"));
+		assertEquals(545, TrainingTime.parseMinutes("9:5"));
+		assertEquals(0, TrainingTime.parseMinutes("0:00"));
+		assertEquals(540, TrainingTime.parseMinutes("0900"));
+		assertEquals(1439, TrainingTime.parseMinutes("2359"));
+		assertEquals(1470, TrainingTime.parseMinutes("24:30"));
+		assertEquals(540, TrainingTime.parseMinutes("9:00:"));
+		assertEquals(540, TrainingTime.parseMinutes("9:00::"));
+	}
+
+	/**
+	 * Case.2 空の時刻文字列は未設定として扱われること
+	 */
+	@Test
+	public void testCase2() {
+		assertEquals(TrainingTime.BLANK_MINUTES, TrainingTime.parseMinutes(null));
+		assertEquals(TrainingTime.BLANK_MINUTES, TrainingTime.parseMinutes(""));
+		assertTrue(new TrainingTime((String) null).isBlank());
+		assertTrue(new TrainingTime("").isBlank());
+		assertTrue(new TrainingTime(0, 0).isValidTrainingTime(""));
+	}
+
+	/**
+	 * Case.3 有効フォーマットでない時刻文字列は例外となること<br>
+	 * ■試験観点：<br>
+	 * ・数字以外（符号・空白・全角数字）を含む場合<br>
+	 * ・コロンの前後が空・コロンが連続する場合<br>
+	 * ・数値4桁以外の場合<br>
+	 * ・分が60以上の場合
+	 */
+	@Test
+	public void testCase3() {
+		String[] invalids = { "9", "900", "09000", "9:", "9::", ":00", "9::00", "9:00:00", "9-00", "+9:00",
+				"9:-1", " 9:00", "9:00 ", "９:００", "a900", "9:60", "2360", "99999999999:00" };
+		TrainingTime trainingTime = new TrainingTime(0, 0);
+		for (String invalid : invalids) {
+			assertThrows(IllegalArgumentException.class, () -> TrainingTime.parseMinutes(invalid), invalid);
+			assertThrows(IllegalArgumentException.class, () -> new TrainingTime(invalid), invalid);
+			assertFalse(trainingTime.isValidTrainingTime(invalid), invalid);
+		}
+	}
+
+	/**
+	 * Case.4 前後の空白を除去し、不正な値は未設定として扱うこと
+	 */
+	@Test
+	public void testCase4() {
+		assertEquals(540, TrainingTime.parseMinutesOrBlank(" 9:00 "));
+		assertEquals(540, TrainingTime.parseMinutesOrBlank("0900"));
+		assertEquals(TrainingTime.BLANK_MINUTES, TrainingTime.parseMinutesOrBlank(null));
+		assertEquals(TrainingTime.BLANK_MINUTES, TrainingTime.parseMinutesOrBlank("   "));
+		assertEquals(TrainingTime.BLANK_MINUTES, TrainingTime.parseMinutesOrBlank("9:60"));
+	}
+
+	/**
+	 * Case.5 分数・インスタンスがHH:mm形式に変換されること
+	 */
+	@Test
+	public void testCase5() {
+		assertEquals("00:00", TrainingTime.formatMinutes(0));
+		assertEquals("09:05", TrainingTime.formatMinutes(545));
+		assertEquals("23:59", TrainingTime.formatMinutes(1439));
+		assertEquals("24:30", TrainingTime.formatMinutes(1470));
+		assertEquals("", TrainingTime.formatMinutes(TrainingTime.BLANK_MINUTES));
+		for (int minutes = 0; minutes < 24 * 60; minutes++) {
+			assertEquals(minutes, TrainingTime.parseMinutes(TrainingTime.formatMinutes(minutes)));
+		}
+
+		TrainingTime trainingTime = new TrainingTime("9:5");
+		assertEquals(9, trainingTime.getHour());
+		assertEquals(5, trainingTime.getMinute());
+		assertEquals("09:05", trainingTime.getFormattedString());
+		assertEquals(545, trainingTime.toMinutes());
+		assertEquals("", new TrainingTime("").getFormattedString());
+		assertEquals(TrainingTime.BLANK_MINUTES, new TrainingTime("").toMinutes());
+	}
+
+}
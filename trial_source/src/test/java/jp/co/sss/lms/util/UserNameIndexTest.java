@@ -0,0 +1,146 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.entity.MUser;
+import jp.co.sss.lms.mapper.MUserMapper;
+
+/**
+ * 受講生名インデックスの試験<br>
+ * 索引による検索結果が、正規化した受講生名の部分一致と同じであることを確認する。
+ */
+public class UserNameIndexTest {
+
+	@Mock
+	private MUserMapper mUserMapper;
+
+	@InjectMocks
+	private UserNameIndex userNameIndex;
+
+	private AutoCloseable mocks;
+
+	private final List<MUser> userList = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		mocks = MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(userNameIndex, "expireMinute", 60);
+		userList.add(user(1, "山田　太郎"));
+		userList.add(user(2, "ヤマダ ハナコ"));
+		userList.add(user(3, "Ｓｕｚｕｋｉ Ｉｃｈｉｒｏ"));
+		userList.add(user(5, "やまもと　ゆうこ"));
+		userList.add(user(8, "ああああ"));
+		userList.add(user(9, "ｻﾄｳ ｼﾞﾛｳ"));
+		userList.add(user(12, null));
+		for (int i = 20; i < 30; i++) {
+			userList.add(user(i, "田中" + i));
+		}
+		when(mUserMapper.getUserNameList(Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE))
+				.thenReturn(userList);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		userNameIndex.destroy();
+		mocks.close();
+	}
+
+	/**
+	 * Case.1 正規化した受講生名に部分一致する受講生が昇順で返却されること<br>
+	 * ■試験観点：<br>
+	 * ・全角半角・大文字小文字・カタカナひらがなの違いを無視すること<br>
+	 * ・空白を無視すること
+	 */
+	@Test
+	public void testCase1() {
+		assertArrayEquals(new int[] { 1 }, userNameIndex.search("山田"));
+		assertArrayEquals(new int[] { 1 }, userNameIndex.search("山田 太郎"));
+		assertArrayEquals(new int[] { 2, 5 }, userNameIndex.search("やま"));
+		assertArrayEquals(new int[] { 2, 5 }, userNameIndex.search("ﾔﾏ"));
+		assertArrayEquals(new int[] { 3 }, userNameIndex.search("suzuki"));
+		assertArrayEquals(new int[] { 3 }, userNameIndex.search("KIICHI"));
+		assertArrayEquals(new int[] { 9 }, userNameIndex.search("じろう"));
+		assertArrayEquals(new int[] { 8 }, userNameIndex.search("あああ"));
+	}
+
+	/**
+	 * Case.2 1文字・一致しない・空のキーワードの検索結果<br>
+	 * ■試験観点：<br>
+	 * ・1文字のキーワードで検索できること<br>
+	 * ・一致しない場合は空の配列を返却すること<br>
+	 * ・キーワードが空の場合はnullを返却すること
+	 */
+	@Test
+	public void testCase2() {
+		assertArrayEquals(new int[] { 1, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29 },
+				userNameIndex.search("田"));
+		assertArrayEquals(new int[] { 23 }, userNameIndex.search("田中23"));
+		assertArrayEquals(new int[0], userNameIndex.search("佐藤"));
+		assertArrayEquals(new int[0], userNameIndex.search("山田花子"));
+		assertNull(userNameIndex.search(null));
+		assertNull(userNameIndex.search(""));
+		assertNull(userNameIndex.search(" 　"));
+	}
+
+	/**
+	 * Case.3 受講生名の全ての部分文字列で、単純な部分一致と同じ結果になること
+	 */
+	@Test
+	public void testCase3() {
+		for (MUser user : userList) {
+			String name = UserNameIndex.normalize(user.getUserName());
+			for (int begin = 0; begin < name.length(); begin++) {
+				for (int end = begin + 1; end <= name.length(); end++) {
+					String keyword = name.substring(begin, end);
+					assertArrayEquals(expected(keyword), userNameIndex.search(keyword), keyword);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Case.4 有効期限内は索引を再作成しないこと
+	 */
+	@Test
+	public void testCase4() {
+		assertEquals(-1, userNameIndex.getSize());
+		userNameIndex.search("山田");
+		userNameIndex.search("田中");
+		assertEquals(userList.size(), userNameIndex.getSize());
+		verify(mUserMapper, times(1)).getUserNameList(any(), any());
+	}
+
+	/**
+	 * 単純な部分一致による検索結果
+	 *
+	 * @param keyword
+	 * @return 一致したユーザーIDの昇順配列
+	 */
+	private int[] expected(String keyword) {
+		String normalized = UserNameIndex.normalize(keyword);
+		return userList.stream()
+				.filter(user -> UserNameIndex.normalize(user.getUserName()).contains(normalized))
+				.mapToInt(MUser::getUserId)
+				.toArray();
+	}
+
+	private MUser user(Integer userId, String userName) {
+		MUser mUser = new MUser();
+		mUser.setUserId(userId);
+		mUser.setUserName(userName);
+		return mUser;
+	}
+
+}